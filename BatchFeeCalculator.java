@@ -0,0 +1,111 @@
+import java.util.Arrays;
+
+/**
+ * Batch fee computation for recomputing many stays at once, e.g. after a
+ * tariff change: durations and vehicle class ids in, fees in paise out.
+ *
+ * Uses the SIMD kernel in VectorFeeKernel when the jdk.incubator.vector
+ * module is present (run with --add-modules jdk.incubator.vector) and falls
+ * back to the scalar loop below otherwise; both give identical results.
+ * -Dparking.vectorFees=false forces the scalar loop.
+ *
+ * Fees are ints to fill whole SIMD lanes, so durations are limited to
+ * MAX_DURATION (about two years) and rates to what fits in an int over it.
+ *
+ * Time Complexity: O(n), n / lanes vector iterations
+ * Space Complexity: O(classes * 60) for the leftover-minute table
+ */
+public class BatchFeeCalculator {
+    public static final int MAX_DURATION = (1 << 20) - 1;
+    private static final boolean VECTOR_ENABLED = !"false".equals(System.getProperty("parking.vectorFees"));
+
+    // Per class id: hourly rate, and the fee for each leftover minute of a part-started hour
+    private final int classes;
+    private final int[] rate;
+    private final int[] leftoverFee;   // [class * 60 + minute]
+    private final VectorFeeKernel vector;
+
+    /** One TariffRules per vehicle class, indexed by VehicleClass.ordinal(). */
+    public BatchFeeCalculator(TariffRules[] rulesByClass) {
+        this.classes = rulesByClass.length;
+        this.rate = new int[classes];
+        this.leftoverFee = new int[classes * 60];
+        for (int c = 0; c < classes; c++) {
+            TariffRules rules = rulesByClass[c];
+            if (rules.fee(MAX_DURATION) > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Hourly rate " + rules.hourlyRate() + " overflows int fees over " + MAX_DURATION + " minutes");
+            }
+            rate[c] = (int) rules.hourlyRate();
+            for (int m = 0; m < 60; m++) {
+                leftoverFee[c * 60 + m] = (int) rules.fee(m);
+            }
+        }
+        this.vector = VECTOR_ENABLED ? loadVectorKernel(rate, leftoverFee) : null;
+    }
+
+    // Touching VectorFeeKernel links jdk.incubator.vector; without the module that fails and the scalar loop is used
+    private static VectorFeeKernel loadVectorKernel(int[] rate, int[] leftoverFee) {
+        try {
+            return new VectorFeeKernel(rate, leftoverFee);
+        } catch (LinkageError e) {
+            return null;
+        }
+    }
+
+    /** The fixed tariff Payment charges, for every vehicle class. */
+    public static BatchFeeCalculator standard() {
+        TariffRules[] rules = new TariffRules[VehicleClass.values().length];
+        Arrays.fill(rules, TariffRules.standard());
+        return new BatchFeeCalculator(rules);
+    }
+
+    public boolean isVectorized() { return vector != null; }
+
+    /** Lanes per vector iteration, or 1 on the scalar path. */
+    public int lanes() { return vector != null ? vector.lanes() : 1; }
+
+    /**
+     * fees[i] = fee for durations[i] minutes in class classIds[i], for i in [0, n).
+     *
+     * @throws IllegalArgumentException if a duration is negative or above MAX_DURATION,
+     *         or a class id is not a VehicleClass ordinal
+     */
+    public void compute(int[] durations, int[] classIds, int[] fees, int n) {
+        int bits;
+        if (vector != null) {
+            int upper = vector.loopBound(n);
+            bits = vector.compute(durations, classIds, fees, upper) | computeScalar(durations, classIds, fees, upper, n);
+        } else {
+            bits = computeScalar(durations, classIds, fees, 0, n);
+        }
+        checkDurations(bits);
+    }
+
+    /** The plain loop, always available; used as the fallback and as the benchmark baseline. */
+    public void computeScalar(int[] durations, int[] classIds, int[] fees, int n) {
+        checkDurations(computeScalar(durations, classIds, fees, 0, n));
+    }
+
+    // Returns the OR of all durations so one check at the end covers negatives and overflow
+    int computeScalar(int[] durations, int[] classIds, int[] fees, int from, int to) {
+        int bits = 0;
+        for (int i = from; i < to; i++) {
+            int d = durations[i];
+            int c = classIds[i];
+            bits |= d;
+            d &= MAX_DURATION;   // keep the lookup in range; the caller throws on bits afterwards
+            if (c < 0 || c >= classes) {
+                throw new IllegalArgumentException("Unknown vehicle class id " + c + " at index " + i);
+            }
+            int hours = d / 60;
+            fees[i] = hours * rate[c] + leftoverFee[c * 60 + (d - hours * 60)];
+        }
+        return bits;
+    }
+
+    private static void checkDurations(int bits) {
+        if ((bits & ~MAX_DURATION) != 0) {
+            throw new IllegalArgumentException("Durations must be between 0 and " + MAX_DURATION + " minutes");
+        }
+    }
+}
@@ -0,0 +1,151 @@
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One booking as typed, compact fields.
+ *
+ * ALGORITHM: Primitive fields + dictionary-encoded plate
+ * The GUI used to keep each booking as a HashMap of nine Strings (~1 KB
+ * with entries, keys and values). Here the id is the 64-bit value behind
+ * the "BK..." code, the entry time is a long, the duration an int, the
+ * amount a long in paise, the status an enum and the plate an int id into
+ * a PlateDictionary shared by all bookings. Only the owner name and phone
+ * stay Strings. Map form is produced at the UI edge with toMap().
+ *
+ * The entry time is local wall-clock seconds since 1970-01-01 00:00:00,
+ * the same clock TariffSchedule and SettlementEngine use for epoch minutes.
+ *
+ * Time Complexity: O(1) per field access; O(length) to parse / format
+ * Space Complexity: ~64 bytes of object plus the name and phone Strings
+ */
+public final class Booking {
+    public static final String ID = "booking_id";
+    public static final String VEHICLE = "vehicle_number";
+    public static final String SLOT = "spot_number";
+    public static final String NAME = "name";
+    public static final String PHONE = "phone";
+    public static final String IN_TIME = "in_time";
+    public static final String DURATION = "duration";
+    public static final String AMOUNT = "amount";
+    public static final String STATUS = "status";
+
+    private static final DateTimeFormatter IN_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final long id;
+    private final int plateId;
+    private final String slot;
+    private final String name;
+    private final String phone;
+    private final long inTime;
+    private final int durationMinutes;
+    private final long amountPaise;
+    private final BookingStatus status;
+
+    public Booking(long id, int plateId, String slot, String name, String phone,
+                   long inTime, int durationMinutes, long amountPaise, BookingStatus status) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Booking id must not be negative: " + id);
+        }
+        if (plateId <= 0) {
+            throw new IllegalArgumentException("Booking needs a plate id, got " + plateId);
+        }
+        if (durationMinutes < 0 || amountPaise < 0) {
+            throw new IllegalArgumentException("Duration and amount must not be negative: " + durationMinutes + " min, " + amountPaise + " paise");
+        }
+        if (status == null) {
+            throw new IllegalArgumentException("Booking needs a status");
+        }
+        this.id = id;
+        this.plateId = plateId;
+        this.slot = slot;
+        this.name = name;
+        this.phone = phone;
+        this.inTime = inTime;
+        this.durationMinutes = durationMinutes;
+        this.amountPaise = amountPaise;
+        this.status = status;
+    }
+
+    public long getId() { return id; }
+    public String getCode() { return BookingIdGenerator.encode(id); }
+    public int getPlateId() { return plateId; }
+    public String getSlot() { return slot; }
+    public String getName() { return name; }
+    public String getPhone() { return phone; }
+    public long getInTime() { return inTime; }
+    public long getEntryMinute() { return Math.floorDiv(inTime, 60); }
+    public int getDurationMinutes() { return durationMinutes; }
+    public long getAmountPaise() { return amountPaise; }
+    public BookingStatus getStatus() { return status; }
+
+    /**
+     * Builds a booking from the string fields the form and parking_spots use
+     * ("booking_id", "vehicle_number", ..., see the key constants).
+     *
+     * @throws IllegalArgumentException if a field is missing or unreadable
+     */
+    public static Booking fromFields(Map<String, String> fields, PlateDictionary plates) {
+        long id = BookingIdGenerator.decode(fields.get(ID));
+        if (id < 0) {
+            throw new IllegalArgumentException("Not a booking code: " + fields.get(ID));
+        }
+        String vehicle = fields.get(VEHICLE);
+        if (vehicle == null || vehicle.trim().isEmpty()) {
+            throw new IllegalArgumentException("Booking " + fields.get(ID) + " has no " + VEHICLE);
+        }
+        try {
+            return new Booking(id, plates.encode(vehicle), fields.get(SLOT), fields.get(NAME), fields.get(PHONE),
+                    parseInTime(fields.get(IN_TIME)),
+                    SettlementEngine.parseHours(fields.get(DURATION)) * DurationEngine.MINUTES_PER_HOUR,
+                    SettlementEngine.parsePaise(fields.get(AMOUNT)),
+                    BookingStatus.fromLabel(fields.get(STATUS)));
+        } catch (NullPointerException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Booking " + fields.get(ID) + " has a missing or short field", e);
+        }
+    }
+
+    /** The booking as display strings, keyed like parking_spots columns; plates come back as entered. */
+    public Map<String, String> toMap(PlateDictionary plates) {
+        Map<String, String> out = new HashMap<>();
+        out.put(ID, getCode());
+        out.put(VEHICLE, plates.decode(plateId));
+        out.put(SLOT, slot);
+        out.put(NAME, name);
+        out.put(PHONE, phone);
+        out.put(IN_TIME, formatInTime(inTime));
+        out.put(DURATION, formatDuration(durationMinutes));
+        out.put(AMOUNT, formatAmount(amountPaise));
+        out.put(STATUS, status.getLabel());
+        return out;
+    }
+
+    // "yyyy-MM-dd HH:mm:ss" (local time) -> local seconds since the epoch
+    static long parseInTime(String s) {
+        int tens = s.length() == 19 ? s.charAt(17) - '0' : -1;
+        int units = s.length() == 19 ? s.charAt(18) - '0' : -1;
+        if (tens < 0 || tens > 5 || units < 0 || units > 9) {
+            throw new NumberFormatException("Expected yyyy-MM-dd HH:mm:ss, got \"" + s + "\"");
+        }
+        return SettlementEngine.parseInTime(s) * 60 + tens * 10 + units;
+    }
+
+    static String formatInTime(long inTime) {
+        return LocalDateTime.ofEpochSecond(inTime, 0, ZoneOffset.UTC).format(IN_TIME_FORMAT);
+    }
+
+    // 180 -> "3 hrs", 150 -> "2 hrs 30 min"
+    static String formatDuration(int minutes) {
+        int hours = DurationEngine.hours(minutes);
+        int rest = DurationEngine.minutes(minutes);
+        return rest == 0 ? hours + " hrs" : hours + " hrs " + rest + " min";
+    }
+
+    // 6050 -> "60.50"
+    static String formatAmount(long paise) {
+        long rest = paise % 100;
+        return (paise / 100) + (rest < 10 ? ".0" : ".") + rest;
+    }
+}
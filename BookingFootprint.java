@@ -0,0 +1,113 @@
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures heap bytes per booking for the old Map<String, String> records
+ * versus typed Booking records in a BookingStore.
+ *
+ * Both hold the same bookings: each vehicle books several times, and every
+ * booking brings its own strings, as it does when read from the form or DB.
+ * The store figure includes its id, plate and slot indexes and the plate
+ * dictionary. Numbers are retained heap after a full GC, so run with
+ * enough heap, e.g.
+ *
+ * Run:  java -Xmx4g BookingFootprint [bookings] [distinct vehicles]
+ */
+public class BookingFootprint {
+
+    public static void main(String[] args) {
+        int bookings = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int vehicles = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 6, 0);
+        BookingIdGenerator ids = new BookingIdGenerator(0);
+
+        String[][] fields = new String[bookings][];
+        for (int i = 0; i < bookings; i++) {
+            int v = i % vehicles;
+            fields[i] = new String[]{
+                ids.nextCode(),
+                String.format("MH%02d AB %04d", v % 50, v % 10_000) + "-" + (v / 10_000),
+                "A" + (1 + i % 500),
+                "Owner " + v,
+                String.valueOf(9_000_000_000L + v),
+                start.plusMinutes(i * 7L).format(format),
+                (1 + i % 8) + " hrs",
+                String.format("%d.00", 30 * (1 + i % 8)),
+                BookingStatus.BOOKED.getLabel()
+            };
+        }
+
+        long base = usedHeap();
+        List<Map<String, String>> maps = new ArrayList<>(bookings);
+        for (String[] f : fields) {
+            Map<String, String> rec = new HashMap<>();
+            rec.put(Booking.ID, copy(f[0]));
+            rec.put(Booking.VEHICLE, copy(f[1]));
+            rec.put(Booking.SLOT, copy(f[2]));
+            rec.put(Booking.NAME, copy(f[3]));
+            rec.put(Booking.PHONE, copy(f[4]));
+            rec.put(Booking.IN_TIME, copy(f[5]));
+            rec.put(Booking.DURATION, copy(f[6]));
+            rec.put(Booking.AMOUNT, copy(f[7]));
+            rec.put(Booking.STATUS, copy(f[8]));
+            maps.add(rec);
+        }
+        long mapBytes = usedHeap() - base;
+
+        base = usedHeap();
+        BookingStore store = new BookingStore();
+        Map<String, String> rec = new HashMap<>();
+        for (String[] f : fields) {
+            rec.put(Booking.ID, f[0]);
+            rec.put(Booking.VEHICLE, copy(f[1]));
+            rec.put(Booking.SLOT, f[2]);
+            rec.put(Booking.NAME, copy(f[3]));
+            rec.put(Booking.PHONE, copy(f[4]));
+            rec.put(Booking.IN_TIME, f[5]);
+            rec.put(Booking.DURATION, f[6]);
+            rec.put(Booking.AMOUNT, f[7]);
+            rec.put(Booking.STATUS, f[8]);
+            store.add(rec);
+        }
+        rec = null;
+        long storeBytes = usedHeap() - base;
+
+        // Round trip at the UI edge must give back exactly what the form wrote
+        for (int i = 0; i < bookings; i += 997) {
+            Map<String, String> back = store.toMap(store.get(fields[i][0]));
+            Map<String, String> old = maps.get(i);
+            for (String key : new String[]{Booking.ID, Booking.VEHICLE, Booking.SLOT, Booking.NAME, Booking.PHONE, Booking.IN_TIME, Booking.DURATION, Booking.AMOUNT, Booking.STATUS}) {
+                if (!old.get(key).equals(back.get(key))) {
+                    throw new IllegalStateException("Booking " + i + " " + key + ": " + old.get(key) + " came back as " + back.get(key));
+                }
+            }
+        }
+
+        System.out.println(String.format("bookings=%d vehicles=%d", bookings, vehicles));
+        System.out.println(String.format("Map<String, String> records : %,d bytes (%.1f bytes/booking)", mapBytes, (double) mapBytes / bookings));
+        System.out.println(String.format("BookingStore (typed+indexes): %,d bytes (%.1f bytes/booking)", storeBytes, (double) storeBytes / bookings));
+        System.out.println(String.format("saved per 1M bookings       : %,d MB (%.1fx smaller)",
+                (mapBytes - storeBytes) * 1_000_000L / bookings / (1024 * 1024), (double) mapBytes / storeBytes));
+
+        // Keep both models reachable until after measurement
+        if (maps.size() + store.size() == 0) System.out.println();
+    }
+
+    private static String copy(String s) {
+        return new String(s.toCharArray());
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try { Thread.sleep(50); } catch (InterruptedException ignored) { }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.Arrays;
+
+/**
+ * Uniqueness check and per-id cost for BookingIdGenerator.
+ *
+ * 1. Gate threads on two nodes draw ids as fast as they can; every id must
+ *    be unique across all of them and increasing within each thread.
+ * 2. Codes must round-trip through encode / decode and sort like the ids.
+ * 3. Reports nanoseconds per id for 1..N threads on one node.
+ *
+ * Run:  java BookingIdBenchmark [idsPerThread]
+ */
+public class BookingIdBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int perThread = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int maxThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        BookingIdGenerator[] nodes = {new BookingIdGenerator(1), new BookingIdGenerator(2)};
+        long[][] drawn = new long[maxThreads * 2][perThread];
+        Thread[] threads = new Thread[drawn.length];
+        for (int t = 0; t < threads.length; t++) {
+            final long[] out = drawn[t];
+            final BookingIdGenerator gen = nodes[t % 2];
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < out.length; i++) out[i] = gen.nextId();
+            });
+        }
+        for (Thread t : threads) t.start();
+        for (Thread t : threads) t.join();
+
+        long[] all = new long[drawn.length * perThread];
+        for (int t = 0; t < drawn.length; t++) {
+            for (int i = 1; i < perThread; i++) {
+                if (drawn[t][i] <= drawn[t][i - 1]) {
+                    throw new IllegalStateException("Thread " + t + " got a non-increasing id at " + i);
+                }
+            }
+            System.arraycopy(drawn[t], 0, all, t * perThread, perThread);
+        }
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) {
+                throw new IllegalStateException("Duplicate id " + all[i]);
+            }
+        }
+        System.out.println("Unique: OK, " + all.length + " ids from " + threads.length + " threads on 2 nodes");
+
+        for (int i = 1; i < all.length; i += 9_973) {
+            String a = BookingIdGenerator.encode(all[i - 1]);
+            String b = BookingIdGenerator.encode(all[i]);
+            if (BookingIdGenerator.decode(b) != all[i] || a.compareTo(b) >= 0) {
+                throw new IllegalStateException("Code " + b + " does not round-trip or sort");
+            }
+        }
+        if (BookingIdGenerator.decode("BK-1760893751") != -1 || BookingIdGenerator.decode("BKZZZZZZZZZZZZZ") != -1) {
+            throw new IllegalStateException("Malformed codes must decode to -1");
+        }
+        System.out.println("Codes round-trip and sort: OK, e.g. " + BookingIdGenerator.encode(all[all.length - 1]));
+
+        System.out.println();
+        System.out.println(String.format("%-8s %12s", "threads", "ns / id"));
+        for (int n = 1; n <= maxThreads; n *= 2) {
+            BookingIdGenerator gen = new BookingIdGenerator(0);
+            Thread[] workers = new Thread[n];
+            for (int t = 0; t < n; t++) {
+                workers[t] = new Thread(() -> {
+                    long sink = 0;
+                    for (int i = 0; i < perThread; i++) sink ^= gen.nextId();
+                    if (sink == 42) System.out.print("");
+                });
+            }
+            long t0 = System.nanoTime();
+            for (Thread t : workers) t.start();
+            for (Thread t : workers) t.join();
+            System.out.println(String.format("%-8d %12.1f", n, (System.nanoTime() - t0) / (double) ((long) n * perThread)));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered, collision-free booking ids.
+ *
+ * ALGORITHM: 64-bit timestamp | node | sequence id, advanced by CAS
+ *   bit 63      0 (ids stay positive)
+ *   bits 22-62  milliseconds since 2025-01-01 UTC (41 bits, ~69 years)
+ *   bits 12-21  node id (10 bits, 1024 gates / servers)
+ *   bits 0-11   sequence within the millisecond (4096 ids per ms per node)
+ *
+ * The last id handed out lives in one AtomicLong. Each call proposes
+ * either a fresh (now, node, 0) or last + 1 in the same millisecond and
+ * publishes it with a CAS, so no lock is taken and two threads can never
+ * get the same id. If the clock steps back the generator keeps counting
+ * from the last timestamp; if a millisecond's 4096 sequence numbers run
+ * out it moves on to the next millisecond instead of spinning. Ids are
+ * therefore strictly increasing per node, and different nodes never clash.
+ *
+ * Ids are written as "BK" + 13 Crockford base32 digits. The fixed width makes
+ * string order equal to numeric (= time) order, and it is the same length as
+ * the old "BK" + millisecond codes.
+ *
+ * Time Complexity: O(1) per id (one CAS when uncontended)
+ * Space Complexity: O(1)
+ */
+public class BookingIdGenerator {
+    public static final long EPOCH_MILLIS = 1_735_689_600_000L;   // 2025-01-01T00:00:00Z
+    public static final String PREFIX = "BK";
+    public static final int MAX_NODE = (1 << 10) - 1;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + NODE_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int CODE_DIGITS = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long nodeBits;
+    private final AtomicLong last = new AtomicLong();
+
+    public BookingIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /** Node id from -Dparking.nodeId, 0 if unset; give every gate or server its own. */
+    public static int nodeIdFromSystem() {
+        return Integer.getInteger("parking.nodeId", 0);
+    }
+
+    public long nextId() {
+        while (true) {
+            long prev = last.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long prevTime = prev >>> TIMESTAMP_SHIFT;
+            long next;
+            if (now > prevTime) {
+                next = (now << TIMESTAMP_SHIFT) | nodeBits;
+            } else if ((prev & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = prev + 1;
+            } else {
+                next = ((prevTime + 1) << TIMESTAMP_SHIFT) | nodeBits;   // sequence used up: borrow the next millisecond
+            }
+            if (last.compareAndSet(prev, next)) {
+                return next;
+            }
+        }
+    }
+
+    /** Next id as a "BK..." booking code. */
+    public String nextCode() {
+        return encode(nextId());
+    }
+
+    public static String encode(long id) {
+        char[] out = new char[PREFIX.length() + CODE_DIGITS];
+        PREFIX.getChars(0, PREFIX.length(), out, 0);
+        for (int i = out.length - 1; i >= PREFIX.length(); i--) {
+            out[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(out);
+    }
+
+    /** Parses a "BK..." code back into its id; -1 if it is not a well-formed 13-digit code. */
+    public static long decode(String code) {
+        if (code == null || code.length() != PREFIX.length() + CODE_DIGITS || !code.startsWith(PREFIX)) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = PREFIX.length(); i < code.length(); i++) {
+            int digit = digitOf(code.charAt(i));
+            if (digit < 0 || (i == PREFIX.length() && digit > 7)) return -1;   // 13 digits carry 65 bits; ids use 63
+            id = (id << 5) | digit;
+        }
+        return id;
+    }
+
+    public static long timestampMillis(long id) { return (id >>> TIMESTAMP_SHIFT) + EPOCH_MILLIS; }
+    public static int nodeOf(long id) { return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE); }
+    public static int sequenceOf(long id) { return (int) (id & SEQUENCE_MASK); }
+
+    /** Smallest id any node can issue at or after epochMillis, for range scans by time. */
+    public static long firstIdAt(long epochMillis) {
+        return Math.max(0, epochMillis - EPOCH_MILLIS) << TIMESTAMP_SHIFT;
+    }
+
+    private static int digitOf(char c) {
+        c = Character.toUpperCase(c);
+        // Crockford: O reads as 0, I and L as 1
+        if (c == 'O') return 0;
+        if (c == 'I' || c == 'L') return 1;
+        for (int d = 0; d < ALPHABET.length; d++) {
+            if (ALPHABET[d] == c) return d;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,32 @@
+import java.util.Locale;
+
+/**
+ * Lifecycle of a booking, stored as an enum instead of the display string.
+ */
+public enum BookingStatus {
+    BOOKED("Booked"),
+    PARKED("Parked"),
+    COMPLETED("Completed"),
+    CANCELLED("Cancelled");
+
+    private final String label;
+
+    BookingStatus(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() { return label; }
+
+    /** Parses the label shown in the GUI and stored in parking_spots.status, ignoring case. */
+    public static BookingStatus fromLabel(String label) {
+        if (label != null) {
+            String key = label.trim().toLowerCase(Locale.ROOT);
+            for (BookingStatus status : values()) {
+                if (status.label.toLowerCase(Locale.ROOT).equals(key)) {
+                    return status;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown booking status: " + label);
+    }
+}
@@ -0,0 +1,238 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory booking store with hash indexes.
+ *
+ * ALGORITHM: Append-only log + hash indexes
+ * Typed Booking records are appended to a list in arrival order and never
+ * moved, so iteration order is stable and readers never see the list
+ * reshuffled. Three indexes point into it by position:
+ *   booking id -> position            (primary, unique; hash on the 64-bit id)
+ *   plate      -> positions, in order (secondary; array indexed by plate group,
+ *                 so every spelling of a plate finds the same bookings)
+ *   slot       -> positions, in order (secondary)
+ * Plates are dictionary-encoded by the store's PlateDictionary, so a
+ * vehicle that books a thousand times is stored once.
+ * Removing a booking leaves a hole (null) in the log instead of shifting
+ * the records after it. Once holes make up more than half of the log it is
+ * compacted: the live records are copied down in order, the indexes are
+ * rebuilt and the plate dictionary sweeps plates no booking uses any more.
+ * Each compaction costs O(live) and follows at least as many removals, so
+ * removal stays O(1) amortized. Memory, and the cost of snapshot(), then
+ * follow the bookings held rather than every booking ever handled.
+ *
+ * All methods are synchronized on the store: the GUI, settlement and the
+ * DB fallback can share one instance.
+ *
+ * Time Complexity: O(1) add, get, remove; O(k) for the k bookings of a vehicle or slot
+ * Space Complexity: O(n)
+ */
+public class BookingStore {
+    private final ArrayList<Booking> log = new ArrayList<>();
+    private final PlateDictionary plates = new PlateDictionary();
+    private Map<Long, Integer> byId = new HashMap<>();
+    private IntList[] byPlate = new IntList[16];
+    private Map<String, IntList> bySlot = new HashMap<>();
+    private int size;
+    private long compactions;
+
+    /**
+     * Adds a booking given as form / parking_spots fields, converting it to a Booking.
+     *
+     * @throws IllegalArgumentException if a field is unreadable or the id is already stored
+     */
+    public synchronized Booking add(Map<String, String> fields) {
+        Booking booking = Booking.fromFields(fields, plates);
+        add(booking);
+        return booking;
+    }
+
+    /**
+     * Adds a booking whose plate id came from plateId() on this store.
+     *
+     * @throws IllegalArgumentException if the id is already stored
+     */
+    public synchronized void add(Booking booking) {
+        if (byId.containsKey(booking.getId())) {
+            throw new IllegalArgumentException("Booking " + booking.getCode() + " is already stored");
+        }
+        plates.retain(booking.getPlateId());
+        log.add(booking);
+        index(booking, log.size() - 1);
+        size++;
+    }
+
+    private void index(Booking booking, int pos) {
+        byId.put(booking.getId(), pos);
+        int plate = plates.group(booking.getPlateId());
+        if (plate >= byPlate.length) {
+            byPlate = Arrays.copyOf(byPlate, Math.max(plate + 1, byPlate.length * 2));
+        }
+        if (byPlate[plate] == null) byPlate[plate] = new IntList();
+        byPlate[plate].add(pos);
+        if (booking.getSlot() != null) {
+            bySlot.computeIfAbsent(booking.getSlot(), k -> new IntList()).add(pos);
+        }
+    }
+
+    /** Dictionary id for a vehicle number, for building Booking records for this store. */
+    public synchronized int plateId(String vehicleNumber) {
+        return plates.encode(vehicleNumber);
+    }
+
+    /** Vehicle number of a booking held by this store, as it was entered. */
+    public synchronized String vehicleNumber(Booking booking) {
+        return plates.decode(booking.getPlateId());
+    }
+
+    /** The booking as display strings, for the UI. */
+    public synchronized Map<String, String> toMap(Booking booking) {
+        return booking.toMap(plates);
+    }
+
+    public synchronized Booking get(String bookingCode) {
+        return get(BookingIdGenerator.decode(bookingCode));
+    }
+
+    public synchronized Booking get(long bookingId) {
+        Integer pos = byId.get(bookingId);
+        return pos == null ? null : log.get(pos);
+    }
+
+    public synchronized boolean contains(String bookingCode) {
+        return byId.containsKey(BookingIdGenerator.decode(bookingCode));
+    }
+
+    /** Bookings for a vehicle, oldest first; plates are compared normalized ("TN 01-AB" = "TN01AB"). */
+    public synchronized List<Booking> byVehicle(String vehicleNumber) {
+        int plate = vehicleNumber == null ? 0 : plates.lookup(vehicleNumber);
+        return collect(plate > 0 && plate < byPlate.length ? byPlate[plate] : null);
+    }
+
+    /** Bookings for a slot, oldest first. */
+    public synchronized List<Booking> bySlot(String slotId) {
+        return collect(bySlot.get(slotId));
+    }
+
+    /**
+     * Keeps the booking's plate id decodable, even after the booking is
+     * removed and the store compacts, until unpinPlate(). Returns false,
+     * pinning nothing, if the store no longer holds the booking.
+     */
+    public synchronized boolean pinPlate(Booking booking) {
+        if (get(booking.getId()) != booking) {
+            return false;
+        }
+        plates.retain(booking.getPlateId());
+        return true;
+    }
+
+    public synchronized void unpinPlate(Booking booking) {
+        plates.release(booking.getPlateId());
+    }
+
+    public synchronized Booking remove(String bookingCode) {
+        return remove(BookingIdGenerator.decode(bookingCode));
+    }
+
+    public synchronized Booking remove(long bookingId) {
+        Integer pos = byId.remove(bookingId);
+        if (pos == null) {
+            return null;
+        }
+        Booking booking = log.set(pos, null);
+        int plate = plates.group(booking.getPlateId());
+        if (byPlate[plate].remove(pos) && byPlate[plate].size == 0) {
+            byPlate[plate] = null;
+        }
+        IntList slotPositions = bySlot.get(booking.getSlot());
+        if (slotPositions != null && slotPositions.remove(pos) && slotPositions.size == 0) {
+            bySlot.remove(booking.getSlot());
+        }
+        plates.release(booking.getPlateId());
+        size--;
+        if (log.size() >= 64 && size < log.size() / 2) {
+            compact();
+        }
+        return booking;
+    }
+
+    // Copies the live records down over the holes and rebuilds the indexes around the new positions
+    private void compact() {
+        List<Booking> live = snapshot();
+        log.clear();
+        log.trimToSize();
+        log.ensureCapacity(live.size());
+        byId = new HashMap<>();   // fresh maps: clear() would keep the tables sized for the old peak
+        bySlot = new HashMap<>();
+        Arrays.fill(byPlate, null);
+        plates.sweep();
+        for (Booking booking : live) {
+            log.add(booking);
+            index(booking, log.size() - 1);
+        }
+        compactions++;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Log slots, live and holes; at most twice size() once the log has grown past 64. */
+    public synchronized int logLength() {
+        return log.size();
+    }
+
+    /** Distinct plate spellings still held by the dictionary. */
+    public synchronized int plateCount() {
+        return plates.size();
+    }
+
+    public synchronized long compactions() {
+        return compactions;
+    }
+
+    /** All bookings in insertion order, as a copy the caller may iterate without holding the lock. */
+    public synchronized List<Booking> snapshot() {
+        List<Booking> out = new ArrayList<>(size);
+        for (Booking booking : log) {
+            if (booking != null) out.add(booking);
+        }
+        return out;
+    }
+
+    private List<Booking> collect(IntList positions) {
+        if (positions == null || positions.size == 0) {
+            return Collections.emptyList();
+        }
+        List<Booking> out = new ArrayList<>(positions.size);
+        for (int i = 0; i < positions.size; i++) {
+            out.add(log.get(positions.values[i]));
+        }
+        return out;
+    }
+
+    // Growable int array; positions are appended in increasing order
+    private static final class IntList {
+        int[] values = new int[2];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        boolean remove(int value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i < 0) return false;
+            System.arraycopy(values, i + 1, values, i, size - i - 1);
+            size--;
+            return true;
+        }
+    }
+}
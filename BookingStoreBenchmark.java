@@ -0,0 +1,108 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Lookup cost of BookingStore against the old sort-then-binary-search.
+ *
+ * For 10k, 100k and 1M bookings, times lookups by booking id, vehicle and
+ * slot in the store, and a few lookups with the old approach (sort the
+ * whole list by id, then binary search) on the same records.
+ *
+ * Run:  java BookingStoreBenchmark [lookups]
+ */
+public class BookingStoreBenchmark {
+
+    public static void main(String[] args) {
+        int lookups = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.println(String.format("%-10s %14s %14s %14s %16s", "bookings", "by id ns", "by vehicle ns", "by slot ns", "old sort+bs ms"));
+        for (int n : new int[]{10_000, 100_000, 1_000_000}) {
+            BookingStore store = new BookingStore();
+            List<Map<String, String>> legacy = new ArrayList<>(n);
+            List<String> ids = new ArrayList<>(n);
+            BookingIdGenerator gen = new BookingIdGenerator(0);
+            SplittableRandom rnd = new SplittableRandom(n);
+            for (int i = 0; i < n; i++) {
+                Map<String, String> b = new HashMap<>();
+                String id = gen.nextCode();
+                b.put(Booking.ID, id);
+                b.put(Booking.VEHICLE, "TN" + (10 + rnd.nextInt(90)) + "AB" + rnd.nextInt(10_000));
+                b.put(Booking.SLOT, "A" + (1 + rnd.nextInt(500)));
+                store.add(new Booking(BookingIdGenerator.decode(id), store.plateId(b.get(Booking.VEHICLE)), b.get(Booking.SLOT),
+                        null, null, 0, DurationEngine.MINUTES_PER_HOUR, 0, BookingStatus.BOOKED));
+                legacy.add(b);
+                ids.add(id);
+            }
+            Collections.shuffle(legacy, new Random(1));   // the old list was in arrival order, not id order
+
+            long sink = 0;
+            for (int warm = 0; warm < 2; warm++) {
+                sink += time(store, ids, lookups, rnd)[0];
+            }
+            long[] t = time(store, ids, lookups, rnd);
+
+            int oldLookups = 3;
+            long t0 = System.nanoTime();
+            for (int i = 0; i < oldLookups; i++) {
+                Collections.shuffle(legacy, new Random(i));
+                if (sortAndSearch(legacy, ids.get(rnd.nextInt(n))) == null) {
+                    throw new IllegalStateException("Old lookup missed");
+                }
+            }
+            double oldMs = (System.nanoTime() - t0) / 1e6 / oldLookups;
+
+            System.out.println(String.format("%-10d %14.1f %14.1f %14.1f %16.1f", n,
+                    t[0] / (double) lookups, t[1] / (double) lookups, t[2] / (double) lookups, oldMs));
+            if (sink == 42) System.out.print("");
+        }
+    }
+
+    // Nanoseconds for the lookups by id, vehicle and slot
+    private static long[] time(BookingStore store, List<String> ids, int lookups, SplittableRandom rnd) {
+        int n = ids.size();
+        String[] probes = new String[lookups];
+        for (int i = 0; i < lookups; i++) probes[i] = ids.get(rnd.nextInt(n));
+        String[] plates = new String[lookups];
+        String[] slots = new String[lookups];
+        for (int i = 0; i < lookups; i++) {
+            Booking b = store.get(probes[i]);
+            plates[i] = store.vehicleNumber(b);
+            slots[i] = b.getSlot();
+        }
+
+        long[] out = new long[3];
+        long t0 = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            if (store.get(probes[i]) == null) throw new IllegalStateException("Missed " + probes[i]);
+        }
+        out[0] = System.nanoTime() - t0;
+        t0 = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            if (store.byVehicle(plates[i]).isEmpty()) throw new IllegalStateException("Missed " + plates[i]);
+        }
+        out[1] = System.nanoTime() - t0;
+        t0 = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            if (store.bySlot(slots[i]).isEmpty()) throw new IllegalStateException("Missed " + slots[i]);
+        }
+        out[2] = System.nanoTime() - t0;
+        return out;
+    }
+
+    // The lookup ParkingLotGUI used to do on every call
+    private static Map<String, String> sortAndSearch(List<Map<String, String>> bookings, String bookingId) {
+        Collections.sort(bookings, (a, b) -> a.getOrDefault("booking_id", "").compareTo(b.getOrDefault("booking_id", "")));
+        int left = 0, right = bookings.size() - 1;
+        while (left <= right) {
+            int mid = left + (right - left) / 2;
+            int comparison = bookings.get(mid).getOrDefault("booking_id", "").compareTo(bookingId);
+            if (comparison == 0) return bookings.get(mid);
+            if (comparison < 0) left = mid + 1; else right = mid - 1;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,430 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log for the local booking store, so bookings taken while the
+ * database is down survive a restart.
+ *
+ * ALGORITHM: Append-only checksummed segments + group commit
+ * Every booking is appended as a BOOKING record before the gate prints the
+ * ticket; once the database has it, a SYNCED record with its id follows.
+ * Record layout:
+ *   length int (of type + body) | crc32 int (of type + body) | type byte | body
+ *   BOOKING body: id long | in time long | duration int | amount long | status byte |
+ *                 plate, slot, name, phone (each: length short, -1 = null | UTF-8 bytes)
+ *   SYNCED body:  id long
+ *
+ * Group commit: appends write into the current segment under one lock and
+ * then wait for an fsync covering their bytes. If no fsync is running, the
+ * append starts one for everything written so far; otherwise it waits for
+ * the running one, and if that did not cover it, the first waiter forces
+ * for all appends that arrived meanwhile. So concurrent gates share one
+ * fsync instead of paying one each.
+ *
+ * A segment is rotated at segmentBytes. Rotation is a rolling checkpoint:
+ * the bookings still in the store (not yet synced) are carried into the new
+ * segment and forced, so every older segment holds nothing but synced
+ * bookings and is deleted. If the carried bookings would fill more than half
+ * a segment the old segments are kept instead, so a long outage does not
+ * turn every rotation into a copy of the backlog; the checkpoint on the next
+ * open, or a later rotation once the backlog drains, retires them.
+ *
+ * Replay on open reads the segments
+ * in order, stops a segment at the first torn or corrupt record (a crash
+ * mid-append), adds BOOKING records to the store and removes SYNCED ones.
+ * It then checkpoints: the bookings still unsynced are written to a fresh
+ * segment, forced, and the old segments deleted.
+ *
+ * Time Complexity: O(1) append plus a shared fsync; O(bytes) replay
+ * Space Complexity: O(unsynced bookings + segmentBytes) once the backlog fits half a segment
+ */
+public class BookingWal implements Closeable {
+    public static final String DEFAULT_DIR = "booking_wal";
+    public static final long DEFAULT_SEGMENT_BYTES = 16L * 1024 * 1024;
+
+    static final byte BOOKING = 1;
+    static final byte SYNCED = 2;
+    private static final int HEADER = 8;
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private final BookingStore store;
+    private final long segmentBytes;
+
+    private final Object writeLock = new Object();
+    private final Object commitLock = new Object();
+    private boolean forcing;         // guarded by commitLock
+    private volatile FileChannel channel;
+    private long segmentIndex;
+    private long segmentSize;
+    private volatile long written;   // logical bytes appended since open
+    private volatile long durable;   // logical bytes known to be on disk
+    private boolean closed;
+
+    private final AtomicLong appends = new AtomicLong();
+    private final AtomicLong forces = new AtomicLong();
+    private final AtomicLong retired = new AtomicLong();
+    private long replayed;
+    private long replayNanos;
+    private long tornRecords;
+
+    private BookingWal(Path dir, BookingStore store, long segmentBytes) {
+        this.dir = dir;
+        this.store = store;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /** Opens the log in dir, replays it into the store and checkpoints. */
+    public static BookingWal open(Path dir, BookingStore store) throws IOException {
+        return open(dir, store, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public static BookingWal open(Path dir, BookingStore store, long segmentBytes) throws IOException {
+        if (segmentBytes < 1024) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentBytes);
+        }
+        Files.createDirectories(dir);
+        BookingWal wal = new BookingWal(dir, store, segmentBytes);
+        List<Path> old = wal.segments();
+        long t0 = System.nanoTime();
+        for (Path segment : old) {
+            wal.replay(segment);
+        }
+        wal.replayNanos = System.nanoTime() - t0;
+
+        long next = old.isEmpty() ? 1 : index(old.get(old.size() - 1)) + 1;
+        wal.openSegment(next);
+        List<Booking> live = store.snapshot();
+        if (!live.isEmpty()) {
+            wal.append(live, BOOKING);
+        }
+        for (Path segment : old) {
+            Files.delete(segment);
+        }
+        return wal;
+    }
+
+    /** Logs a booking just added to the store; returns once it is on disk. */
+    public void appendBooking(Booking booking) throws IOException {
+        append(Collections.singletonList(booking), BOOKING);
+    }
+
+    /** Logs that these bookings are now in the database; one fsync for the whole batch. */
+    public void appendSynced(List<Booking> bookings) throws IOException {
+        if (!bookings.isEmpty()) {
+            append(bookings, SYNCED);
+        }
+    }
+
+    private void append(List<Booking> bookings, byte type) throws IOException {
+        ByteBuffer buf = encode(bookings, type);
+        int bytes = buf.remaining();
+        long end;
+        synchronized (writeLock) {
+            if (closed) {
+                throw new IOException("Booking log is closed");
+            }
+            if (segmentSize > 0 && segmentSize + bytes > segmentBytes) {
+                rotate();
+            }
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            segmentSize += bytes;
+            written += bytes;
+            end = written;
+        }
+        appends.addAndGet(bookings.size());
+        commit(end);
+    }
+
+    // Group commit: one force covers every append written before it started;
+    // appends arriving during a force wait for it, then the next one forces for all of them
+    private void commit(long end) throws IOException {
+        FileChannel target;
+        long upTo;
+        synchronized (commitLock) {
+            while (forcing && durable < end) {
+                awaitCommit();
+            }
+            if (durable >= end) {
+                return;   // an earlier force already covered this append
+            }
+            forcing = true;
+            target = channel;
+            upTo = written;
+        }
+        boolean ok = false;
+        try {
+            target.force(false);
+            ok = true;
+        } finally {
+            endForce(ok ? upTo : -1);
+        }
+    }
+
+    // Claims the force slot so no other thread forces or rotates the channel; call with writeLock held
+    private void beginExclusiveForce() throws IOException {
+        synchronized (commitLock) {
+            while (forcing) {
+                awaitCommit();
+            }
+            forcing = true;
+        }
+    }
+
+    private void endForce(long upTo) {
+        synchronized (commitLock) {
+            forcing = false;
+            if (upTo > durable) {
+                durable = upTo;
+                forces.incrementAndGet();
+            }
+            commitLock.notifyAll();
+        }
+    }
+
+    private void awaitCommit() throws IOException {
+        try {
+            commitLock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the booking log to sync");
+        }
+    }
+
+    // Called with writeLock held
+    private void rotate() throws IOException {
+        beginExclusiveForce();
+        long upTo = -1;
+        try {
+            channel.force(false);
+            upTo = written;
+            channel.close();
+            long first = segmentIndex + 1;
+            openSegment(first);
+
+            // Rolling checkpoint: carry the unsynced bookings, then the older segments hold only synced ones
+            List<Booking> live = store.snapshot();
+            ByteBuffer buf = live.isEmpty() ? null : encode(live, BOOKING);
+            if (buf != null && buf.remaining() > segmentBytes / 2) {
+                return;   // backlog too large to copy on every rotation; keep the old segments
+            }
+            if (buf != null) {
+                int bytes = buf.remaining();
+                try {
+                    while (buf.hasRemaining()) {
+                        channel.write(buf);
+                    }
+                    channel.force(false);
+                } catch (IOException e) {
+                    // A half-written carry would hide the appends after it from replay: start the segment over
+                    System.err.println("Could not checkpoint " + live.size() + " bookings at rotation, keeping the old segments: " + e.getMessage());
+                    channel.close();
+                    openSegment(first);
+                    return;
+                }
+                segmentSize += bytes;
+                written += bytes;
+                upTo = written;
+                appends.addAndGet(live.size());
+            }
+            for (Path segment : segments()) {
+                if (index(segment) < first) {
+                    Files.delete(segment);
+                    retired.incrementAndGet();
+                }
+            }
+        } finally {
+            endForce(upTo);
+        }
+    }
+
+    private void openSegment(long index) throws IOException {
+        segmentIndex = index;
+        segmentSize = 0;
+        channel = FileChannel.open(dir.resolve(String.format("%s%016d%s", PREFIX, index, SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private void replay(Path segment) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(segment));
+        CRC32 crc = new CRC32();
+        boolean torn = false;
+        while (buf.hasRemaining()) {
+            int start = buf.position();
+            if (buf.remaining() < HEADER) {
+                torn = true;
+                break;
+            }
+            int length = buf.getInt();
+            int expected = buf.getInt();
+            if (length <= 0 || length > buf.remaining()) {
+                torn = true;
+                break;
+            }
+            crc.reset();
+            crc.update(buf.array(), buf.position(), length);
+            if ((int) crc.getValue() != expected) {
+                torn = true;
+                break;
+            }
+            int next = buf.position() + length;
+            try {
+                apply(buf);
+            } catch (RuntimeException e) {
+                System.err.println("Skipping unreadable record at " + segment.getFileName() + ":" + start + ": " + e.getMessage());
+            }
+            buf.position(next);
+            replayed++;
+        }
+        if (torn) {
+            tornRecords++;
+            System.err.println("Booking log " + segment.getFileName() + " has a torn or corrupt record, replayed up to it");
+        }
+    }
+
+    private void apply(ByteBuffer buf) {
+        byte type = buf.get();
+        long id = buf.getLong();
+        if (type == SYNCED) {
+            store.remove(id);
+            return;
+        }
+        if (type != BOOKING) {
+            throw new IllegalArgumentException("Unknown record type " + type);
+        }
+        long inTime = buf.getLong();
+        int duration = buf.getInt();
+        long amount = buf.getLong();
+        BookingStatus status = BookingStatus.values()[buf.get()];
+        String plate = getString(buf);
+        String slot = getString(buf);
+        String name = getString(buf);
+        String phone = getString(buf);
+        if (store.get(id) == null) {   // a crash during a checkpoint leaves the same booking in two segments
+            store.add(new Booking(id, store.plateId(plate), slot, name, phone, inTime, duration, amount, status));
+        }
+    }
+
+    private ByteBuffer encode(List<Booking> bookings, byte type) {
+        List<byte[][]> strings = new ArrayList<>(bookings.size());
+        int size = 0;
+        for (Booking b : bookings) {
+            if (type == SYNCED) {
+                size += HEADER + 1 + 8;
+                continue;
+            }
+            byte[][] s = {utf8(store.vehicleNumber(b)), utf8(b.getSlot()), utf8(b.getName()), utf8(b.getPhone())};
+            strings.add(s);
+            size += HEADER + 1 + 8 + 8 + 4 + 8 + 1;
+            for (byte[] bytes : s) size += 2 + (bytes == null ? 0 : bytes.length);
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking b = bookings.get(i);
+            int start = buf.position();
+            buf.position(start + HEADER);
+            buf.put(type).putLong(b.getId());
+            if (type == BOOKING) {
+                buf.putLong(b.getInTime()).putInt(b.getDurationMinutes()).putLong(b.getAmountPaise()).put((byte) b.getStatus().ordinal());
+                for (byte[] bytes : strings.get(i)) {
+                    if (bytes == null) {
+                        buf.putShort((short) -1);
+                    } else {
+                        buf.putShort((short) bytes.length).put(bytes);
+                    }
+                }
+            }
+            int length = buf.position() - start - HEADER;
+            crc.reset();
+            crc.update(buf.array(), start + HEADER, length);
+            buf.putInt(start, length).putInt(start + 4, (int) crc.getValue());
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private static byte[] utf8(String s) {
+        if (s == null) return null;
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Field too long for the booking log: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    private static String getString(ByteBuffer buf) {
+        short length = buf.getShort();
+        if (length < 0) return null;
+        String s = new String(buf.array(), buf.position(), length, StandardCharsets.UTF_8);
+        buf.position(buf.position() + length);
+        return s;
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> out = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path p : files) out.add(p);
+        }
+        out.sort((a, b) -> Long.compare(index(a), index(b)));
+        return out;
+    }
+
+    private static long index(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writeLock) {
+            if (closed) return;
+            closed = true;
+            beginExclusiveForce();
+            long upTo = -1;
+            try {
+                channel.force(false);
+                upTo = written;
+                channel.close();
+            } finally {
+                endForce(upTo);
+            }
+        }
+    }
+
+    public Path getDir() { return dir; }
+
+    /** Records appended since open, including the checkpoint. */
+    public long appendCount() { return appends.get(); }
+
+    /** fsyncs issued for appends; appendCount() / forceCount() is the group-commit factor. */
+    public long forceCount() { return forces.get(); }
+
+    public long bytesWritten() { return written; }
+    public long replayedRecords() { return replayed; }
+    public long replayMillis() { return TimeUnit.NANOSECONDS.toMillis(replayNanos); }
+    /** Segments deleted by rolling checkpoints since open. */
+    public long retiredSegments() { return retired.get(); }
+    /** Segment files on disk, the current one included. */
+    public int segmentCount() throws IOException { return segments().size(); }
+    /** Segments whose replay stopped at a torn or corrupt record. */
+    public long tornRecords() { return tornRecords; }
+}
@@ -0,0 +1,186 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Durability and throughput check for BookingWal.
+ *
+ * 1. Appends bookings from 1, 4 and 16 gate threads, every append waiting
+ *    for its fsync, and reports bookings per second and how many appends
+ *    shared each fsync.
+ * 2. Marks half the bookings synced, tears the last record in half as a
+ *    crash mid-append would, reopens and checks that exactly the unsynced
+ *    bookings before the torn one come back, field for field.
+ * 3. Times the replay of a large log.
+ * 4. Books and syncs a steady stream through small segments and checks
+ *    that rotation retires the synced segments instead of keeping them all.
+ *
+ * Run:  java BookingWalBenchmark [bookings per thread] [replay bookings]
+ */
+public class BookingWalBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int perThread = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int replayCount = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        BookingIdGenerator ids = new BookingIdGenerator(0);
+
+        // 1. Group commit throughput
+        System.out.println(String.format("%-8s %12s %10s %16s", "threads", "bookings/s", "fsyncs", "appends/fsync"));
+        for (int threads : new int[]{1, 4, 16}) {
+            Path dir = Files.createTempDirectory("wal-bench");
+            BookingStore store = new BookingStore();
+            try (BookingWal wal = BookingWal.open(dir, store)) {
+                AtomicReference<Throwable> failure = new AtomicReference<>();
+                CountDownLatch done = new CountDownLatch(threads);
+                long t0 = System.nanoTime();
+                for (int t = 0; t < threads; t++) {
+                    int gate = t;
+                    new Thread(() -> {
+                        try {
+                            for (int i = 0; i < perThread; i++) {
+                                wal.appendBooking(newBooking(store, ids, gate, i));
+                            }
+                        } catch (Throwable e) {
+                            failure.set(e);
+                        } finally {
+                            done.countDown();
+                        }
+                    }).start();
+                }
+                done.await();
+                long nanos = System.nanoTime() - t0;
+                if (failure.get() != null) throw new IllegalStateException(failure.get());
+                long total = (long) threads * perThread;
+                System.out.println(String.format("%-8d %12.0f %10d %16.1f", threads, total / (nanos / 1e9),
+                        wal.forceCount(), (double) wal.appendCount() / wal.forceCount()));
+            }
+            deleteAll(dir);
+        }
+
+        // 2. Torn tail after a crash
+        Path dir = Files.createTempDirectory("wal-crash");
+        BookingStore store = new BookingStore();
+        List<Booking> written = new ArrayList<>();
+        try (BookingWal wal = BookingWal.open(dir, store, 64 * 1024)) {
+            for (int i = 0; i < 5_000; i++) {
+                Booking b = newBooking(store, ids, 0, i);
+                wal.appendBooking(b);
+                written.add(b);
+            }
+            List<Booking> synced = new ArrayList<>();
+            for (int i = 0; i < written.size(); i += 2) synced.add(written.get(i));
+            for (Booking b : synced) store.remove(b.getId());
+            wal.appendSynced(synced);
+            Booking last = newBooking(store, ids, 0, -1);
+            wal.appendBooking(last);
+        }
+        List<Path> segments = list(dir);
+        Path tail = segments.get(segments.size() - 1);
+        try (RandomAccessFile f = new RandomAccessFile(tail.toFile(), "rw")) {
+            f.setLength(f.length() - 20);   // the last BOOKING record is now torn
+        }
+
+        BookingStore restored = new BookingStore();
+        try (BookingWal wal = BookingWal.open(dir, restored)) {
+            List<Booking> expected = new ArrayList<>();
+            for (int i = 1; i < written.size(); i += 2) expected.add(written.get(i));
+            List<Booking> got = restored.snapshot();
+            if (got.size() != expected.size() || wal.tornRecords() != 1) {
+                throw new IllegalStateException("Restored " + got.size() + " bookings, expected " + expected.size() + ", torn segments " + wal.tornRecords());
+            }
+            for (int i = 0; i < expected.size(); i++) {
+                if (!store.toMap(expected.get(i)).equals(restored.toMap(got.get(i)))) {
+                    throw new IllegalStateException("Booking " + i + " differs after replay: " + restored.toMap(got.get(i)));
+                }
+            }
+            System.out.println("Crash replay over " + segments.size() + " segments: " + got.size() + " unsynced bookings restored, torn tail dropped: OK");
+        }
+        if (list(dir).size() != 1) {
+            throw new IllegalStateException("Checkpoint left " + list(dir).size() + " segments");
+        }
+        deleteAll(dir);
+
+        // 3. Replay speed: a store of unsynced bookings is checkpointed into one segment
+        // on open, then half of them are marked synced in batches as the writer would
+        dir = Files.createTempDirectory("wal-replay");
+        store = new BookingStore();
+        List<Booking> all = new ArrayList<>(replayCount);
+        for (int i = 0; i < replayCount; i++) all.add(newBooking(store, ids, 1, i));
+        try (BookingWal wal = BookingWal.open(dir, store)) {
+            for (int i = 0; i < replayCount / 2; i += 1_000) {
+                wal.appendSynced(all.subList(i, Math.min(i + 1_000, replayCount / 2)));
+            }
+        }
+        long bytes = 0;
+        for (Path p : list(dir)) bytes += Files.size(p);
+        BookingStore replayed = new BookingStore();
+        try (BookingWal wal = BookingWal.open(dir, replayed)) {
+            System.out.println(String.format("Replay: %d records (%d MB) in %d ms, %d bookings live",
+                    wal.replayedRecords(), bytes / (1024 * 1024), wal.replayMillis(), replayed.size()));
+            if (replayed.size() != replayCount - replayCount / 2) {
+                throw new IllegalStateException("Replayed " + replayed.size() + " live bookings, expected " + (replayCount - replayCount / 2));
+            }
+        }
+        deleteAll(dir);
+
+        // 4. Steady state: the writer syncs each booking a few bookings later
+        dir = Files.createTempDirectory("wal-rotate");
+        store = new BookingStore();
+        List<Booking> pending = new ArrayList<>();
+        int steady = 20_000;
+        int maxSegments = 0;
+        try (BookingWal wal = BookingWal.open(dir, store, 16 * 1024)) {
+            for (int i = 0; i < steady; i++) {
+                Booking b = newBooking(store, ids, 2, i);
+                wal.appendBooking(b);
+                pending.add(b);
+                if (pending.size() == 20) {
+                    for (Booking s : pending) store.remove(s.getId());
+                    wal.appendSynced(pending);
+                    pending.clear();
+                }
+                maxSegments = Math.max(maxSegments, wal.segmentCount());
+            }
+            if (maxSegments > 2 || wal.retiredSegments() == 0) {
+                throw new IllegalStateException("Rotation kept " + maxSegments + " segments, retired " + wal.retiredSegments());
+            }
+            System.out.println(String.format("Rotation: %d bookings, %d segments retired, at most %d on disk: OK",
+                    steady, wal.retiredSegments(), maxSegments));
+        }
+        BookingStore afterRotation = new BookingStore();
+        try (BookingWal wal = BookingWal.open(dir, afterRotation)) {
+            if (afterRotation.size() != store.size() || wal.segmentCount() != 1) {
+                throw new IllegalStateException("Replayed " + afterRotation.size() + " live bookings after rotation, expected " + store.size()
+                        + "; " + wal.segmentCount() + " segments after the checkpoint");
+            }
+        }
+        deleteAll(dir);
+    }
+
+    private static Booking newBooking(BookingStore store, BookingIdGenerator ids, int gate, int i) {
+        Booking b = new Booking(ids.nextId(), store.plateId("TN" + (10 + gate) + "AB" + Math.abs(i % 10_000)), "A" + (1 + Math.abs(i % 500)),
+                "Owner " + i, "90000" + Math.abs(i), 1_760_000_000L + i * 60L, 120, 6000, BookingStatus.BOOKED);
+        store.add(b);
+        return b;
+    }
+
+    private static List<Path> list(Path dir) throws IOException {
+        List<Path> out = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path p : files) out.add(p);
+        }
+        out.sort(null);
+        return out;
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        for (Path p : list(dir)) Files.delete(p);
+        Files.delete(dir);
+    }
+}
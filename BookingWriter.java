@@ -0,0 +1,463 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLSyntaxErrorException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind persistence for bookings.
+ *
+ * ALGORITHM: Bounded queue + single flusher thread + JDBC batches
+ * The gate hands a booking over with submit(), which only enqueues it, so
+ * the gate never waits for a database round trip. One flusher thread
+ * drains the queue in arrival order and writes a batch when it holds
+ * batchSize bookings or the oldest one has waited maxDelay, whichever
+ * comes first. Batches are written one at a time by that one thread, so
+ * bookings reach the database in the order they were made.
+ *
+ * Back-pressure: when the queue is full, submit() waits up to offerTimeout
+ * and then returns false; the caller keeps the booking locally instead.
+ * A batch that cannot be written is handed to the listener as failed, so
+ * nothing is dropped silently. A queued booking is held by the sink
+ * (BatchSink.hold) until the listener has run, because the store may drop
+ * it in the meantime: the resync can write it first.
+ *
+ * Poison rows: when a batch fails with a data or constraint error rather
+ * than a connectivity one, its bookings are written one by one. The good
+ * ones go through; each booking that fails alone with such an error is
+ * reported as poisoned, so one bad row cannot keep the rest of its batch
+ * (and, in OfflineResync, every later round) out of the database.
+ *
+ * Time Complexity: O(1) submit; one round trip per batch instead of per booking
+ * Space Complexity: O(capacity)
+ */
+public class BookingWriter implements AutoCloseable {
+
+    /** Writes one batch, in order; throws to report the whole batch as failed. */
+    public interface BatchSink {
+        void write(List<Booking> batch) throws SQLException;
+
+        /**
+         * Called before a booking is queued or written. A sink pins here what
+         * write() will read and lets go in release(); returns false if the
+         * booking is gone already and need not be written.
+         */
+        default boolean hold(Booking booking) {
+            return true;
+        }
+
+        /** Called once the listener has heard about the booking, or when it was not queued after all. */
+        default void release(Booking booking) {
+        }
+    }
+
+    /** Told about every batch once it is written or has failed; called on the flusher thread. */
+    public interface Listener {
+        void written(List<Booking> batch);
+        void failed(List<Booking> batch, Exception e);
+
+        /** A booking the database rejects on its own; retrying it will not help. */
+        default void poisoned(Booking booking, Exception e) {
+            failed(Collections.singletonList(booking), e);
+        }
+    }
+
+    /** What became of a batch written with write(): written, poisoned, and the rest failed. */
+    static final class Outcome {
+        final List<Booking> written = new ArrayList<>();
+        final List<Booking> poisoned = new ArrayList<>();
+        final List<Exception> poisonCauses = new ArrayList<>();
+        final List<Booking> failed = new ArrayList<>();
+        Exception failure;
+    }
+
+    /**
+     * Writes a batch; if it fails with a poison error, writes its bookings
+     * one at a time. Stops at the first error that is not one (the database
+     * went away) and reports everything not yet written as failed.
+     */
+    static Outcome write(BatchSink sink, List<Booking> batch) {
+        Outcome out = new Outcome();
+        try {
+            sink.write(batch);
+            out.written.addAll(batch);
+            return out;
+        } catch (Exception e) {
+            if (!isPoison(e)) {
+                out.failed.addAll(batch);
+                out.failure = e;
+                return out;
+            }
+            if (batch.size() == 1) {
+                out.poisoned.add(batch.get(0));
+                out.poisonCauses.add(e);
+                return out;
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Booking b = batch.get(i);
+            try {
+                sink.write(Collections.singletonList(b));
+                out.written.add(b);
+            } catch (Exception e) {
+                if (isPoison(e)) {
+                    out.poisoned.add(b);
+                    out.poisonCauses.add(e);
+                } else {
+                    out.failed.addAll(batch.subList(i, batch.size()));
+                    out.failure = e;
+                    break;
+                }
+            }
+        }
+        return out;
+    }
+
+    // Data (22xxx) and integrity (23xxx) errors belong to the row; anything else
+    // that is not an SQLException is a bug in building the row
+    static boolean isPoison(Exception e) {
+        if (!(e instanceof SQLException)) {
+            return e instanceof RuntimeException;
+        }
+        String state = ((SQLException) e).getSQLState();
+        return e instanceof SQLDataException || e instanceof SQLIntegrityConstraintViolationException
+                || (state != null && (state.startsWith("22") || state.startsWith("23")));
+    }
+
+    public static final int DEFAULT_CAPACITY = 10_000;
+    public static final int DEFAULT_BATCH_SIZE = 200;
+    public static final long DEFAULT_MAX_DELAY_MS = 50;
+    public static final long DEFAULT_OFFER_TIMEOUT_MS = 20;
+
+    private final BlockingQueue<Booking> queue;
+    private final BatchSink sink;
+    private final Listener listener;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final long offerTimeoutNanos;
+    private final Thread flusher;
+    private volatile boolean closing;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong poisoned = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong flushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    public BookingWriter(BatchSink sink, Listener listener) {
+        this(sink, listener, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_MAX_DELAY_MS, DEFAULT_OFFER_TIMEOUT_MS);
+    }
+
+    public BookingWriter(BatchSink sink, Listener listener, int capacity, int batchSize, long maxDelayMillis, long offerTimeoutMillis) {
+        if (capacity <= 0 || batchSize <= 0 || maxDelayMillis < 0 || offerTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Capacity and batch size must be positive, delays not negative");
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.sink = sink;
+        this.listener = listener;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+        this.flusher = new Thread(this::run, "booking-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queues a booking for the database. Returns false if the queue stayed
+     * full for the offer timeout or the writer is closed.
+     */
+    public boolean submit(Booking booking) {
+        if (closing || !sink.hold(booking)) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        try {
+            if (queue.offer(booking, offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                submitted.incrementAndGet();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sink.release(booking);
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    private void run() {
+        List<Booking> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                Booking first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closing) return;
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) continue;
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0 || closing) break;
+                    Booking next = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (batch.isEmpty() && queue.isEmpty()) return;
+            }
+            if (!batch.isEmpty()) {
+                flush(Collections.unmodifiableList(new ArrayList<>(batch)));
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Booking> batch) {
+        long t0 = System.nanoTime();
+        Outcome out = write(sink, batch);
+        record(System.nanoTime() - t0);
+        written.addAndGet(out.written.size());
+        poisoned.addAndGet(out.poisoned.size());
+        failed.addAndGet(out.failed.size());
+        try {
+            if (!out.written.isEmpty()) {
+                listener.written(out.written.size() == batch.size() ? batch : Collections.unmodifiableList(out.written));
+            }
+            for (int i = 0; i < out.poisoned.size(); i++) {
+                listener.poisoned(out.poisoned.get(i), out.poisonCauses.get(i));
+            }
+            if (!out.failed.isEmpty()) {
+                listener.failed(Collections.unmodifiableList(out.failed), out.failure);
+            }
+        } finally {
+            for (Booking b : batch) {
+                sink.release(b);
+            }
+        }
+    }
+
+    private void record(long nanos) {
+        batches.incrementAndGet();
+        flushNanos.addAndGet(nanos);
+        maxFlushNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Stops accepting bookings and waits up to timeoutMillis for the queue to
+     * be written. Returns false if it was not; the bookings still queued are
+     * in local storage (and the booking log) and resync picks them up later.
+     */
+    public boolean close(long timeoutMillis) {
+        closing = true;
+        try {
+            flusher.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !flusher.isAlive();
+    }
+
+    @Override
+    public void close() {
+        close(5_000);
+    }
+
+    public int queued() { return queue.size(); }
+    public long submittedCount() { return submitted.get(); }
+    public long rejectedCount() { return rejected.get(); }
+    public long writtenCount() { return written.get(); }
+    public long failedCount() { return failed.get(); }
+    public long poisonedCount() { return poisoned.get(); }
+    public long batchCount() { return batches.get(); }
+
+    public double averageBatchSize() {
+        long n = batches.get();
+        return n == 0 ? 0 : (written.get() + failed.get() + poisoned.get()) / (double) n;
+    }
+
+    public long averageFlushMicros() {
+        long n = batches.get();
+        return n == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(flushNanos.get() / n);
+    }
+
+    public long maxFlushMicros() { return TimeUnit.NANOSECONDS.toMicros(maxFlushNanos.get()); }
+
+    public String stats() {
+        return String.format("queued=%d submitted=%d rejected=%d written=%d failed=%d poisoned=%d batches=%d avgBatch=%.1f avgFlush=%dus maxFlush=%dus",
+                queued(), submittedCount(), rejectedCount(), writtenCount(), failedCount(), poisonedCount(), batchCount(),
+                averageBatchSize(), averageFlushMicros(), maxFlushMicros());
+    }
+
+    /**
+     * Writes batches into parking_spots, one transaction per batch, so that
+     * writing the same booking twice (a writer retry, or the writer and the
+     * resync racing) leaves one row:
+     *   booking columns + unique key on booking_id  upsert by booking_id
+     *   booking columns, no unique key possible     insert if no row has the booking_id
+     *   old four-column schema                      insert if no row has the vehicle and entry time
+     * The unique key is a one-off migration (README, "Add the booking_id
+     * unique key"); the client never changes the schema. The first write
+     * checks for the key and, if it is missing, says so on System.err and
+     * keeps to the insert-if-absent form. Insert-if-absent is not atomic
+     * between two transactions and is only serialized within this process,
+     * so gates on several machines can still write a booking twice until
+     * the key is added. The check runs once per process.
+     */
+    public static class JdbcSink implements BatchSink {
+        private static final String COLUMNS = "booking_id, vehicle_number, spot_number, name, phone, in_time, duration, amount, status";
+        private static final String UPSERT = "INSERT INTO parking_spots (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"
+                + " ON DUPLICATE KEY UPDATE vehicle_number = VALUES(vehicle_number), spot_number = VALUES(spot_number), name = VALUES(name),"
+                + " phone = VALUES(phone), in_time = VALUES(in_time), duration = VALUES(duration), amount = VALUES(amount), status = VALUES(status)";
+        private static final String INSERT_IF_ABSENT = "INSERT INTO parking_spots (" + COLUMNS + ") SELECT ?, ?, ?, ?, ?, ?, ?, ?, ? FROM DUAL"
+                + " WHERE NOT EXISTS (SELECT 1 FROM parking_spots WHERE booking_id = ?)";
+        private static final String INSERT_OLD_SCHEMA = "INSERT INTO parking_spots (vehicle_number, status, entry_time, amount) SELECT ?, ?, ?, ? FROM DUAL"
+                + " WHERE NOT EXISTS (SELECT 1 FROM parking_spots WHERE vehicle_number = ? AND entry_time = ?)";
+        private static final String FIND_UNIQUE_KEY = "SHOW INDEX FROM parking_spots WHERE Column_name = 'booking_id' AND Non_unique = 0";
+        private static final Object INSERT_IF_ABSENT_LOCK = new Object();
+
+        private final BookingStore plates;
+        private volatile Boolean uniqueKey;   // null until the first write has checked for it
+
+        /** @param plates the store the bookings were added to, for their vehicle numbers */
+        public JdbcSink(BookingStore plates) {
+            this.plates = plates;
+        }
+
+        // A held booking's plate id stays decodable after the store drops the booking
+        @Override
+        public boolean hold(Booking booking) {
+            return plates.pinPlate(booking);
+        }
+
+        @Override
+        public void release(Booking booking) {
+            plates.unpinPlate(booking);
+        }
+
+        @Override
+        public void write(List<Booking> batch) throws SQLException {
+            try (Connection conn = DBConnection.getConnection()) {
+                if (conn == null) {
+                    throw new SQLException("Database unavailable", "08001");
+                }
+                try {
+                    if (uniqueKey == null) uniqueKey = hasUniqueKey(conn);
+                    if (uniqueKey) {
+                        insert(conn, batch, false, false);
+                    } else {
+                        synchronized (INSERT_IF_ABSENT_LOCK) {
+                            insert(conn, batch, false, true);
+                        }
+                    }
+                } catch (SQLSyntaxErrorException e) {
+                    System.err.println("Insert with booking columns failed, using old schema: " + e.getMessage());
+                    synchronized (INSERT_IF_ABSENT_LOCK) {
+                        insert(conn, batch, true, true);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Writes one booking given as form fields straight through, for a
+         * booking that could not be made into a Booking. Same statements as
+         * write(), one row, on the caller's thread.
+         */
+        public void writeFields(Map<String, String> fields) throws SQLException {
+            try (Connection conn = DBConnection.getConnection()) {
+                if (conn == null) {
+                    throw new SQLException("Database unavailable", "08001");
+                }
+                String[] newColumns = {Booking.ID, Booking.VEHICLE, Booking.SLOT, Booking.NAME, Booking.PHONE,
+                        Booking.IN_TIME, Booking.DURATION, Booking.AMOUNT, Booking.STATUS, Booking.ID};
+                try {
+                    if (uniqueKey == null) uniqueKey = hasUniqueKey(conn);
+                    synchronized (INSERT_IF_ABSENT_LOCK) {
+                        executeFields(conn, uniqueKey ? UPSERT : INSERT_IF_ABSENT, fields, newColumns, uniqueKey ? 9 : 10);
+                    }
+                } catch (SQLSyntaxErrorException e) {
+                    String[] oldColumns = {Booking.VEHICLE, Booking.STATUS, Booking.IN_TIME, Booking.AMOUNT, Booking.VEHICLE, Booking.IN_TIME};
+                    synchronized (INSERT_IF_ABSENT_LOCK) {
+                        executeFields(conn, INSERT_OLD_SCHEMA, fields, oldColumns, 6);
+                    }
+                }
+            }
+        }
+
+        private static void executeFields(Connection conn, String sql, Map<String, String> fields, String[] columns, int params) throws SQLException {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (int i = 0; i < params; i++) {
+                    ps.setString(i + 1, fields.get(columns[i]));
+                }
+                ps.executeUpdate();
+            }
+        }
+
+        // The upsert only deduplicates with a unique key on booking_id; adding it is the README migration's job
+        private static boolean hasUniqueKey(Connection conn) throws SQLException {
+            try (PreparedStatement find = conn.prepareStatement(FIND_UNIQUE_KEY); ResultSet rs = find.executeQuery()) {
+                if (rs.next()) return true;
+            }
+            System.err.println("parking_spots has no unique key on booking_id: run the migration in README.md"
+                    + " (\"Add the booking_id unique key\"). Until then bookings are written insert-if-absent,"
+                    + " which only prevents duplicates within this process.");
+            return false;
+        }
+
+        private void insert(Connection conn, List<Booking> batch, boolean oldSchema, boolean ifAbsent) throws SQLException {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(oldSchema ? INSERT_OLD_SCHEMA : ifAbsent ? INSERT_IF_ABSENT : UPSERT)) {
+                for (Booking b : batch) {
+                    String vehicle = plates.vehicleNumber(b);
+                    String inTime = Booking.formatInTime(b.getInTime());
+                    String amount = Booking.formatAmount(b.getAmountPaise());
+                    if (oldSchema) {
+                        ps.setString(1, vehicle);
+                        ps.setString(2, b.getStatus().getLabel());
+                        ps.setString(3, inTime);
+                        ps.setString(4, amount);
+                        ps.setString(5, vehicle);
+                        ps.setString(6, inTime);
+                    } else {
+                        ps.setString(1, b.getCode());
+                        ps.setString(2, vehicle);
+                        ps.setString(3, b.getSlot());
+                        ps.setString(4, b.getName());
+                        ps.setString(5, b.getPhone());
+                        ps.setString(6, inTime);
+                        ps.setString(7, Booking.formatDuration(b.getDurationMinutes()));
+                        ps.setString(8, amount);
+                        ps.setString(9, b.getStatus().getLabel());
+                        if (ifAbsent) ps.setString(10, b.getCode());
+                    }
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ignored) {
+                    // the connection is gone; the pool discards it
+                }
+                throw e;
+            }
+            // the pool restores auto-commit when the connection is returned
+        }
+    }
+}
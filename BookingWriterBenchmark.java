@@ -0,0 +1,126 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gate latency of write-behind booking persistence against the old
+ * synchronous insert + full table re-read.
+ *
+ * The database is simulated: a round trip costs rttMicros, each inserted
+ * row rowMicros more, and the old re-read of parking_spots 0.1 us per row
+ * already in the table. Both paths see the same costs; only where the wait
+ * happens differs. The check also confirms every booking was written once
+ * and in order.
+ *
+ * Run:  java BookingWriterBenchmark [bookings] [rttMicros] [rowMicros]
+ */
+public class BookingWriterBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int bookings = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long rttMicros = args.length > 1 ? Long.parseLong(args[1]) : 500;
+        long rowMicros = args.length > 2 ? Long.parseLong(args[2]) : 10;
+
+        BookingStore store = new BookingStore();
+        BookingIdGenerator ids = new BookingIdGenerator(0);
+        Booking[] all = new Booking[bookings];
+        for (int i = 0; i < bookings; i++) {
+            all[i] = new Booking(ids.nextId(), store.plateId("TN01AB" + (i % 5_000)), "A" + (1 + i % 500),
+                    "Owner", "9000000000", 0, DurationEngine.MINUTES_PER_HOUR, 3000, BookingStatus.BOOKED);
+        }
+
+        // Old path: the gate inserts one row, then re-reads the whole table
+        SimulatedDb syncDb = new SimulatedDb(rttMicros, rowMicros);
+        long[] syncNanos = new long[bookings];
+        for (int i = 0; i < bookings; i++) {
+            long t0 = System.nanoTime();
+            syncDb.write(List.of(all[i]));
+            syncDb.readAll();
+            syncNanos[i] = System.nanoTime() - t0;
+        }
+
+        // Write-behind: the gate only enqueues
+        SimulatedDb asyncDb = new SimulatedDb(rttMicros, rowMicros);
+        AtomicLong writtenCallbacks = new AtomicLong();
+        BookingWriter writer = new BookingWriter(asyncDb, new BookingWriter.Listener() {
+            @Override
+            public void written(List<Booking> batch) { writtenCallbacks.addAndGet(batch.size()); }
+
+            @Override
+            public void failed(List<Booking> batch, Exception e) { throw new IllegalStateException(e); }
+        });
+        long[] asyncNanos = new long[bookings];
+        long start = System.nanoTime();
+        for (int i = 0; i < bookings; i++) {
+            long t0 = System.nanoTime();
+            if (!writer.submit(all[i])) {
+                throw new IllegalStateException("Queue full at booking " + i);
+            }
+            asyncNanos[i] = System.nanoTime() - t0;
+        }
+        if (!writer.close(60_000)) {
+            throw new IllegalStateException("Writer did not drain: " + writer.stats());
+        }
+        long asyncMillis = (System.nanoTime() - start) / 1_000_000;
+
+        if (asyncDb.rows.size() != bookings || writtenCallbacks.get() != bookings) {
+            throw new IllegalStateException("Wrote " + asyncDb.rows.size() + " of " + bookings + " bookings");
+        }
+        for (int i = 0; i < bookings; i++) {
+            if (asyncDb.rows.get(i) != all[i].getId()) {
+                throw new IllegalStateException("Out of order at " + i);
+            }
+        }
+        System.out.println("All " + bookings + " bookings written once, in order: OK");
+        System.out.println(writer.stats() + ", drained in " + asyncMillis + " ms");
+
+        System.out.println(String.format("%-24s %10s %10s %10s %10s", "gate latency (us)", "p50", "p99", "p99.9", "max"));
+        print("sync insert + re-read", syncNanos);
+        print("write-behind submit", asyncNanos);
+        System.out.println(String.format("p99 improvement: %.0fx", (double) percentile(syncNanos, 99) / Math.max(percentile(asyncNanos, 99), 1)));
+    }
+
+    private static void print(String label, long[] nanos) {
+        System.out.println(String.format("%-24s %10.1f %10.1f %10.1f %10.1f", label,
+                percentile(nanos, 50) / 1e3, percentile(nanos, 99) / 1e3, percentile(nanos, 99.9) / 1e3, percentile(nanos, 100) / 1e3));
+    }
+
+    private static long percentile(long[] values, double p) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int i = (int) Math.ceil(p / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(i, sorted.length - 1))];
+    }
+
+    // Stand-in for MySQL: waits out the round trip and per-row costs, records ids in arrival order
+    private static final class SimulatedDb implements BookingWriter.BatchSink {
+        final long rttNanos;
+        final long rowNanos;
+        final List<Long> rows = new ArrayList<>();
+
+        SimulatedDb(long rttMicros, long rowMicros) {
+            this.rttNanos = TimeUnit.MICROSECONDS.toNanos(rttMicros);
+            this.rowNanos = TimeUnit.MICROSECONDS.toNanos(rowMicros);
+        }
+
+        @Override
+        public void write(List<Booking> batch) {
+            spin(rttNanos + rowNanos * batch.size());
+            for (Booking b : batch) rows.add(b.getId());
+        }
+
+        void readAll() {
+            spin(rttNanos + rows.size() * 100L);
+        }
+
+        private static void spin(long nanos) {
+            long end = System.nanoTime() + nanos;
+            while (System.nanoTime() < end) {
+                LockSupport.parkNanos(Math.min(end - System.nanoTime(), 50_000));
+            }
+        }
+    }
+}
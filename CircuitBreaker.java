@@ -0,0 +1,151 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker for calls to a dependency that can go away (the database).
+ *
+ * ALGORITHM: CLOSED / OPEN / HALF_OPEN state machine in one AtomicReference
+ *   CLOSED     calls go through; failureThreshold failures in a row open it
+ *   OPEN       calls are refused at once until openMillis have passed
+ *   HALF_OPEN  exactly one caller (the one whose CAS moved it out of OPEN)
+ *              probes; success closes the breaker, failure re-opens it with
+ *              the open time doubled, up to maxOpenMillis
+ * Every transition is a compareAndSet on an immutable snapshot, so no lock
+ * is taken and two threads can never both become the probe.
+ *
+ * Time Complexity: O(1) per call, one volatile read when closed
+ * Space Complexity: O(1)
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final long maxOpenMillis;
+    private final AtomicReference<Snapshot> state;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong opened = new AtomicLong();
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis, long maxOpenMillis) {
+        if (failureThreshold <= 0 || openMillis <= 0 || maxOpenMillis < openMillis) {
+            throw new IllegalArgumentException("Threshold and open time must be positive, max open time at least the open time");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.maxOpenMillis = maxOpenMillis;
+        this.state = new AtomicReference<>(new Snapshot(State.CLOSED, 0, 0, openMillis));
+    }
+
+    /** Breaker configured from -D{prefix}.failures, .openMs and .maxOpenMs. */
+    public static CircuitBreaker fromSystem(String prefix, int failures, long openMillis, long maxOpenMillis) {
+        return new CircuitBreaker(prefix,
+                Integer.getInteger(prefix + ".failures", failures),
+                Long.getLong(prefix + ".openMs", openMillis),
+                Long.getLong(prefix + ".maxOpenMs", maxOpenMillis));
+    }
+
+    public boolean allowRequest() {
+        return allowRequest(System.currentTimeMillis());
+    }
+
+    /**
+     * True if the call may go ahead. When it returns true in HALF_OPEN the
+     * caller is the probe and must report the outcome.
+     */
+    public boolean allowRequest(long nowMillis) {
+        while (true) {
+            Snapshot s = state.get();
+            switch (s.state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (nowMillis >= s.openUntil
+                            && state.compareAndSet(s, new Snapshot(State.HALF_OPEN, s.failures, s.openUntil, s.backoff))) {
+                        return true;
+                    }
+                    if (nowMillis < s.openUntil) {
+                        rejected.incrementAndGet();
+                        return false;
+                    }
+                    break;   // lost the race to become the probe: re-read
+                default:
+                    rejected.incrementAndGet();   // a probe is already out
+                    return false;
+            }
+        }
+    }
+
+    public void recordSuccess() {
+        while (true) {
+            Snapshot s = state.get();
+            if (s.state == State.OPEN || (s.state == State.CLOSED && s.failures == 0)) {
+                return;   // nothing to reset, or a call that started before the breaker opened
+            }
+            if (state.compareAndSet(s, new Snapshot(State.CLOSED, 0, 0, openMillis))) {
+                return;
+            }
+        }
+    }
+
+    public void recordFailure() {
+        recordFailure(System.currentTimeMillis());
+    }
+
+    public void recordFailure(long nowMillis) {
+        while (true) {
+            Snapshot s = state.get();
+            Snapshot next;
+            if (s.state == State.HALF_OPEN) {
+                long backoff = Math.min(s.backoff * 2, maxOpenMillis);
+                next = new Snapshot(State.OPEN, s.failures + 1, nowMillis + backoff, backoff);
+            } else if (s.state == State.CLOSED && s.failures + 1 >= failureThreshold) {
+                next = new Snapshot(State.OPEN, s.failures + 1, nowMillis + openMillis, openMillis);
+            } else if (s.state == State.CLOSED) {
+                next = new Snapshot(State.CLOSED, s.failures + 1, 0, openMillis);
+            } else {
+                return;   // already open: a late failure from before it opened changes nothing
+            }
+            if (state.compareAndSet(s, next)) {
+                if (next.state == State.OPEN) {
+                    opened.incrementAndGet();
+                    System.err.println("Circuit " + name + " open for " + next.backoff + " ms after " + next.failures + " failures");
+                }
+                return;
+            }
+        }
+    }
+
+    public State state() { return state.get().state; }
+    public int consecutiveFailures() { return state.get().failures; }
+    public long rejectedCount() { return rejected.get(); }
+    public long openedCount() { return opened.get(); }
+
+    /** Milliseconds until a probe is allowed, 0 unless open. */
+    public long remainingOpenMillis(long nowMillis) {
+        Snapshot s = state.get();
+        return s.state == State.OPEN ? Math.max(0, s.openUntil - nowMillis) : 0;
+    }
+
+    @Override
+    public String toString() {
+        Snapshot s = state.get();
+        return String.format("%s: %s failures=%d opened=%d rejected=%d", name, s.state, s.failures, openedCount(), rejectedCount());
+    }
+
+    private static final class Snapshot {
+        final State state;
+        final int failures;
+        final long openUntil;
+        final long backoff;
+
+        Snapshot(State state, int failures, long openUntil, long backoff) {
+            this.state = state;
+            this.failures = failures;
+            this.openUntil = openUntil;
+            this.backoff = backoff;
+        }
+    }
+}
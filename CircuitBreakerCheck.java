@@ -0,0 +1,98 @@
+import java.sql.Connection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Behaviour check for CircuitBreaker and the fast-fail path of DBConnection.
+ *
+ * 1. Walks the state machine on a fake clock: threshold, open, half-open
+ *    probe, re-open with doubled (capped) open time, close on success.
+ * 2. 64 threads hit a breaker whose open time has just run out; exactly
+ *    one of them may probe.
+ * 3. Times DBConnection.getConnection() while it still tries to connect and
+ *    once the breaker is open (no MySQL or driver needed: failing to load
+ *    the driver counts as a failure too).
+ *
+ * Run:  java CircuitBreakerCheck
+ */
+public class CircuitBreakerCheck {
+
+    public static void main(String[] args) throws Exception {
+        // 1. State machine
+        CircuitBreaker b = new CircuitBreaker("test", 3, 1_000, 4_000);
+        long now = 0;
+        b.recordFailure(now);
+        b.recordFailure(now);
+        check(b.state() == CircuitBreaker.State.CLOSED && b.allowRequest(now), "opened before the threshold");
+        b.recordSuccess();
+        check(b.consecutiveFailures() == 0, "success did not reset the count");
+        for (int i = 0; i < 3; i++) b.recordFailure(now);
+        check(b.state() == CircuitBreaker.State.OPEN && !b.allowRequest(now + 999), "not open after 3 failures");
+        check(b.allowRequest(now + 1_000) && b.state() == CircuitBreaker.State.HALF_OPEN, "no probe after the open time");
+        check(!b.allowRequest(now + 1_000), "second probe allowed");
+        b.recordFailure(now + 1_000);
+        check(b.remainingOpenMillis(now + 1_000) == 2_000, "open time not doubled: " + b.remainingOpenMillis(now + 1_000));
+        check(b.allowRequest(now + 3_000), "no probe after the doubled open time");
+        b.recordFailure(now + 3_000);
+        check(b.allowRequest(now + 7_000), "no probe after 4 s");
+        b.recordFailure(now + 7_000);
+        check(b.remainingOpenMillis(now + 7_000) == 4_000, "open time not capped: " + b.remainingOpenMillis(now + 7_000));
+        check(b.allowRequest(now + 11_000), "no probe after the capped open time");
+        b.recordSuccess();
+        check(b.state() == CircuitBreaker.State.CLOSED && b.allowRequest(now + 11_000), "probe success did not close");
+        System.out.println("State machine: OK  " + b);
+
+        // 2. Single probe under contention
+        for (int round = 0; round < 20; round++) {
+            CircuitBreaker race = new CircuitBreaker("race", 1, 1, 1);
+            race.recordFailure(0);
+            AtomicInteger probes = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(64);
+            for (int t = 0; t < 64; t++) {
+                new Thread(() -> {
+                    try {
+                        start.await();
+                        if (race.allowRequest(10)) probes.incrementAndGet();
+                    } catch (InterruptedException ignored) {
+                    } finally {
+                        done.countDown();
+                    }
+                }).start();
+            }
+            start.countDown();
+            done.await();
+            check(probes.get() == 1, "round " + round + ": " + probes.get() + " probes");
+        }
+        System.out.println("Single probe among 64 threads, 20 rounds: OK");
+
+        // 3. DBConnection fast-fail
+        CircuitBreaker breaker = DBConnection.breaker();
+        int attempts = 0;
+        long t0 = System.nanoTime();
+        while (breaker.state() == CircuitBreaker.State.CLOSED) {
+            Connection c = DBConnection.getConnection();
+            if (c != null) {
+                c.close();
+                System.out.println("Database reachable; skipping the fast-fail timing");
+                return;
+            }
+            attempts++;
+        }
+        double tryingMicros = (System.nanoTime() - t0) / 1e3 / attempts;
+        int calls = 1_000_000;
+        t0 = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            check(DBConnection.getConnection() == null, "connection while open");
+        }
+        double openNanos = (System.nanoTime() - t0) / (double) calls;
+        System.out.println(String.format("getConnection(): %.0f us per call while trying (%d attempts), %.0f ns per call while open  %s",
+                tryingMicros, attempts, openNanos, breaker));
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
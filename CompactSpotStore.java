@@ -0,0 +1,124 @@
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays spot storage for very large (city-wide) inventories.
+ *
+ * ALGORITHM: Column store with a dictionary-encoded plate column
+ * Instead of one ParkingSpot object (and a Car) per spot, every attribute is
+ * a primitive column indexed by spot number:
+ *
+ *   state      byte[]   FREE / OCCUPIED
+ *   zone       short[]  zone id (LotModel.Zone.getId())
+ *   spotClass  byte[]   VehicleClass ordinal
+ *   plate      int[]    PlateDictionary id, 0 = empty
+ *
+ * A reverse column (plate group -> spot) makes exit lookups by plate O(1).
+ * A parked plate is retained in the dictionary and released when it leaves.
+ * The dictionary is swept after every max(1024, 2 x parked) new spellings,
+ * so it holds at most the parked plates plus two sweep intervals of plates
+ * that have left, however long the store runs.
+ *
+ * Time Complexity: O(1) park / vacate / lookup by spot or plate, amortized
+ * Space Complexity: 8 bytes per spot + per parked plate its characters and
+ * ~40 bytes of dictionary and reverse column (PlateDictionary holds no String per plate)
+ *
+ * Not thread-safe; callers serialize writes.
+ */
+public class CompactSpotStore {
+    public static final byte FREE = 0;
+    public static final byte OCCUPIED = 1;
+
+    private final byte[] state;
+    private final short[] zone;
+    private final byte[] spotClass;
+    private final int[] plate;
+
+    private final PlateDictionary plates = new PlateDictionary();
+    private int[] spotByPlate = new int[16];   // plate group -> spot index + 1, 0 = not parked
+    private int occupied;
+    private int nextSweep = 1024;              // dictionary size that triggers the next sweep
+
+    public CompactSpotStore(int capacity) {
+        state = new byte[capacity];
+        zone = new short[capacity];
+        spotClass = new byte[capacity];
+        plate = new int[capacity];
+        Arrays.fill(spotClass, (byte) VehicleClass.CAR.ordinal());
+    }
+
+    /** Builds a store with one entry per slot of the lot, in LotModel.allSlots() order. */
+    public static CompactSpotStore of(LotModel lot) {
+        CompactSpotStore store = new CompactSpotStore(lot.size());
+        int index = 0;
+        for (String slotId : lot.allSlots()) {
+            store.define(index++, lot.zoneOf(slotId).getId(), lot.spotClassOf(slotId));
+        }
+        return store;
+    }
+
+    public void define(int index, int zoneId, VehicleClass vehicleClass) {
+        if (zoneId < 0 || zoneId > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Zone id out of range: " + zoneId);
+        }
+        zone[index] = (short) zoneId;
+        spotClass[index] = (byte) vehicleClass.ordinal();
+    }
+
+    public int capacity() { return state.length; }
+    public int occupiedCount() { return occupied; }
+
+    public boolean isOccupied(int index) { return state[index] == OCCUPIED; }
+    public int zoneOf(int index) { return zone[index]; }
+    public VehicleClass spotClassOf(int index) { return VehicleClass.values()[spotClass[index]]; }
+
+    public String plateAt(int index) {
+        return plate[index] == 0 ? null : plates.decode(plate[index]);
+    }
+
+    /** Spot index holding this plate, or -1 if it is not parked. */
+    public int spotOf(String carNumber) {
+        int id = plates.lookup(carNumber);
+        return id == 0 || id >= spotByPlate.length ? -1 : spotByPlate[id] - 1;
+    }
+
+    public void park(int index, String carNumber) {
+        if (state[index] == OCCUPIED) {
+            throw new IllegalStateException("Spot index " + index + " is already occupied");
+        }
+        int id = plates.encode(carNumber);
+        int key = plates.group(id);
+        if (key >= spotByPlate.length) {
+            spotByPlate = Arrays.copyOf(spotByPlate, Math.max(key + 1, spotByPlate.length * 2));
+        }
+        if (spotByPlate[key] != 0) {
+            throw new IllegalStateException("Car " + carNumber + " is already parked at spot index " + (spotByPlate[key] - 1));
+        }
+        plates.retain(id);
+        state[index] = OCCUPIED;
+        plate[index] = id;
+        spotByPlate[key] = index + 1;
+        occupied++;
+        if (plates.size() >= nextSweep) {
+            plates.sweep();
+            nextSweep = plates.size() + Math.max(1024, 2 * occupied);
+        }
+    }
+
+    /** Frees the spot and returns the plate that was parked there, or null if it was already free. */
+    public String vacate(int index) {
+        if (state[index] != OCCUPIED) {
+            return null;
+        }
+        int id = plate[index];
+        state[index] = FREE;
+        plate[index] = 0;
+        spotByPlate[plates.group(id)] = 0;
+        occupied--;
+        String carNumber = plates.decode(id);
+        plates.release(id);
+        return carNumber;
+    }
+
+    /** Spellings held by the plate dictionary, parked or awaiting a sweep. */
+    public int plateCount() { return plates.size(); }
+}
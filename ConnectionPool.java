@@ -0,0 +1,397 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.SQLTransientConnectionException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool.
+ *
+ * ALGORITHM: Semaphore-bounded LIFO pool of physical connections
+ * A borrow takes one of maxSize permits (waiting up to borrowTimeout), then
+ * pops the most recently returned idle connection, so a small working set
+ * stays warm and the rest age out. A connection that sat idle longer than
+ * validateAfter is checked with isValid() first and replaced if it is dead.
+ * Callers get a proxy whose close() hands the physical connection back
+ * instead of closing it; a connection that threw a connection-class
+ * SQLException (SQLState 08xxx) is closed for real instead of being reused.
+ * The statements, result sets and metadata a lease hands out are proxied
+ * too: an 08xxx error from executeQuery() or next() poisons the lease like
+ * one from the connection itself, their getConnection() / getStatement()
+ * return the proxies rather than the physical objects, and they refuse
+ * use once the lease is back in the pool.
+ * A daemon thread evicts connections idle for longer than idleTimeout.
+ *
+ * Metrics: borrows, timeouts, wait time (total and max), active, idle,
+ * connections created, evicted and found broken.
+ *
+ * Time Complexity: O(1) borrow / return when a connection is idle
+ * Space Complexity: at most maxSize physical connections
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /** Opens a new physical connection, e.g. () -> DriverManager.getConnection(url, user, password). */
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    /** Told how each borrow went, e.g. to drive a circuit breaker. */
+    public interface LeaseListener {
+        /** The lease came back without a connection error. */
+        void returned();
+
+        /** The lease hit a connection error (SQLState 08xxx); called when it happens, once per lease. */
+        void broken(SQLException e);
+    }
+
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final long borrowTimeoutNanos;
+    private final long idleTimeoutNanos;
+    private final long validateAfterNanos;
+    private final int validationTimeoutSeconds;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<Pooled> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong broken = new AtomicLong();
+    private final ScheduledExecutorService evictor;
+    private volatile LeaseListener leaseListener;
+    private volatile boolean closed;
+
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long borrowTimeoutMillis, long idleTimeoutMillis) {
+        this(factory, maxSize, borrowTimeoutMillis, idleTimeoutMillis, 500, 2);
+    }
+
+    /**
+     * @param validateAfterMillis      idle time after which a connection is checked with isValid() before reuse
+     * @param validationTimeoutSeconds timeout passed to isValid()
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long borrowTimeoutMillis, long idleTimeoutMillis,
+                          long validateAfterMillis, int validationTimeoutSeconds) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive: " + maxSize);
+        }
+        if (borrowTimeoutMillis < 0 || idleTimeoutMillis <= 0 || validateAfterMillis < 0 || validationTimeoutSeconds < 0) {
+            throw new IllegalArgumentException("Pool timeouts must not be negative, idle timeout must be positive");
+        }
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.borrowTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.validateAfterNanos = TimeUnit.MILLISECONDS.toNanos(validateAfterMillis);
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.permits = new Semaphore(maxSize, true);
+
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(idleTimeoutMillis / 2, 1);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public void setLeaseListener(LeaseListener listener) {
+        this.leaseListener = listener;
+    }
+
+    /**
+     * Borrows a connection; close() it to give it back.
+     *
+     * @throws SQLTransientConnectionException if none frees up within the borrow timeout
+     * @throws SQLException if a new connection could not be opened
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long t0 = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLTransientConnectionException("No connection free within "
+                        + TimeUnit.NANOSECONDS.toMillis(borrowTimeoutNanos) + " ms (pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+
+        try {
+            Connection physical = takeIdle();
+            if (physical == null) {
+                physical = factory.open();
+                created.incrementAndGet();
+            }
+            long waited = System.nanoTime() - t0;
+            borrows.incrementAndGet();
+            waitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            active.incrementAndGet();
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // Most recently returned idle connection that is still usable, or null
+    private Connection takeIdle() {
+        Pooled p;
+        while ((p = idle.pollFirst()) != null) {
+            if (System.nanoTime() - p.returnedAt < validateAfterNanos || isValid(p.connection)) {
+                return p.connection;
+            }
+            broken.incrementAndGet();
+            closeQuietly(p.connection);
+        }
+        return null;
+    }
+
+    private boolean isValid(Connection c) {
+        try {
+            return c.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // Called once per borrowed connection, from the proxy's close()
+    private void giveBack(Connection physical, boolean reusable) {
+        active.decrementAndGet();
+        try {
+            if (reusable && !closed && !physical.isClosed()) {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                idle.offerFirst(new Pooled(physical, System.nanoTime()));
+            } else {
+                if (!reusable) broken.incrementAndGet();
+                closeQuietly(physical);
+            }
+        } catch (SQLException e) {
+            broken.incrementAndGet();
+            closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Closes idle connections not used for longer than the idle timeout. */
+    void evictIdle() {
+        long now = System.nanoTime();
+        Iterator<Pooled> it = idle.descendingIterator();   // oldest returns are at the tail
+        while (it.hasNext()) {
+            Pooled p = it.next();
+            if (now - p.returnedAt > idleTimeoutNanos && idle.removeLastOccurrence(p)) {
+                evicted.incrementAndGet();
+                closeQuietly(p.connection);
+            }
+        }
+    }
+
+    /** Closes idle connections and stops the evictor; borrowed ones are closed as they come back. */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        Pooled p;
+        while ((p = idle.pollFirst()) != null) {
+            closeQuietly(p.connection);
+        }
+    }
+
+    public int maxSize() { return maxSize; }
+    public int active() { return active.get(); }
+    public int idle() { return idle.size(); }
+    public long borrowCount() { return borrows.get(); }
+    public long timeoutCount() { return timeouts.get(); }
+    public long createdCount() { return created.get(); }
+    public long evictedCount() { return evicted.get(); }
+    public long brokenCount() { return broken.get(); }
+
+    public long averageWaitMicros() {
+        long n = borrows.get();
+        return n == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(waitNanos.get() / n);
+    }
+
+    public long maxWaitMicros() { return TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()); }
+
+    public String stats() {
+        return String.format("active=%d idle=%d max=%d borrows=%d avgWait=%dus maxWait=%dus timeouts=%d created=%d evicted=%d broken=%d",
+                active(), idle(), maxSize, borrowCount(), averageWaitMicros(), maxWaitMicros(),
+                timeoutCount(), createdCount(), evictedCount(), brokenCount());
+    }
+
+    private Connection wrap(Connection physical) {
+        Lease lease = new Lease(physical);
+        lease.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, lease);
+        return lease.proxy;
+    }
+
+    // JDBC objects handed out by a lease that are proxied in turn; anything else is returned as is
+    private static final Class<?>[] WRAPPED = {CallableStatement.class, PreparedStatement.class, Statement.class, ResultSet.class, DatabaseMetaData.class};
+
+    private static Class<?> wrappedType(Class<?> returnType) {
+        for (Class<?> type : WRAPPED) {
+            if (type == returnType) return type;
+        }
+        return null;
+    }
+
+    private static boolean isConnectionError(Throwable e) {
+        if (!(e instanceof SQLException)) return false;
+        String state = ((SQLException) e).getSQLState();
+        return state != null && state.startsWith("08");
+    }
+
+    private static void closeQuietly(Connection c) {
+        try {
+            c.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private static final class Pooled {
+        final Connection connection;
+        final long returnedAt;
+
+        Pooled(Connection connection, long returnedAt) {
+            this.connection = connection;
+            this.returnedAt = returnedAt;
+        }
+    }
+
+    // One borrow of a physical connection; everything but close() / isClosed() is passed through
+    private final class Lease implements InvocationHandler {
+        private final Connection physical;
+        private Connection proxy;
+        private volatile boolean released;
+        private volatile boolean broken;
+
+        Lease(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        giveBack(physical, !broken);
+                        LeaseListener listener = leaseListener;
+                        if (listener != null && !broken) listener.returned();
+                    }
+                    return null;
+                case "isClosed":
+                    return released || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + physical + "]";
+                default:
+                    break;
+            }
+            if (released) {
+                throw new SQLException("Connection has been returned to the pool");
+            }
+            return call(physical, method, args, null);
+        }
+
+        // Invokes on a physical object, poisoning the lease on a connection error and proxying what comes back
+        Object call(Object target, Method method, Object[] args, Object parent) throws Throwable {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (isConnectionError(cause)) {
+                    markBroken((SQLException) cause);
+                }
+                throw cause;
+            }
+            Class<?> type = result == null ? null : wrappedType(method.getReturnType());
+            if (type == null) {
+                return result;
+            }
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new Child(this, result, parent));
+        }
+
+        // Connection exception: do not hand this one out again
+        private void markBroken(SQLException cause) {
+            boolean first;
+            synchronized (this) {
+                first = !broken;
+                broken = true;
+            }
+            LeaseListener listener = leaseListener;
+            if (first && listener != null) listener.broken(cause);
+        }
+    }
+
+    // A statement, result set or metadata object of a lease
+    private static final class Child implements InvocationHandler {
+        private final Lease lease;
+        private final Object physical;
+        private final Object parent;   // the statement proxy a result set came from, or null
+
+        Child(Lease lease, Object physical, Object parent) {
+            this.lease = lease;
+            this.physical = physical;
+            this.parent = parent;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection":
+                    return lease.proxy;
+                case "getStatement":
+                    if (args == null) return parent instanceof Statement ? parent : null;   // metadata result sets have none
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + physical + "]";
+                case "close":
+                case "isClosed":
+                    return lease.call(physical, method, args, proxy);
+                default:
+                    break;
+            }
+            if (lease.released) {
+                throw new SQLException("Connection has been returned to the pool");
+            }
+            return lease.call(physical, method, args, proxy);
+        }
+    }
+}
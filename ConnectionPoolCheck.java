@@ -0,0 +1,268 @@
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Behaviour check for ConnectionPool.
+ *
+ * Without arguments it runs against in-process stub connections, so it
+ * needs no database:
+ *   1. a returned connection is reused, not reopened
+ *   2. the pool never hands out more than maxSize, and a borrow past that
+ *      times out; a waiting borrower gets the next returned connection
+ *   3. a dead idle connection fails isValid() and is replaced
+ *   4. a connection that threw SQLState 08xxx is not reused, also when the
+ *      error came from a statement or result set it handed out, and those
+ *      never give the physical connection away; the lease listener hears
+ *      of each healthy return and each link failure once
+ *   5. idle connections are evicted after the idle timeout
+ *   6. 32 threads hammering a pool of 4 never exceed 4 active
+ * With a JDBC URL (any embedded database on the classpath) it also
+ * borrows, queries and reuses real connections.
+ *
+ * Run:  java ConnectionPoolCheck [jdbcUrl [user password]]
+ */
+public class ConnectionPoolCheck {
+
+    public static void main(String[] args) throws Exception {
+        // 1. Reuse
+        Stubs stubs = new Stubs();
+        try (ConnectionPool pool = new ConnectionPool(stubs::open, 2, 100, 60_000)) {
+            for (int i = 0; i < 100; i++) {
+                try (Connection c = pool.getConnection()) {
+                    c.createStatement();
+                }
+            }
+            check(pool.createdCount() == 1 && pool.borrowCount() == 100 && pool.idle() == 1 && pool.active() == 0,
+                    "100 sequential borrows should share one connection: " + pool.stats());
+            Connection c = pool.getConnection();
+            c.close();
+            c.close();   // second close is a no-op
+            check(pool.active() == 0, "double close returned twice: " + pool.stats());
+            try {
+                c.createStatement();
+                check(false, "use after close was allowed");
+            } catch (SQLException expected) {
+                // returned connections cannot be used
+            }
+            System.out.println("Reuse: OK  " + pool.stats());
+        }
+
+        // 2. Bound, timeout and hand-over
+        try (ConnectionPool pool = new ConnectionPool(stubs::open, 2, 200, 60_000)) {
+            Connection a = pool.getConnection();
+            Connection b = pool.getConnection();
+            long t0 = System.nanoTime();
+            try {
+                pool.getConnection();
+                check(false, "third borrow from a pool of 2 succeeded");
+            } catch (SQLTransientConnectionException expected) {
+                long waitedMs = (System.nanoTime() - t0) / 1_000_000;
+                check(waitedMs >= 190 && pool.timeoutCount() == 1, "timeout after " + waitedMs + " ms: " + pool.stats());
+            }
+            AtomicReference<Connection> handedOver = new AtomicReference<>();
+            Thread waiter = new Thread(() -> {
+                try {
+                    handedOver.set(pool.getConnection());
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            });
+            waiter.start();
+            Thread.sleep(50);
+            a.close();
+            waiter.join();
+            check(handedOver.get() != null && pool.active() == 2 && pool.createdCount() == 2, "waiter did not get the returned connection: " + pool.stats());
+            handedOver.get().close();
+            b.close();
+            System.out.println("Bound + timeout: OK  " + pool.stats());
+        }
+
+        // 3. Validation and 4. broken connections
+        stubs = new Stubs();
+        try (ConnectionPool pool = new ConnectionPool(stubs::open, 2, 100, 60_000, 10, 1)) {
+            AtomicInteger returned = new AtomicInteger();
+            AtomicInteger linkFailures = new AtomicInteger();
+            pool.setLeaseListener(new ConnectionPool.LeaseListener() {
+                @Override
+                public void returned() {
+                    returned.incrementAndGet();
+                }
+
+                @Override
+                public void broken(SQLException e) {
+                    linkFailures.incrementAndGet();
+                }
+            });
+            try (Connection c = pool.getConnection()) {
+                c.createStatement();
+            }
+            stubs.killAll();
+            Thread.sleep(20);
+            try (Connection c = pool.getConnection()) {
+                c.createStatement();
+            }
+            check(pool.createdCount() == 2 && pool.brokenCount() == 1, "dead idle connection was reused: " + pool.stats());
+
+            try (Connection c = pool.getConnection()) {
+                stubs.failNext.set(true);
+                c.createStatement();
+                check(false, "stub should have failed");
+            } catch (SQLException expected) {
+                check("08S01".equals(expected.getSQLState()), "unexpected " + expected);
+            }
+            check(pool.idle() == 0 && pool.brokenCount() == 2, "connection with a link failure went back to the pool: " + pool.stats());
+
+            Connection leaked = null;
+            try (Connection c = pool.getConnection(); PreparedStatement ps = c.prepareStatement("SELECT 1")) {
+                check(ps.getConnection() == c, "statement gave away the physical connection");
+                try (ResultSet rs = ps.executeQuery()) {
+                    check(rs.getStatement() == ps && rs.getStatement().getConnection() == c, "result set gave away the physical statement");
+                }
+                leaked = ps.getConnection();
+                stubs.failNext.set(true);
+                ps.executeQuery();
+                check(false, "stub statement should have failed");
+            } catch (SQLException expected) {
+                check("08S01".equals(expected.getSQLState()), "unexpected " + expected);
+            }
+            check(pool.idle() == 0 && pool.brokenCount() == 3, "statement link failure went back to the pool: " + pool.stats());
+            try {
+                check(leaked != null, "no connection from the statement");
+                leaked.createStatement();
+                check(false, "connection from a statement usable after close");
+            } catch (SQLException expected) {
+                // it is the returned lease, not the physical connection
+            }
+            check(returned.get() == 2 && linkFailures.get() == 2, "listener heard " + returned + " returns, " + linkFailures + " link failures");
+            System.out.println("Validation: OK  " + pool.stats());
+        }
+
+        // 5. Idle eviction
+        try (ConnectionPool pool = new ConnectionPool(stubs::open, 4, 100, 100)) {
+            List<Connection> held = new ArrayList<>();
+            for (int i = 0; i < 4; i++) held.add(pool.getConnection());
+            for (Connection c : held) c.close();
+            check(pool.idle() == 4, "expected 4 idle: " + pool.stats());
+            Thread.sleep(400);
+            check(pool.idle() == 0 && pool.evictedCount() == 4, "idle connections not evicted: " + pool.stats());
+            System.out.println("Idle eviction: OK  " + pool.stats());
+        }
+
+        // 6. Contention
+        try (ConnectionPool pool = new ConnectionPool(stubs::open, 4, 10_000, 60_000)) {
+            int threads = 32;
+            int borrowsEach = 2_000;
+            AtomicInteger inUse = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            CountDownLatch done = new CountDownLatch(threads);
+            for (int t = 0; t < threads; t++) {
+                new Thread(() -> {
+                    try {
+                        for (int i = 0; i < borrowsEach; i++) {
+                            try (Connection c = pool.getConnection()) {
+                                peak.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                                c.createStatement();
+                                inUse.decrementAndGet();
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    } finally {
+                        done.countDown();
+                    }
+                }).start();
+            }
+            done.await();
+            check(failure.get() == null, "worker failed: " + failure.get());
+            check(peak.get() <= 4 && pool.active() == 0 && pool.createdCount() <= 4 && pool.borrowCount() == (long) threads * borrowsEach,
+                    "peak " + peak.get() + " in use: " + pool.stats());
+            System.out.println("Contention: OK  " + pool.stats());
+        }
+
+        if (args.length > 0) {
+            String user = args.length > 2 ? args[1] : "";
+            String password = args.length > 2 ? args[2] : "";
+            try (ConnectionPool pool = new ConnectionPool(() -> DriverManager.getConnection(args[0], user, password), 4, 2_000, 60_000)) {
+                for (int i = 0; i < 50; i++) {
+                    try (Connection c = pool.getConnection(); Statement st = c.createStatement()) {
+                        st.execute("SELECT 1");
+                    }
+                }
+                check(pool.createdCount() == 1, "real connections were not reused: " + pool.stats());
+                System.out.println(args[0] + ": OK  " + pool.stats());
+            }
+        }
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    // Stand-in connections: createStatement() succeeds (returning null) unless killed or told to fail;
+    // prepareStatement() returns a statement whose executeQuery() fails the same way
+    private static final class Stubs {
+        final List<AtomicInteger> states = new ArrayList<>();   // 0 live, 1 dead, 2 closed
+        final AtomicBoolean failNext = new AtomicBoolean();
+
+        synchronized Connection open() {
+            AtomicInteger state = new AtomicInteger();
+            states.add(state);
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "isValid": return state.get() == 0;
+                    case "isClosed": return state.get() == 2;
+                    case "close": state.set(2); return null;
+                    case "getAutoCommit": return true;
+                    case "clearWarnings": return null;
+                    case "createStatement":
+                        if (failNext.getAndSet(false) || state.get() != 0) {
+                            throw new SQLException("Communications link failure", "08S01");
+                        }
+                        return null;
+                    case "prepareStatement": return statement((Connection) proxy, state);
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        private PreparedStatement statement(Connection connection, AtomicInteger state) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getConnection": return connection;
+                    case "close": return null;
+                    case "executeQuery":
+                        if (failNext.getAndSet(false) || state.get() != 0) {
+                            throw new SQLException("Communications link failure", "08S01");
+                        }
+                        return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (rs, m, a) -> {
+                            switch (m.getName()) {
+                                case "getStatement": return proxy;
+                                case "close": return null;
+                                default: throw new UnsupportedOperationException(m.getName());
+                            }
+                        });
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        synchronized void killAll() {
+            for (AtomicInteger state : states) state.compareAndSet(0, 1);
+        }
+    }
+}
@@ -26,25 +26,93 @@ public class DBConnection {
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
 
 public class DBConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/parkingdb";
+    private static final String URL = "jdbc:mysql://localhost:3306/parkingdb?useCursorFetch=true&connectTimeout=3000"; // cursor fetch so setFetchSize() streams large reads
     private static final String USER = "root"; // your MySQL username
     private static final String PASSWORD = "Khushi@123456"; // your MySQL password
 
+    // Pool sizing, overridable with -Dparking.db.poolSize=... etc.
+    private static final int POOL_SIZE = Integer.getInteger("parking.db.poolSize", 8);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("parking.db.borrowTimeoutMs", 2_000L);
+    private static final long IDLE_TIMEOUT_MS = Long.getLong("parking.db.idleTimeoutMs", 5 * 60_000L);
+
+    // After 3 failed connects in a row, fail fast for 5 s (doubling up to 60 s while probes keep failing);
+    // overridable with -Dparking.db.breaker.failures, .openMs and .maxOpenMs
+    private static final CircuitBreaker BREAKER = CircuitBreaker.fromSystem("parking.db.breaker", 3, 5_000L, 60_000L);
+
+    private static ConnectionPool pool;
+
+    /**
+     * Borrows a pooled connection; close() returns it to the pool.
+     * Returns null if the driver is missing or the database cannot be reached,
+     * and at once, without trying, while the circuit breaker is open.
+     *
+     * A borrow only closes a half-open breaker; otherwise the breaker hears
+     * from the lease itself, so a link that drops under a statement counts
+     * as a failure and a pooled connection handed out moments before does
+     * not reset the count. A borrow timeout (every pooled connection busy)
+     * says nothing about the database: it leaves a closed breaker alone, but
+     * fails a half-open probe, which did not get through.
+     */
     public static Connection getConnection() {
-        Connection conn = null;
+        if (!BREAKER.allowRequest()) {
+            return null;
+        }
+        boolean recorded = false;
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver"); // Load MySQL driver
-            conn = DriverManager.getConnection(URL, USER, PASSWORD);
+            Connection conn = pool().getConnection();
+            recorded = true;
+            if (BREAKER.state() == CircuitBreaker.State.HALF_OPEN) {
+                BREAKER.recordSuccess();   // this borrow was the probe
+            }
+            return conn;
         } catch (ClassNotFoundException e) {
+            recorded = true;
+            BREAKER.recordFailure();
             System.out.println("MySQL Driver not found!");
             e.printStackTrace();
+        } catch (SQLTransientConnectionException e) {
+            recorded = true;
+            if (BREAKER.state() == CircuitBreaker.State.HALF_OPEN) {
+                BREAKER.recordFailure();   // the probe timed out; neither a success nor, when closed, a failure
+            }
+            System.out.println("Connection failed: " + e.getMessage());
         } catch (SQLException e) {
-            System.out.println("Connection failed!");
-            e.printStackTrace();
+            recorded = true;
+            BREAKER.recordFailure();
+            System.out.println("Connection failed: " + e.getMessage());
+        } finally {
+            if (!recorded) {
+                BREAKER.recordFailure();   // e.g. a RuntimeException from the driver: never leave a probe out
+            }
         }
-        return conn;
+        return null;
     }
-}
 
+    /** State and counters of the breaker guarding getConnection(). */
+    public static CircuitBreaker breaker() {
+        return BREAKER;
+    }
+
+    /** The shared pool, created on first use; also exposes the pool metrics. */
+    public static synchronized ConnectionPool pool() throws ClassNotFoundException {
+        if (pool == null) {
+            Class.forName("com.mysql.cj.jdbc.Driver"); // Load MySQL driver once
+            pool = new ConnectionPool(() -> DriverManager.getConnection(URL, USER, PASSWORD), POOL_SIZE, BORROW_TIMEOUT_MS, IDLE_TIMEOUT_MS);
+            pool.setLeaseListener(new ConnectionPool.LeaseListener() {
+                @Override
+                public void returned() {
+                    BREAKER.recordSuccess();
+                }
+
+                @Override
+                public void broken(SQLException e) {
+                    BREAKER.recordFailure();   // the link dropped under a statement
+                }
+            });
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sliding-window arrival and departure counts per zone.
+ *
+ * ALGORITHM: Lock-free ring of time buckets
+ * Each zone owns a ring of buckets, each covering bucketMillis of wall time.
+ * A bucket is one long: the bucket's time index in the high 40 bits and its
+ * event count in the low 24 bits. Recording an event is one CAS on that
+ * long: if the stored time index is the current one the count goes up,
+ * otherwise the stale bucket is reset and restarted at 1 in the same CAS,
+ * so there is no separate clearing pass and no lock. A read sums only the
+ * buckets whose time index falls inside the window.
+ *
+ *   window = buckets * bucketMillis (default 12 x 5 min = last hour)
+ *
+ * Time Complexity: O(1) per event, O(buckets) per read
+ * Space Complexity: 2 * zones * buckets longs
+ */
+public class DemandTracker {
+    public static final int DEFAULT_BUCKETS = 12;
+    public static final long DEFAULT_BUCKET_MILLIS = 5 * 60_000L;
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final int zones;
+    private final int buckets;
+    private final long bucketMillis;
+    private final AtomicLongArray arrivals;
+    private final AtomicLongArray departures;
+
+    public DemandTracker(int zones) {
+        this(zones, DEFAULT_BUCKETS, DEFAULT_BUCKET_MILLIS);
+    }
+
+    public DemandTracker(int zones, int buckets, long bucketMillis) {
+        if (zones <= 0 || buckets <= 0 || bucketMillis <= 0) {
+            throw new IllegalArgumentException("Zones, buckets and bucket width must be positive");
+        }
+        this.zones = zones;
+        this.buckets = buckets;
+        this.bucketMillis = bucketMillis;
+        this.arrivals = new AtomicLongArray(zones * buckets);
+        this.departures = new AtomicLongArray(zones * buckets);
+    }
+
+    public void recordArrival(int zoneId, long nowMillis) {
+        record(arrivals, zoneId, nowMillis);
+    }
+
+    public void recordDeparture(int zoneId, long nowMillis) {
+        record(departures, zoneId, nowMillis);
+    }
+
+    /** Arrivals in the zone during the window ending at nowMillis. */
+    public long arrivals(int zoneId, long nowMillis) {
+        return sum(arrivals, zoneId, nowMillis);
+    }
+
+    /** Departures from the zone during the window ending at nowMillis. */
+    public long departures(int zoneId, long nowMillis) {
+        return sum(departures, zoneId, nowMillis);
+    }
+
+    public int zoneCount() { return zones; }
+
+    public long windowMillis() { return buckets * bucketMillis; }
+
+    private void record(AtomicLongArray ring, int zoneId, long nowMillis) {
+        long tick = nowMillis / bucketMillis;
+        int i = zoneId * buckets + (int) (tick % buckets);
+        while (true) {
+            long cur = ring.get(i);
+            long next = (cur >>> COUNT_BITS) == tick
+                    ? (cur & COUNT_MASK) == COUNT_MASK ? cur : cur + 1   // saturate rather than spill into the tick
+                    : (tick << COUNT_BITS) | 1;
+            if (next == cur || ring.compareAndSet(i, cur, next)) {
+                return;
+            }
+        }
+    }
+
+    private long sum(AtomicLongArray ring, int zoneId, long nowMillis) {
+        long tick = nowMillis / bucketMillis;
+        long oldest = tick - buckets + 1;
+        long total = 0;
+        int base = zoneId * buckets;
+        for (int b = 0; b < buckets; b++) {
+            long v = ring.get(base + b);
+            long t = v >>> COUNT_BITS;
+            if (t >= oldest && t <= tick) {
+                total += v & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+}
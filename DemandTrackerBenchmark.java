@@ -0,0 +1,79 @@
+/**
+ * Correctness check and per-event cost for DemandTracker and DynamicPricing.
+ *
+ * 1. Gate threads record arrivals into the same zones concurrently; the
+ *    window total must equal the number of events recorded.
+ * 2. Events older than the window must drop out of the totals.
+ * 3. Reports nanoseconds per recorded event for 1..N gates, and the surge
+ *    multiplier at a few occupancy levels.
+ *
+ * Run:  java DemandTrackerBenchmark [eventsPerGate]
+ */
+public class DemandTrackerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int maxGates = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        long now = System.currentTimeMillis();
+        DemandTracker tracker = new DemandTracker(4);
+        runGates(tracker, maxGates, events, now);
+        long total = 0;
+        for (int z = 0; z < 4; z++) total += tracker.arrivals(z, now);
+        if (total != (long) maxGates * events) {
+            throw new IllegalStateException("Lost arrivals: recorded " + (long) maxGates * events + ", window holds " + total);
+        }
+        System.out.println("Concurrent counts: OK, " + total + " arrivals from " + maxGates + " gates");
+
+        long later = now + tracker.windowMillis();
+        if (tracker.arrivals(0, later) != 0) {
+            throw new IllegalStateException("Arrivals older than the window were still counted");
+        }
+        tracker.recordArrival(0, later);
+        if (tracker.arrivals(0, later) != 1) {
+            throw new IllegalStateException("Stale bucket was not reset on reuse");
+        }
+        System.out.println("Window expiry: OK");
+
+        System.out.println();
+        System.out.println(String.format("%-6s %14s", "gates", "ns / event"));
+        for (int gates = 1; gates <= maxGates; gates *= 2) {
+            DemandTracker t = new DemandTracker(4);
+            long t0 = System.nanoTime();
+            runGates(t, gates, events, now);
+            double perEvent = (System.nanoTime() - t0) / (double) ((long) gates * events);
+            System.out.println(String.format("%-6d %14.1f", gates, perEvent));
+        }
+
+        System.out.println();
+        LotModel lot = new LotModel(LotLayout.parse("1 A 100\n"));
+        DemandTracker demand = new DemandTracker(1);
+        DynamicPricing pricing = new DynamicPricing(lot.getCounters(), demand);
+        pricing.setEnabled(true);
+        System.out.println(String.format("%-10s %-14s %s", "occupied", "net arrivals", "multiplier"));
+        int parked = 0;
+        for (int target : new int[]{0, 50, 70, 90, 100}) {
+            while (parked < target) {
+                lot.allocate(VehicleClass.CAR, "A");
+                demand.recordArrival(0, now);
+                parked++;
+            }
+            System.out.println(String.format("%-10s %-14d %.2fx", target + "%", demand.arrivals(0, now),
+                    pricing.multiplierBasisPoints(0, now) / (double) DynamicPricing.BASE_BP));
+        }
+    }
+
+    private static void runGates(DemandTracker tracker, int gates, int events, long now) throws InterruptedException {
+        Thread[] threads = new Thread[gates];
+        for (int g = 0; g < gates; g++) {
+            final int gate = g;
+            threads[g] = new Thread(() -> {
+                for (int n = 0; n < events; n++) {
+                    tracker.recordArrival((gate + n) & 3, now);
+                }
+            });
+            threads[g].start();
+        }
+        for (Thread t : threads) t.join();
+    }
+}
@@ -0,0 +1,367 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Differential check and timing for DurationEngine / TotalTime.CalculateTime.
+ *
+ * Differential: random entry / exit pairs (same day up to 20 days apart, so
+ * at most one month rollover) are run through the legacy string-parsing
+ * CalculateTime, the new adapter, and java.time as ground truth. The new
+ * code must always match java.time, and must match the legacy result
+ * wherever the legacy result was itself correct. Legacy mistakes are counted.
+ *
+ * Timing: legacy parsing vs the adapter vs the engine on epoch minutes.
+ *
+ * Run:  java DurationBenchmark [samples]
+ */
+public class DurationBenchmark {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("hh:mm a", Locale.ENGLISH);
+
+    public static void main(String[] args) {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Random rnd = new Random(42);
+
+        String[] enterDates = new String[samples], exitDates = new String[samples];
+        String[] enterTimes = new String[samples], exitTimes = new String[samples];
+        long[] enterMinutes = new long[samples], exitMinutes = new long[samples];
+
+        int legacyWrong = 0;
+        for (int i = 0; i < samples; i++) {
+            LocalDateTime enter = LocalDateTime.of(2020 + rnd.nextInt(8), 1 + rnd.nextInt(12), 1 + rnd.nextInt(28),
+                    rnd.nextInt(24), rnd.nextInt(60));
+            LocalDateTime exit = enter.plusMinutes(rnd.nextBoolean() ? rnd.nextInt(24 * 60) : rnd.nextInt(20 * 24 * 60));
+            if (exit.toLocalDate().equals(enter.toLocalDate()) && exit.getHour() >= 12 && enter.getHour() < 12 && rnd.nextInt(4) == 0) {
+                exit = exit.withHour(12);   // make sure the 12 PM exit edge is covered
+            }
+
+            enterDates[i] = enter.toLocalDate().toString();
+            exitDates[i] = exit.toLocalDate().toString();
+            enterTimes[i] = enter.format(TIME);
+            exitTimes[i] = exit.format(TIME);
+            enterMinutes[i] = TotalTime.toEpochMinute(enterDates[i], enterTimes[i]);
+            exitMinutes[i] = TotalTime.toEpochMinute(exitDates[i], exitTimes[i]);
+
+            long truth = Duration.between(enter, exit).toMinutes();
+            int[] now = TotalTime.CalculateTime(enterDates[i], exitDates[i], enterTimes[i], exitTimes[i]);
+            int[] old = LegacyTotalTime.CalculateTime(enterDates[i], exitDates[i], enterTimes[i], exitTimes[i]);
+
+            if (now.length != 2 || now[0] * 60L + now[1] != truth || now[1] >= 60) {
+                throw new IllegalStateException("Engine disagrees with java.time for " + describe(i, enterDates, exitDates, enterTimes, exitTimes)
+                        + ": got " + java.util.Arrays.toString(now) + ", expected " + truth + " min");
+            }
+            boolean oldCorrect = old.length == 2 && old[0] * 60L + old[1] == truth;
+            if (!oldCorrect) {
+                legacyWrong++;
+                if (legacyWrong <= 5) {
+                    System.out.println("legacy mismatch: " + describe(i, enterDates, exitDates, enterTimes, exitTimes)
+                            + " legacy=" + java.util.Arrays.toString(old) + " engine=" + java.util.Arrays.toString(now));
+                }
+            } else if (old[0] != now[0] || old[1] != now[1]) {
+                throw new IllegalStateException("Engine differs from a correct legacy result for " + describe(i, enterDates, exitDates, enterTimes, exitTimes));
+            }
+        }
+        System.out.println("Differential: " + samples + " samples, engine matches java.time on all; "
+                + (samples - legacyWrong) + " agree with legacy, " + legacyWrong + " legacy results were wrong");
+
+        // Timing (warm up each path first)
+        long sink = 0;
+        for (int round = 0; round < 3; round++) {
+            long t0 = System.nanoTime();
+            for (int i = 0; i < samples; i++) sink += LegacyTotalTime.CalculateTime(enterDates[i], exitDates[i], enterTimes[i], exitTimes[i]).length;
+            long legacy = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            for (int i = 0; i < samples; i++) sink += TotalTime.CalculateTime(enterDates[i], exitDates[i], enterTimes[i], exitTimes[i]).length;
+            long adapter = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            for (int i = 0; i < samples; i++) sink += DurationEngine.minutesBetween(enterMinutes[i], exitMinutes[i]);
+            long engine = System.nanoTime() - t0;
+
+            if (round == 2) {
+                System.out.println(String.format("ns/call  legacy=%.1f  adapter=%.1f  engine(epoch minutes)=%.1f",
+                        (double) legacy / samples, (double) adapter / samples, (double) engine / samples) + (sink == 42 ? " " : ""));
+            }
+        }
+    }
+
+    private static String describe(int i, String[] enterDates, String[] exitDates, String[] enterTimes, String[] exitTimes) {
+        return enterDates[i] + " " + enterTimes[i] + " -> " + exitDates[i] + " " + exitTimes[i];
+    }
+
+    // TotalTime.CalculateTime as it was before DurationEngine, kept verbatim as the reference
+    static class LegacyTotalTime {
+
+        public static int[] CalculateTime(String enterdate, String exitdate, String entertime, String exittime){
+
+            int firstDay = Integer.parseInt(enterdate.substring(8, 10));
+            int lastDay = Integer.parseInt(exitdate.substring(8, 10));
+            int firstMonth = Integer.parseInt(enterdate.substring(5,7), 10);
+            int lastMonth = Integer.parseInt(exitdate.substring(5,7));
+            int firstYear = Integer.parseInt(enterdate.substring(0,4));
+
+            //time calculation for different month days
+            if( firstMonth != lastMonth){
+                int daysInMonth ;
+                if (firstMonth == 1 || firstMonth == 3 || firstMonth == 5 || firstMonth == 7 || firstMonth == 8 || firstMonth == 10 || firstMonth == 12 ) {
+                    daysInMonth = 31;
+                }
+                else {
+                    if (firstMonth == 2) {
+                        daysInMonth = (firstYear % 4 == 0) ? 29 : 28;
+                    } else {
+                        daysInMonth = 30;
+                    }
+                }
+
+                int Days = daysInMonth - firstDay;
+                Days = Days + (lastDay - 1);
+                int HourInTotalDays = Days * 24;
+
+                // Total hour in 1st day
+                int HoursInFirstDay = 0;
+                int MinutesInFirstDay = 0;
+
+                if (entertime.substring(6, 8).equals("AM")) {
+                    if (Integer.parseInt(entertime.substring(0, 2)) == 12) {
+                        HoursInFirstDay = 11 + 12;
+                        MinutesInFirstDay = 60 - Integer.parseInt(entertime.substring(3, 5));
+                    } else {
+                        HoursInFirstDay = (12 - (Integer.parseInt(entertime.substring(0, 2)) + 1)) + 12;
+                        MinutesInFirstDay = 60 - Integer.parseInt(entertime.substring(3, 5));
+                    }
+                } else if (entertime.substring(6, 8).equals("PM")) {
+                    if (Integer.parseInt(entertime.substring(0, 2)) == 12) {
+                        HoursInFirstDay = 11;
+                        MinutesInFirstDay = 60 - Integer.parseInt(entertime.substring(3, 5));
+                    } else {
+                        HoursInFirstDay = 12 - (Integer.parseInt(entertime.substring(0, 2)) + 1);
+                        MinutesInFirstDay = 60 - Integer.parseInt(entertime.substring(3, 5));
+                    }
+                }
+
+
+                // Total hour and minute in last day
+                int HoursInLastDay = 0;
+                int MinutesInLastDay = 0;
+
+                if (exittime.substring(6, 8).equals("AM")) {
+                    if (Integer.parseInt(exittime.substring(0, 2)) == 12) {
+                        HoursInLastDay = 0;
+                        MinutesInLastDay = Integer.parseInt(exittime.substring(3, 5));
+                    } else {
+                        HoursInLastDay = Integer.parseInt(exittime.substring(0, 2));
+                        MinutesInLastDay = Integer.parseInt(exittime.substring(3, 5));
+                    }
+                } else if (exittime.substring(6, 8).equals("PM")) {
+                    if (Integer.parseInt(exittime.substring(0, 2)) == 12) {
+                        HoursInLastDay = 12;
+                        MinutesInLastDay = Integer.parseInt(exittime.substring(3, 5));
+                    } else {
+                        HoursInLastDay = 12 + Integer.parseInt(exittime.substring(0, 2));
+                        MinutesInLastDay = Integer.parseInt(exittime.substring(3, 5));
+                    }
+                }
+
+                // Total hours  and minutes
+
+                int hour = HourInTotalDays + HoursInFirstDay + HoursInLastDay;
+                int minute = MinutesInFirstDay + MinutesInLastDay;
+
+                if (minute >= 60) {
+                    minute = minute - 60;
+                    hour = hour + 1;
+                }
+
+                return new int[]{hour, minute};
+
+            }
+            // time calculation for same month days
+            else {
+                if ((lastDay - firstDay) >= 2) {
+                    // Total hour in days
+                    int Days = (lastDay - (firstDay - 1)) - 2;
+                    int HourInTotalDays = Days * 24;
+
+                    // Total hour in 1st day
+                    int HoursInFirstDay = 0;
+                    int MinutesInFirstDay = 0;
+
+                    if (entertime.substring(6, 8).equals("AM")) {
+                        if (Integer.parseInt(entertime.substring(0, 2)) == 12) {
+                            HoursInFirstDay = 11 + 12;
+                            MinutesInFirstDay = 60 - Integer.parseInt(entertime.substring(3, 5));
+                        } else {
+                            HoursInFirstDay = (12 - (Integer.parseInt(entertime.substring(0, 2)) + 1)) + 12;
+                            MinutesInFirstDay = 60 - Integer.parseInt(entertime.substring(3, 5));
+                        }
+                    } else if (entertime.substring(6, 8).equals("PM")) {
+                        if (Integer.parseInt(entertime.substring(0, 2)) == 12) {
+                            HoursInFirstDay = 11;
+                            MinutesInFirstDay = 60 - Integer.parseInt(entertime.substring(3, 5));
+                        } else {
+                            HoursInFirstDay = 12 - (Integer.parseInt(entertime.substring(0, 2)) + 1);
+                            MinutesInFirstDay = 60 - Integer.parseInt(entertime.substring(3, 5));
+                        }
+                    }
+
+
+                    // Total hour and minute in last day
+                    int HoursInLastDay = 0;
+                    int MinutesInLastDay = 0;
+
+                    if (exittime.substring(6, 8).equals("AM")) {
+                        if (Integer.parseInt(exittime.substring(0, 2)) == 12) {
+                            HoursInLastDay = 0;
+                            MinutesInLastDay = Integer.parseInt(exittime.substring(3, 5));
+                        } else {
+                            HoursInLastDay = Integer.parseInt(exittime.substring(0, 2));
+                            MinutesInLastDay = Integer.parseInt(exittime.substring(3, 5));
+                        }
+                    } else if (exittime.substring(6, 8).equals("PM")) {
+                        if (Integer.parseInt(exittime.substring(0, 2)) == 12) {
+                            HoursInLastDay = 12;
+                            MinutesInLastDay = Integer.parseInt(exittime.substring(3, 5));
+                        } else {
+                            HoursInLastDay = 12 + Integer.parseInt(exittime.substring(0, 2));
+                            MinutesInLastDay = Integer.parseInt(exittime.substring(3, 5));
+                        }
+                    }
+
+                    // Total hours  and minutes
+
+                    int hour = HourInTotalDays + HoursInFirstDay + HoursInLastDay;
+                    int minute = MinutesInFirstDay + MinutesInLastDay;
+
+                    if (minute >= 60) {
+                        minute = minute - 60;
+                        hour = hour + 1;
+                    }
+
+                    return new int[]{hour, minute};
+                }
+
+                // for one day difference only
+
+                else if ((lastDay - firstDay) == 1) {
+                    int HoursInFirstDay = 0;
+                    int MinutesInFirstDay = 0;
+
+                    if (entertime.substring(6, 8).equals("AM")) {
+                        if (Integer.parseInt(entertime.substring(0, 2)) == 12) {
+                            HoursInFirstDay = 11 + 12;
+                            MinutesInFirstDay = 60 - Integer.parseInt(entertime.substring(3, 5));
+                        } else {
+                            HoursInFirstDay = (12 - (Integer.parseInt(entertime.substring(0, 2)) + 1)) + 12;
+                            MinutesInFirstDay = 60 - Integer.parseInt(entertime.substring(3, 5));
+                        }
+                    } else if (entertime.substring(6, 8).equals("PM")) {
+                        if (Integer.parseInt(entertime.substring(0, 2)) == 12) {
+                            HoursInFirstDay = 11;
+                            MinutesInFirstDay = 60 - Integer.parseInt(entertime.substring(3, 5));
+                        } else {
+                            HoursInFirstDay = 12 - (Integer.parseInt(entertime.substring(0, 2)) + 1);
+                            MinutesInFirstDay = 60 - Integer.parseInt(entertime.substring(3, 5));
+                        }
+
+                    }
+
+                    // nour and minute in first and last days
+                    int HoursInLastDay = 0;
+                    int MinutesInLastDay = 0;
+
+                    if (exittime.substring(6, 8).equals("AM")) {
+                        if (Integer.parseInt(exittime.substring(0, 2)) == 12) {
+                            HoursInLastDay = 0;
+                            MinutesInLastDay = Integer.parseInt(exittime.substring(3, 5));
+                        } else {
+                            HoursInLastDay = Integer.parseInt(exittime.substring(0, 2));
+                            MinutesInLastDay = Integer.parseInt(exittime.substring(3, 5));
+                        }
+
+                    } else if (exittime.substring(6, 8).equals("PM")) {
+                        if (Integer.parseInt(exittime.substring(0, 2)) == 12) {
+                            HoursInLastDay = 12;
+                            MinutesInLastDay = Integer.parseInt(exittime.substring(3, 5));
+                        } else {
+                            HoursInLastDay = 12 + Integer.parseInt(exittime.substring(0, 2));
+                            MinutesInLastDay = Integer.parseInt(exittime.substring(3, 5));
+                        }
+
+                    }
+                    int hour = HoursInFirstDay + HoursInLastDay;
+                    int minute = MinutesInFirstDay + MinutesInLastDay;
+                    if (minute >= 60) {
+                        minute = minute - 60;
+                        hour = hour + 1;
+                    }
+                    return new int[]{hour, minute};
+
+                }
+
+                // for one single day
+
+                else if ((lastDay - firstDay) == 0) {
+                    int ParkedHour = 0;
+                    int ParkedMinute = 0;
+                    int ExitHour = 0;
+                    int ExitMinute = 0;
+                    int hour = 0;
+                    int minute = 0;
+
+                    if (entertime.substring(6, 8).equals("AM") && exittime.substring(6, 8).equals("AM")) {
+                        if (Integer.parseInt(entertime.substring(0, 2)) == 12) {
+                            hour = Integer.parseInt(exittime.substring(0, 2));
+                            minute = (60 - Integer.parseInt(entertime.substring(3, 5))) + Integer.parseInt(exittime.substring(3, 5));
+                        } else {
+                            hour = Integer.parseInt(exittime.substring(0, 2)) - (Integer.parseInt(entertime.substring(0, 2)) + 1);
+                            minute = (60 - Integer.parseInt(entertime.substring(3, 5))) + Integer.parseInt(exittime.substring(3, 5));
+                        }
+                    } else if (entertime.substring(6, 8).equals("PM") && exittime.substring(6, 8).equals("PM")) {
+
+                        if (Integer.parseInt(entertime.substring(0, 2)) == 12) {
+                            hour = Integer.parseInt(exittime.substring(0, 2));
+                            minute = (60 - Integer.parseInt(entertime.substring(3, 5))) + Integer.parseInt(exittime.substring(3, 5));
+                        } else {
+                            hour = Integer.parseInt(exittime.substring(0, 2)) - (Integer.parseInt(entertime.substring(0, 2)) + 1);
+                            minute = (60 - Integer.parseInt(entertime.substring(3, 5))) + Integer.parseInt(exittime.substring(3, 5));
+                        }
+
+                    } else if (entertime.substring(6, 8).equals("AM") && exittime.substring(6, 8).equals("PM")) {
+
+                        if (Integer.parseInt(entertime.substring(0, 2)) == 12) {
+                            ParkedHour = 12;
+                            ParkedMinute = 60 - Integer.parseInt(entertime.substring(3, 5));
+                        } else {
+                            ParkedHour = 12 - (Integer.parseInt(entertime.substring(0, 2)) + 1);
+                            ParkedMinute = 60 - Integer.parseInt(entertime.substring(3, 5));
+                        }
+
+                        if (Integer.parseInt(exittime.substring(0, 2)) == 12) {
+                            ExitHour = 0;
+                            ExitMinute = Integer.parseInt(exittime.substring(3, 5));
+                        } else {
+                            ExitHour = Integer.parseInt(exittime.substring(0, 2));
+                            ExitMinute = Integer.parseInt(exittime.substring(3, 5));
+                        }
+                        hour = ParkedHour + ExitHour;
+                        minute = ParkedMinute + ExitMinute;
+
+                    }
+
+                    if (minute >= 60) {
+                        minute = minute - 60;
+                        hour = hour + 1;
+                    }
+
+                    return new int[]{hour, minute};
+                }
+            }
+            return new int[] {};
+        }
+
+    }
+}
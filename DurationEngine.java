@@ -0,0 +1,54 @@
+/**
+ * Parking duration arithmetic on epoch minutes (minutes since 1970-01-01 00:00).
+ *
+ * ALGORITHM: Civil date -> day number (Howard Hinnant's days_from_civil)
+ * A date is turned into a day count with a handful of integer operations,
+ * valid for every Gregorian date, so month lengths, leap years and
+ * month / year rollovers need no special cases. A duration is then just the
+ * difference of two longs.
+ *
+ * Everything here works on primitives: no String parsing and no allocation.
+ *
+ * Time Complexity: O(1)
+ * Space Complexity: O(1)
+ */
+public final class DurationEngine {
+    public static final int MINUTES_PER_HOUR = 60;
+    public static final int MINUTES_PER_DAY = 24 * MINUTES_PER_HOUR;
+
+    private DurationEngine() { }
+
+    /** Days since 1970-01-01 for a Gregorian date (month 1-12). */
+    public static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;                                          // [0, 399]
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;  // [0, 365]
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    /** Minutes since 1970-01-01 00:00 for a date and a 24-hour clock time. */
+    public static long epochMinute(int year, int month, int day, int hour24, int minute) {
+        return epochDay(year, month, day) * MINUTES_PER_DAY + hour24 * MINUTES_PER_HOUR + minute;
+    }
+
+    /** Converts a 12-hour clock hour (1-12) to 0-23: 12 AM is 0, 12 PM is 12. */
+    public static int hour24(int hour12, boolean pm) {
+        return (hour12 % 12) + (pm ? 12 : 0);
+    }
+
+    public static long minutesBetween(long startMinute, long endMinute) {
+        return endMinute - startMinute;
+    }
+
+    /** Whole hours of a duration in minutes. */
+    public static int hours(long durationMinutes) {
+        return (int) (durationMinutes / MINUTES_PER_HOUR);
+    }
+
+    /** Leftover minutes (0-59) of a duration in minutes. */
+    public static int minutes(long durationMinutes) {
+        return (int) (durationMinutes % MINUTES_PER_HOUR);
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Dynamic pricing mode: a surge multiplier on top of the tariff fee that
+ * rises as a zone fills up and as cars arrive faster than they leave.
+ *
+ * ALGORITHM: Occupancy + demand surge
+ *   occupancy surge = 0 below 60% full, then linear up to +50% at 100%
+ *   demand surge    = +50% * min(1, net arrivals in the last hour / free spots)
+ *   multiplier      = 1 + occupancy surge + demand surge, at most 2x when
+ *                     the zone is full and filling faster than it empties,
+ *                     rounded down to 5% steps so quotes do not jitter
+ *
+ * The quote is taken before the arrival it prices is recorded, so a
+ * driver never pays for their own car.
+ *
+ * Occupancy comes from the live OccupancyCounters and demand from the
+ * DemandTracker window, so a quote reads a few counters and touches no spot.
+ * Multipliers are integer basis points (10000 = 1x) and fees stay in paise.
+ *
+ * Time Complexity: O(buckets) per quote
+ * Space Complexity: O(1)
+ */
+public class DynamicPricing {
+    public static final int BASE_BP = 10_000;
+    private static final int OCCUPANCY_THRESHOLD_BP = 6_000;
+    private static final int MAX_OCCUPANCY_SURGE_BP = 5_000;
+    private static final int MAX_DEMAND_SURGE_BP = 5_000;
+    private static final int MAX_MULTIPLIER_BP = 20_000;
+    private static final int STEP_BP = 500;
+
+    private final OccupancyCounters counters;
+    private final DemandTracker demand;
+    private volatile boolean enabled;
+
+    public DynamicPricing(OccupancyCounters counters, DemandTracker demand) {
+        this.counters = counters;
+        this.demand = demand;
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    /** Current multiplier for the zone in basis points; BASE_BP when the mode is off. */
+    public int multiplierBasisPoints(int zoneId, long nowMillis) {
+        if (!enabled) {
+            return BASE_BP;
+        }
+        long capacity = counters.zoneCapacity(zoneId);
+        long occupied = Math.min(counters.zoneOccupied(zoneId), capacity);
+        long free = capacity - occupied;
+
+        long occupancyBp = capacity == 0 ? 0 : occupied * BASE_BP / capacity;
+        long occupancySurge = occupancyBp <= OCCUPANCY_THRESHOLD_BP ? 0
+                : (occupancyBp - OCCUPANCY_THRESHOLD_BP) * MAX_OCCUPANCY_SURGE_BP / (BASE_BP - OCCUPANCY_THRESHOLD_BP);
+
+        long netArrivals = Math.max(0, demand.arrivals(zoneId, nowMillis) - demand.departures(zoneId, nowMillis));
+        long demandSurge = netArrivals >= Math.max(free, 1) ? MAX_DEMAND_SURGE_BP
+                : netArrivals * MAX_DEMAND_SURGE_BP / Math.max(free, 1);
+
+        long multiplier = Math.min(BASE_BP + occupancySurge + demandSurge, MAX_MULTIPLIER_BP);
+        return (int) (multiplier / STEP_BP * STEP_BP);
+    }
+
+    /** Applies the zone's surge to a tariff fee in paise. */
+    public long apply(long baseFee, int zoneId, long nowMillis) {
+        int bp = multiplierBasisPoints(zoneId, nowMillis);
+        return bp == BASE_BP ? baseFee : (baseFee * bp + BASE_BP / 2) / BASE_BP;
+    }
+}
@@ -0,0 +1,82 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the old linear spot scan used by ParkingLot with FreeSpotIndex.
+ *
+ * The lot is filled to 99% with the free spots at the far end, which is the
+ * worst case for the scan (every entry walks past all occupied spots).
+ *
+ * Run:  java FreeSpotBenchmark
+ */
+public class FreeSpotBenchmark {
+    private static final int[] LOT_SIZES = {1_000, 100_000, 1_000_000};
+    private static final int ROUNDS = 200;
+
+    public static void main(String[] args) {
+        System.out.println(String.format("%-10s %18s %18s %18s %18s",
+                "spots", "scan find (ns)", "index find (ns)", "scan count (ns)", "index count (ns)"));
+
+        for (int size : LOT_SIZES) {
+            List<ParkingSpot> spots = new ArrayList<>(size);
+            FreeSpotIndex index = new FreeSpotIndex(size);
+            Car car = new Car("MH-02 AB 10", "Red", "Sedan");
+            int occupied = size - Math.max(1, size / 100);
+            for (int i = 0; i < size; i++) {
+                ParkingSpot spot = new ParkingSpot(i + 1);
+                if (i < occupied) {
+                    spot.parkCar(car);
+                    index.markOccupied(i);
+                }
+                spots.add(spot);
+            }
+
+            // Warm up both paths before measuring
+            long sink = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                sink += scanFirstFree(spots) + index.firstFree();
+                sink += scanCount(spots) + index.occupiedCount();
+            }
+
+            long t0 = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) sink += scanFirstFree(spots);
+            long scanFind = (System.nanoTime() - t0) / ROUNDS;
+
+            t0 = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) sink += index.firstFree();
+            long indexFind = (System.nanoTime() - t0) / ROUNDS;
+
+            t0 = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) sink += scanCount(spots);
+            long scanCount = (System.nanoTime() - t0) / ROUNDS;
+
+            t0 = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) sink += index.occupiedCount();
+            long indexCount = (System.nanoTime() - t0) / ROUNDS;
+
+            if (scanFirstFree(spots) != index.firstFree() || scanCount(spots) != index.occupiedCount()) {
+                throw new IllegalStateException("Index disagrees with scan for " + size + " spots");
+            }
+
+            System.out.println(String.format("%-10d %18d %18d %18d %18d",
+                    size, scanFind, indexFind, scanCount, indexCount) + (sink == 42 ? " " : ""));
+        }
+    }
+
+    // Same loop ParkingLot.parkCar used before the index
+    private static int scanFirstFree(List<ParkingSpot> spots) {
+        for (int i = 0; i < spots.size(); i++) {
+            if (!spots.get(i).isOccupied()) return i;
+        }
+        return -1;
+    }
+
+    // Same loop ParkingLot.getTotalParkedCars used before the index
+    private static int scanCount(List<ParkingSpot> spots) {
+        int count = 0;
+        for (ParkingSpot spot : spots) {
+            if (spot.isOccupied()) count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Free-spot index for ParkingLot.
+ *
+ * ALGORITHM: Two-level packed bitmap
+ * Level 0 keeps one bit per spot (1 = free) packed into 64-bit words.
+ * Level 1 keeps one bit per level-0 word (1 = word has at least one free spot).
+ *
+ * Time Complexity: O(1) for markFree / markOccupied / freeCount,
+ *                  O(n / 4096) word reads for firstFree (245 summary words for 1M spots)
+ * Space Complexity: ~1 bit per spot
+ */
+public class FreeSpotIndex {
+    private final int capacity;
+    private final long[] words;
+    private final long[] summary;
+    private int freeCount;
+
+    // Every spot starts out free
+    public FreeSpotIndex(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must be >= 0: " + capacity);
+        }
+        this.capacity = capacity;
+        this.words = new long[(capacity + 63) >>> 6];
+        this.summary = new long[(words.length + 63) >>> 6];
+
+        for (int w = 0; w < words.length; w++) {
+            int bitsInWord = Math.min(64, capacity - (w << 6));
+            words[w] = bitsInWord == 64 ? -1L : (1L << bitsInWord) - 1;
+            summary[w >>> 6] |= 1L << w;
+        }
+        this.freeCount = capacity;
+    }
+
+    public int capacity() { return capacity; }
+    public int freeCount() { return freeCount; }
+    public int occupiedCount() { return capacity - freeCount; }
+
+    public boolean isFree(int index) {
+        checkIndex(index);
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /** Returns the lowest free index, or -1 if the lot is full. */
+    public int firstFree() {
+        for (int s = 0; s < summary.length; s++) {
+            long bits = summary[s];
+            if (bits != 0) {
+                int w = (s << 6) + Long.numberOfTrailingZeros(bits);
+                return (w << 6) + Long.numberOfTrailingZeros(words[w]);
+            }
+        }
+        return -1;
+    }
+
+    public void markOccupied(int index) {
+        checkIndex(index);
+        int w = index >>> 6;
+        long mask = 1L << index;
+        if ((words[w] & mask) == 0) {
+            throw new IllegalStateException("Spot index " + index + " is already occupied");
+        }
+        words[w] &= ~mask;
+        freeCount--;
+        if (words[w] == 0) {
+            summary[w >>> 6] &= ~(1L << w);
+        }
+    }
+
+    public void markFree(int index) {
+        checkIndex(index);
+        int w = index >>> 6;
+        long mask = 1L << index;
+        if ((words[w] & mask) != 0) {
+            throw new IllegalStateException("Spot index " + index + " is already free");
+        }
+        words[w] |= mask;
+        freeCount++;
+        summary[w >>> 6] |= 1L << w;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= capacity) {
+            throw new IndexOutOfBoundsException("Spot index " + index + " out of range [0, " + capacity + ")");
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Layout definition for a parking lot: which zones exist on which floor and
+ * how many spots of each size class each zone has.
+ *
+ * Text format, one line per zone and spot class ('#' starts a comment).
+ * The class column is optional and defaults to CAR:
+ *
+ *   # floor  zone  spots  class
+ *   1        A     16     CAR
+ *   1        A     4      LARGE
+ *   1        B     20     BIKE
+ *   2        C     40
+ *
+ * Zones are listed in walking order; allocation spills from a full zone to
+ * the zones next to it in this order. Slot numbers run on within a zone
+ * across its lines (A1..A16 are car spots, A17..A20 large spots above).
+ */
+public class LotLayout {
+    public static final String DEFAULT_FILE = "parking_layout.txt";
+    public static final String DEFAULT_LAYOUT = "1 A 20\n";
+
+    private final List<ZoneDef> zones;
+
+    private LotLayout(List<ZoneDef> zones) {
+        this.zones = Collections.unmodifiableList(zones);
+    }
+
+    public List<ZoneDef> getZones() { return zones; }
+
+    public static LotLayout parse(String text) {
+        List<ZoneDef> zones = new ArrayList<>();
+        Map<String, Integer> floorByZone = new HashMap<>();
+        Set<String> zoneClasses = new HashSet<>();
+        String[] lines = text.split("\\R");
+        for (int lineNo = 1; lineNo <= lines.length; lineNo++) {
+            String line = lines[lineNo - 1];
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            line = line.trim();
+            if (line.isEmpty()) continue;
+
+            String[] parts = line.split("\\s+");
+            if (parts.length < 3) {
+                throw new IllegalArgumentException("Layout line " + lineNo + ": expected 'floor zone spots [class]' but got '" + line + "'");
+            }
+            int floor;
+            int spots;
+            try {
+                floor = Integer.parseInt(parts[0]);
+                spots = Integer.parseInt(parts[2]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Layout line " + lineNo + ": floor and spots must be numbers in '" + line + "'");
+            }
+            String zone = parts[1];
+            if (spots <= 0) {
+                throw new IllegalArgumentException("Layout line " + lineNo + ": zone " + zone + " needs at least one spot");
+            }
+            VehicleClass spotClass = VehicleClass.CAR;
+            if (parts.length > 3) {
+                try {
+                    spotClass = VehicleClass.valueOf(parts[3].toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Layout line " + lineNo + ": unknown spot class '" + parts[3] + "'");
+                }
+            }
+            Integer zoneFloor = floorByZone.putIfAbsent(zone, floor);
+            if (zoneFloor != null && zoneFloor != floor) {
+                throw new IllegalArgumentException("Layout line " + lineNo + ": zone " + zone + " is already on floor " + zoneFloor);
+            }
+            if (!zoneClasses.add(zone + "/" + spotClass)) {
+                throw new IllegalArgumentException("Layout line " + lineNo + ": zone " + zone + " defines " + spotClass + " spots twice");
+            }
+            zones.add(new ZoneDef(floor, zone, spots, spotClass));
+        }
+        if (zones.isEmpty()) {
+            throw new IllegalArgumentException("Layout defines no zones");
+        }
+        return new LotLayout(zones);
+    }
+
+    /** Reads the layout file, or falls back to the built-in single-zone layout if it is missing. */
+    public static LotLayout load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return parse(DEFAULT_LAYOUT);
+        }
+        return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    public static class ZoneDef {
+        private final int floor;
+        private final String name;
+        private final int spots;
+        private final VehicleClass spotClass;
+
+        public ZoneDef(int floor, String name, int spots, VehicleClass spotClass) {
+            this.floor = floor;
+            this.name = name;
+            this.spots = spots;
+            this.spotClass = spotClass;
+        }
+
+        public int getFloor() { return floor; }
+        public String getName() { return name; }
+        public int getSpots() { return spots; }
+        public VehicleClass getSpotClass() { return spotClass; }
+    }
+}
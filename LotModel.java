@@ -0,0 +1,254 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-level parking lot: lot -> floor -> zone -> spot.
+ *
+ * ALGORITHM: Zone-striped, class-aware allocation
+ * Every zone owns one SlotAllocator free list per spot class (bike, car,
+ * large), so gates working in different zones never touch the same bitmap
+ * words and a vehicle never scans spots it cannot use. Allocation walks the
+ * vehicle's fallback classes best fit first; for each class it tries the
+ * preferred zone and then spills to neighbouring zones (same floor first,
+ * then the nearest floors).
+ *
+ * Occupancy is tracked incrementally in OccupancyCounters on every claim
+ * and release, so counts never require a pass over the spots.
+ *
+ * Time Complexity: O(1) claim / release by slot id, O(classes x zones) worst-case spill
+ * Space Complexity: O(n) where n is number of parking slots
+ */
+public class LotModel {
+    private final List<Floor> floors = new ArrayList<>();
+    private final List<Zone> zones = new ArrayList<>();
+    private final Map<String, Zone> zonesByName = new HashMap<>();
+    private final Map<String, Zone> zonesBySlot = new HashMap<>();
+    private final Map<String, VehicleClass> classBySlot = new HashMap<>();
+    private final OccupancyCounters counters;
+
+    public LotModel(LotLayout layout) {
+        Map<Integer, Floor> floorsByNumber = new LinkedHashMap<>();
+        Map<String, List<LotLayout.ZoneDef>> defsByZone = new LinkedHashMap<>();
+        for (LotLayout.ZoneDef def : layout.getZones()) {
+            defsByZone.computeIfAbsent(def.getName(), k -> new ArrayList<>()).add(def);
+        }
+
+        for (List<LotLayout.ZoneDef> defs : defsByZone.values()) {
+            LotLayout.ZoneDef first = defs.get(0);
+            Floor floor = floorsByNumber.computeIfAbsent(first.getFloor(), Floor::new);
+            Zone zone = new Zone(zones.size(), first.getName(), floor.getNumber());
+
+            int number = 1;
+            for (LotLayout.ZoneDef def : defs) {
+                List<String> slotIds = new ArrayList<>(def.getSpots());
+                for (int i = 0; i < def.getSpots(); i++) {
+                    String slotId = def.getName() + number++;
+                    slotIds.add(slotId);
+                    if (zonesBySlot.put(slotId, zone) != null) {
+                        throw new IllegalArgumentException("Slot id " + slotId + " appears in more than one zone");
+                    }
+                    classBySlot.put(slotId, def.getSpotClass());
+                }
+                zone.addPool(def.getSpotClass(), slotIds);
+            }
+
+            floor.zones.add(zone);
+            zones.add(zone);
+            zonesByName.put(zone.getName(), zone);
+        }
+        floors.addAll(floorsByNumber.values());
+
+        for (Zone zone : zones) {
+            zone.spillOrder = spillOrder(zone);
+        }
+        counters = new OccupancyCounters(this);
+    }
+
+    // Same floor first (by walking distance), then the nearest floors
+    private Zone[] spillOrder(Zone from) {
+        List<Zone> order = new ArrayList<>(zones);
+        order.sort(Comparator
+                .comparingInt((Zone z) -> Math.abs(z.getFloor() - from.getFloor()))
+                .thenComparingInt(z -> Math.abs(z.getId() - from.getId()))
+                .thenComparingInt(Zone::getId));
+        return order.toArray(new Zone[0]);
+    }
+
+    public List<Floor> getFloors() { return Collections.unmodifiableList(floors); }
+    public List<Zone> getZones() { return Collections.unmodifiableList(zones); }
+    public Zone getZone(String name) { return zonesByName.get(name); }
+    public Zone zoneOf(String slotId) { return slotId == null ? null : zonesBySlot.get(slotId); }
+    public VehicleClass spotClassOf(String slotId) { return slotId == null ? null : classBySlot.get(slotId); }
+
+    public int size() { return zonesBySlot.size(); }
+    public OccupancyCounters getCounters() { return counters; }
+
+    public int freeCount() {
+        return (int) counters.available();
+    }
+
+    /** All slot ids in lot order (floor, zone, then slot number). */
+    public List<String> allSlots() {
+        List<String> result = new ArrayList<>(size());
+        for (Zone zone : zones) result.addAll(zone.getSlotIds());
+        return result;
+    }
+
+    /** Available slot ids in lot order; only free slots are visited. */
+    public List<String> availableSlots() {
+        List<String> result = new ArrayList<>(freeCount());
+        for (Zone zone : zones) {
+            for (SlotAllocator pool : zone.pools) {
+                if (pool != null) result.addAll(pool.availableSlots());
+            }
+        }
+        return result;
+    }
+
+    /** Available slots this vehicle may use, zone by zone, best-fitting class first within each zone. */
+    public List<String> availableSlots(VehicleClass vehicle) {
+        List<String> result = new ArrayList<>();
+        for (Zone zone : zones) {
+            for (VehicleClass spotClass : vehicle.fallbackOrder()) {
+                SlotAllocator pool = zone.pools[spotClass.ordinal()];
+                if (pool != null && pool.freeCount() > 0) result.addAll(pool.availableSlots());
+            }
+        }
+        return result;
+    }
+
+    /** Every slot this vehicle may use, free or not, in allocation order (best-fitting class, then nearest zone). */
+    public List<String> fittingSlots(VehicleClass vehicle, String preferredZone) {
+        List<String> result = new ArrayList<>();
+        Zone[] order = searchOrder(preferredZone);
+        for (VehicleClass spotClass : vehicle.fallbackOrder()) {
+            for (Zone zone : order) {
+                SlotAllocator pool = zone.pools[spotClass.ordinal()];
+                if (pool == null) continue;
+                for (int i = 0; i < pool.size(); i++) result.add(pool.slotId(i));
+            }
+        }
+        return result;
+    }
+
+    /** Nearest fitting free slot to the preferred zone without claiming it, or null if none fits. */
+    public String peekFirstFree(VehicleClass vehicle, String preferredZone) {
+        Zone[] order = searchOrder(preferredZone);
+        for (VehicleClass spotClass : vehicle.fallbackOrder()) {
+            for (Zone zone : order) {
+                SlotAllocator pool = zone.pools[spotClass.ordinal()];
+                if (pool == null || pool.freeCount() == 0) continue;
+                String slot = pool.peekFirstFree();
+                if (slot != null) return slot;
+            }
+        }
+        return null;
+    }
+
+    /** Claims the nearest fitting free slot to the preferred zone, or returns null if none fits. */
+    public String allocate(VehicleClass vehicle, String preferredZone) {
+        Zone[] order = searchOrder(preferredZone);
+        for (VehicleClass spotClass : vehicle.fallbackOrder()) {
+            for (Zone zone : order) {
+                SlotAllocator pool = zone.pools[spotClass.ordinal()];
+                if (pool == null || pool.freeCount() == 0) continue;
+                String slot = pool.allocate();
+                if (slot != null) {
+                    counters.onOccupied(zone.getId(), spotClass);
+                    return slot;
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Claims a specific slot. Returns false if it is unknown or already taken. */
+    public boolean claim(String slotId) {
+        SlotAllocator pool = poolOf(slotId);
+        if (pool == null || !pool.claim(slotId)) {
+            return false;
+        }
+        counters.onOccupied(zonesBySlot.get(slotId).getId(), classBySlot.get(slotId));
+        return true;
+    }
+
+    /** Claims a specific slot for a vehicle. Returns false if it is unknown, taken or too small. */
+    public boolean claim(String slotId, VehicleClass vehicle) {
+        VehicleClass spotClass = spotClassOf(slotId);
+        return spotClass != null && vehicle.fitsIn(spotClass) && claim(slotId);
+    }
+
+    /** Returns a slot to its zone's free list. Returns false if it is unknown or already free. */
+    public boolean release(String slotId) {
+        SlotAllocator pool = poolOf(slotId);
+        if (pool == null || !pool.release(slotId)) {
+            return false;
+        }
+        counters.onReleased(zonesBySlot.get(slotId).getId(), classBySlot.get(slotId));
+        return true;
+    }
+
+    public boolean isFree(String slotId) {
+        SlotAllocator pool = poolOf(slotId);
+        return pool != null && pool.isFree(slotId);
+    }
+
+    private SlotAllocator poolOf(String slotId) {
+        Zone zone = zoneOf(slotId);
+        return zone == null ? null : zone.pools[classBySlot.get(slotId).ordinal()];
+    }
+
+    private Zone[] searchOrder(String preferredZone) {
+        Zone preferred = preferredZone == null ? null : zonesByName.get(preferredZone);
+        return preferred != null ? preferred.spillOrder : zones.toArray(new Zone[0]);
+    }
+
+    public static class Floor {
+        private final int number;
+        private final List<Zone> zones = new ArrayList<>();
+
+        Floor(int number) {
+            this.number = number;
+        }
+
+        public int getNumber() { return number; }
+        public List<Zone> getZones() { return Collections.unmodifiableList(zones); }
+    }
+
+    public static class Zone {
+        private final int id;
+        private final String name;
+        private final int floor;
+        private final List<String> slotIds = new ArrayList<>();
+        // One free list per spot class, indexed by VehicleClass.ordinal(); null when the zone has none
+        private final SlotAllocator[] pools = new SlotAllocator[VehicleClass.values().length];
+        private Zone[] spillOrder;
+
+        Zone(int id, String name, int floor) {
+            this.id = id;
+            this.name = name;
+            this.floor = floor;
+        }
+
+        private void addPool(VehicleClass spotClass, List<String> poolSlotIds) {
+            pools[spotClass.ordinal()] = new SlotAllocator(poolSlotIds);
+            slotIds.addAll(poolSlotIds);
+        }
+
+        public int getId() { return id; }
+        public String getName() { return name; }
+        public int getFloor() { return floor; }
+        public List<String> getSlotIds() { return Collections.unmodifiableList(slotIds); }
+        public int size() { return slotIds.size(); }
+
+        public int freeCount(VehicleClass spotClass) {
+            SlotAllocator pool = pools[spotClass.ordinal()];
+            return pool == null ? 0 : pool.freeCount();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live occupancy counters for a LotModel, per lot, per zone and per spot class.
+ *
+ * ALGORITHM: Striped counters (LongAdder)
+ * Every allocate / release bumps three counters. LongAdder spreads concurrent
+ * updates over per-thread cells, so gates never contend on one counter word,
+ * and dashboards read occupancy without touching any spot.
+ *
+ * Time Complexity: O(1) update, O(cells) read (cells <= number of CPUs)
+ * Space Complexity: O(zones + classes)
+ */
+public class OccupancyCounters {
+    private final long capacity;
+    private final LongAdder occupied = new LongAdder();
+
+    private final long[] zoneCapacity;
+    private final LongAdder[] zoneOccupied;
+
+    private final long[] classCapacity = new long[VehicleClass.values().length];
+    private final LongAdder[] classOccupied = new LongAdder[VehicleClass.values().length];
+
+    public OccupancyCounters(LotModel lot) {
+        this.capacity = lot.size();
+        this.zoneCapacity = new long[lot.getZones().size()];
+        this.zoneOccupied = new LongAdder[zoneCapacity.length];
+        for (LotModel.Zone zone : lot.getZones()) {
+            zoneCapacity[zone.getId()] = zone.size();
+            zoneOccupied[zone.getId()] = new LongAdder();
+        }
+        for (String slotId : lot.allSlots()) {
+            classCapacity[lot.spotClassOf(slotId).ordinal()]++;
+        }
+        for (int c = 0; c < classOccupied.length; c++) {
+            classOccupied[c] = new LongAdder();
+        }
+    }
+
+    void onOccupied(int zoneId, VehicleClass spotClass) {
+        occupied.increment();
+        zoneOccupied[zoneId].increment();
+        classOccupied[spotClass.ordinal()].increment();
+    }
+
+    void onReleased(int zoneId, VehicleClass spotClass) {
+        occupied.decrement();
+        zoneOccupied[zoneId].decrement();
+        classOccupied[spotClass.ordinal()].decrement();
+    }
+
+    public long capacity() { return capacity; }
+    public long occupied() { return occupied.sum(); }
+    public long available() { return capacity - occupied.sum(); }
+
+    public long zoneCapacity(int zoneId) { return zoneCapacity[zoneId]; }
+    public long zoneOccupied(int zoneId) { return zoneOccupied[zoneId].sum(); }
+    public long zoneAvailable(int zoneId) { return zoneCapacity[zoneId] - zoneOccupied[zoneId].sum(); }
+
+    public long classCapacity(VehicleClass spotClass) { return classCapacity[spotClass.ordinal()]; }
+    public long classOccupied(VehicleClass spotClass) { return classOccupied[spotClass.ordinal()].sum(); }
+    public long classAvailable(VehicleClass spotClass) {
+        return classCapacity[spotClass.ordinal()] - classOccupied[spotClass.ordinal()].sum();
+    }
+}
@@ -0,0 +1,213 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Crash-safe occupancy state in a memory-mapped file, one fixed-width record per spot.
+ *
+ * ALGORITHM: Double-buffered records with sequence number + CRC
+ * Every record has two 32-byte halves. An update always overwrites the
+ * older half with a higher sequence number and a CRC32 over its bytes.
+ * If the process dies in the middle of a write, only that half is torn;
+ * on restart the newest half with a valid CRC wins, which is either the
+ * new state or the state just before it.
+ *
+ * Writes go straight into the page cache through the mapping, so a killed
+ * JVM loses nothing; force() additionally flushes to disk for power loss.
+ *
+ * File layout:
+ *   header (32 bytes): magic "PKOC", version, slot count, hash of the slot ids
+ *   record i (64 bytes) at 32 + 64 * i, halves at +0 and +32:
+ *     seq int | state byte | plate length byte | plate (20 bytes) | pad (2) | crc32 int
+ *
+ * Time Complexity: O(1) update, O(n) restore (one sequential pass, no DB round trip)
+ * Space Complexity: 64 bytes per spot on disk
+ */
+public class OccupancyFile implements Closeable {
+    public static final String DEFAULT_FILE = "parking_occupancy.dat";
+
+    static final int MAGIC = 0x504B4F43;   // "PKOC"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int HALF_SIZE = 32;
+    static final int RECORD_SIZE = 2 * HALF_SIZE;
+    static final int MAX_PLATE = 20;
+    private static final int CRC_OFFSET = 28;
+    private static final int LOCK_STRIPES = 64;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Map<String, Integer> indexBySlot = new HashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final boolean fresh;
+
+    // Last committed state per record, rebuilt from the file on open
+    private final int[] seq;
+    private final boolean[] occupied;
+    private final String[] plates;
+
+    private OccupancyFile(FileChannel channel, MappedByteBuffer buffer, List<String> slotIds, boolean fresh) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.fresh = fresh;
+        for (int i = 0; i < slotIds.size(); i++) {
+            indexBySlot.put(slotIds.get(i), i);
+        }
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        this.seq = new int[slotIds.size()];
+        this.occupied = new boolean[slotIds.size()];
+        this.plates = new String[slotIds.size()];
+    }
+
+    /**
+     * Opens (or creates) the occupancy file for this list of slots. A file
+     * written for a different slot list is discarded and started fresh.
+     */
+    public static OccupancyFile open(Path file, List<String> slotIds) throws IOException {
+        int count = slotIds.size();
+        long size = HEADER_SIZE + (long) RECORD_SIZE * count;
+        int slotHash = slotIds.hashCode();
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean fresh = !matchesHeader(channel, count, slotHash);
+            if (fresh) {
+                channel.truncate(0);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            OccupancyFile occupancy = new OccupancyFile(channel, buffer, slotIds, fresh);
+            if (fresh) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, count);
+                buffer.putInt(12, slotHash);
+                buffer.force();
+            } else {
+                occupancy.restore();
+            }
+            return occupancy;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static boolean matchesHeader(FileChannel channel, int count, int slotHash) throws IOException {
+        if (channel.size() != HEADER_SIZE + (long) RECORD_SIZE * count) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(16);
+        channel.read(header, 0);
+        return header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+                && header.getInt(8) == count && header.getInt(12) == slotHash;
+    }
+
+    private void restore() {
+        for (int i = 0; i < seq.length; i++) {
+            int base = HEADER_SIZE + i * RECORD_SIZE;
+            int best = -1;
+            int bestSeq = 0;
+            for (int half = 0; half < 2; half++) {
+                int offset = base + half * HALF_SIZE;
+                int s = buffer.getInt(offset);
+                if (s > bestSeq && crc(offset) == buffer.getInt(offset + CRC_OFFSET)) {
+                    best = offset;
+                    bestSeq = s;
+                }
+            }
+            if (best < 0) continue;   // never written, or both halves unreadable: spot is free
+
+            seq[i] = bestSeq;
+            occupied[i] = buffer.get(best + 4) != 0;
+            int len = Math.min(buffer.get(best + 5), MAX_PLATE);
+            byte[] plate = new byte[Math.max(len, 0)];
+            buffer.get(best + 6, plate);
+            plates[i] = occupied[i] ? new String(plate, StandardCharsets.US_ASCII) : null;
+        }
+    }
+
+    /** True if the file was just created (or reset), i.e. there was no state to restore. */
+    public boolean isFresh() { return fresh; }
+
+    public boolean isOccupied(String slotId) {
+        int i = index(slotId);
+        synchronized (locks[i % LOCK_STRIPES]) {
+            return occupied[i];
+        }
+    }
+
+    public String plateAt(String slotId) {
+        int i = index(slotId);
+        synchronized (locks[i % LOCK_STRIPES]) {
+            return plates[i];
+        }
+    }
+
+    public void markOccupied(String slotId, String plate) {
+        write(index(slotId), true, plate == null ? "" : plate);
+    }
+
+    public void markFree(String slotId) {
+        write(index(slotId), false, "");
+    }
+
+    /** Flushes dirty pages to disk; only needed to survive power loss, not a process crash. */
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void write(int i, boolean isOccupied, String plate) {
+        byte[] plateBytes = plate.getBytes(StandardCharsets.US_ASCII);
+        int len = Math.min(plateBytes.length, MAX_PLATE);
+
+        synchronized (locks[i % LOCK_STRIPES]) {
+            int nextSeq = seq[i] + 1;
+            // Overwrite the half that does not hold the current state
+            int offset = HEADER_SIZE + i * RECORD_SIZE + (nextSeq & 1) * HALF_SIZE;
+            buffer.putInt(offset, nextSeq);
+            buffer.put(offset + 4, (byte) (isOccupied ? 1 : 0));
+            buffer.put(offset + 5, (byte) len);
+            buffer.put(offset + 6, plateBytes, 0, len);
+            for (int p = len; p < MAX_PLATE; p++) {
+                buffer.put(offset + 6 + p, (byte) 0);
+            }
+            buffer.putShort(offset + 26, (short) 0);
+            buffer.putInt(offset + CRC_OFFSET, crc(offset));
+
+            seq[i] = nextSeq;
+            occupied[i] = isOccupied;
+            plates[i] = isOccupied ? new String(plateBytes, 0, len, StandardCharsets.US_ASCII) : null;
+        }
+    }
+
+    private int crc(int offset) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, CRC_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    private int index(String slotId) {
+        Integer i = indexBySlot.get(slotId);
+        if (i == null) {
+            throw new IllegalArgumentException("Unknown slot id: " + slotId);
+        }
+        return i;
+    }
+}
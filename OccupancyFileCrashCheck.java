@@ -0,0 +1,122 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recovery check for OccupancyFile.
+ *
+ * 1. Starts a child JVM that rewrites random occupancy records in a tight
+ *    loop, kills it with destroyForcibly() mid-write, then reopens the file
+ *    and checks that every record restores to a state the child wrote for
+ *    that slot.
+ * 2. Tears the newest half of a record by hand and checks that the
+ *    previous state comes back.
+ * 3. Reports how long a restart takes to restore the whole lot.
+ *
+ * Run:  java OccupancyFileCrashCheck [slots]
+ */
+public class OccupancyFileCrashCheck {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("child")) {
+            runChild(Path.of(args[1]), Integer.parseInt(args[2]));
+            return;
+        }
+        int slots = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Path file = Files.createTempFile("occupancy-check", ".dat");
+        try {
+            killMidWrite(file, slots);
+            tornHalf(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<String> slotIds(int slots) {
+        List<String> ids = new ArrayList<>(slots);
+        for (int i = 1; i <= slots; i++) ids.add("A" + i);
+        return ids;
+    }
+
+    // Plates carry the slot id, so a record restored into the wrong slot is detected
+    private static void runChild(Path file, int slots) throws IOException {
+        List<String> ids = slotIds(slots);
+        try (OccupancyFile occupancy = OccupancyFile.open(file, ids)) {
+            System.out.println("ready");
+            System.out.flush();
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            for (long n = 0; ; n++) {
+                String slot = ids.get(rnd.nextInt(slots));
+                if (rnd.nextBoolean()) {
+                    occupancy.markOccupied(slot, slot + "-" + (n % 1_000_000));
+                } else {
+                    occupancy.markFree(slot);
+                }
+            }
+        }
+    }
+
+    private static void killMidWrite(Path file, int slots) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process child = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                OccupancyFileCrashCheck.class.getName(), "child", file.toString(), String.valueOf(slots))
+                .redirectErrorStream(true)
+                .start();
+        if (child.getInputStream().read() < 0) {
+            throw new IllegalStateException("Child JVM exited before it started writing");
+        }
+        Thread.sleep(1_000 + ThreadLocalRandom.current().nextInt(500));
+        child.destroyForcibly();
+        child.waitFor(10, TimeUnit.SECONDS);
+
+        long t0 = System.nanoTime();
+        int occupied = 0;
+        try (OccupancyFile occupancy = OccupancyFile.open(file, slotIds(slots))) {
+            long restoreMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+            if (occupancy.isFresh()) {
+                throw new IllegalStateException("File was reset instead of restored");
+            }
+            for (String slot : slotIds(slots)) {
+                if (occupancy.isOccupied(slot)) {
+                    occupied++;
+                    String plate = occupancy.plateAt(slot);
+                    if (plate == null || !plate.startsWith(slot + "-")) {
+                        throw new IllegalStateException("Slot " + slot + " restored with foreign plate " + plate);
+                    }
+                }
+            }
+            System.out.println("Kill mid-write: OK, " + slots + " slots restored in " + restoreMillis
+                    + " ms (" + occupied + " occupied)");
+        }
+    }
+
+    private static void tornHalf(Path file) throws IOException {
+        List<String> ids = slotIds(4);
+        Files.deleteIfExists(file);
+        try (OccupancyFile occupancy = OccupancyFile.open(file, ids)) {
+            occupancy.markOccupied("A2", "OLD-1");
+            occupancy.markOccupied("A2", "NEW-2");
+        }
+
+        // Second write (seq 2) went to half 0 of record 1; corrupt a plate byte there
+        long newestHalf = OccupancyFile.HEADER_SIZE + OccupancyFile.RECORD_SIZE;
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(newestHalf + 8);
+            raf.write('X');
+        }
+
+        try (OccupancyFile occupancy = OccupancyFile.open(file, ids)) {
+            String plate = occupancy.plateAt("A2");
+            if (!"OLD-1".equals(plate)) {
+                throw new IllegalStateException("Torn record should fall back to OLD-1 but restored " + plate);
+            }
+            System.out.println("Torn half: OK, fell back to previous state " + plate);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Pushes bookings that were kept locally while the database was down back
+ * into parking_spots once it is reachable again.
+ *
+ * ALGORITHM: Periodic drain with idempotent batched upserts + duty-cycle throttle
+ * Every round takes a snapshot of the local store, skips bookings younger
+ * than minAge (those are still on their way through the write-behind
+ * writer) and writes the rest in batches, oldest first. The sink upserts by
+ * booking_id, so a booking written twice (a retry after a lost
+ * acknowledgement, or the writer and the resync racing) ends up as one row.
+ * Each batch that succeeds is passed to the listener, which drops it from
+ * the local store and logs it as synced. The first failure ends the round;
+ * the next round starts over from what is still local. A batch that fails
+ * on a bad row is written row by row (BookingWriter.write); rows the
+ * database rejects on their own are parked: they stay local, are reported
+ * to the listener once and are skipped by later rounds, so they cannot
+ * hold back the bookings behind them.
+ *
+ * Throttle: after a batch that took t, the drain sleeps
+ * t * (100 / maxDutyPercent - 1), so it never holds the database for more
+ * than maxDutyPercent of the time, and it pauses while the live writer has
+ * a backlog, for up to maxBacklogWait per batch.
+ *
+ * Metrics: pending bookings, resynced total, batches, failed rounds, parked
+ * bookings, progress of the current round and lag (age of the oldest local
+ * booking that is not parked).
+ *
+ * Time Complexity: O(n) per round for n local bookings
+ * Space Complexity: O(n) for the round's snapshot
+ */
+public class OfflineResync {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_MAX_DUTY_PERCENT = 25;
+    public static final long DEFAULT_MIN_AGE_MS = 10_000;
+    public static final long MAX_BACKLOG_WAIT_MS = 2_000;
+
+    private final BookingStore store;
+    private final BookingWriter.BatchSink sink;
+    private final BookingWriter.Listener listener;
+    private final IntSupplier liveBacklog;
+    private final int batchSize;
+    private final int maxDutyPercent;
+    private final long minAgeMillis;
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong resynced = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedRounds = new AtomicLong();
+    private final AtomicLong throttledNanos = new AtomicLong();
+    private final Set<Long> parked = ConcurrentHashMap.newKeySet();
+    private volatile int roundTotal;
+    private volatile int roundDone;
+    private volatile long oldestMillis;   // id timestamp of the oldest local booking, 0 if none
+    private volatile String lastError;
+
+    /**
+     * @param liveBacklog bookings waiting in the live writer; the drain pauses while it is above zero
+     */
+    public OfflineResync(BookingStore store, BookingWriter.BatchSink sink, BookingWriter.Listener listener, IntSupplier liveBacklog) {
+        this(store, sink, listener, liveBacklog, DEFAULT_BATCH_SIZE, DEFAULT_MAX_DUTY_PERCENT, DEFAULT_MIN_AGE_MS);
+    }
+
+    public OfflineResync(BookingStore store, BookingWriter.BatchSink sink, BookingWriter.Listener listener, IntSupplier liveBacklog,
+                         int batchSize, int maxDutyPercent, long minAgeMillis) {
+        if (batchSize <= 0 || maxDutyPercent <= 0 || maxDutyPercent > 100 || minAgeMillis < 0) {
+            throw new IllegalArgumentException("Batch size must be positive, duty 1-100 %, min age not negative");
+        }
+        this.store = store;
+        this.sink = sink;
+        this.listener = listener;
+        this.liveBacklog = liveBacklog;
+        this.batchSize = batchSize;
+        this.maxDutyPercent = maxDutyPercent;
+        this.minAgeMillis = minAgeMillis;
+    }
+
+    /** Runs a round every periodMillis on a daemon thread. */
+    public synchronized void start(long periodMillis) {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "offline-resync");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::runOnceQuietly, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void runOnceQuietly() {
+        try {
+            runOnce();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            System.err.println("Offline resync failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * One drain round. Returns the number of bookings written; stops at the
+     * first batch that fails for a reason other than a bad row.
+     */
+    public int runOnce() throws InterruptedException {
+        parked.removeIf(id -> store.get(id) == null);   // removed by hand since
+        List<Booking> local = store.snapshot();
+        long cutoff = System.currentTimeMillis() - minAgeMillis;
+        List<Booking> due = new ArrayList<>(local.size());
+        long oldest = 0;
+        for (Booking b : local) {
+            if (parked.contains(b.getId())) continue;
+            long madeAt = BookingIdGenerator.timestampMillis(b.getId());
+            if (oldest == 0 || madeAt < oldest) oldest = madeAt;
+            if (madeAt <= cutoff) due.add(b);
+        }
+        oldestMillis = oldest;
+        roundTotal = due.size();
+        roundDone = 0;
+
+        int done = 0;       // written or parked, for progress
+        int written = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            long waitUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_BACKLOG_WAIT_MS);
+            while (liveBacklog.getAsInt() > 0 && System.nanoTime() < waitUntil) {
+                pause(TimeUnit.MILLISECONDS.toNanos(20));   // live bookings first
+            }
+            List<Booking> batch = new ArrayList<>(batchSize);
+            for (Booking b : due.subList(from, Math.min(from + batchSize, due.size()))) {
+                if (sink.hold(b)) batch.add(b);   // not held: the live writer got it into the DB meanwhile
+            }
+            long t0 = System.nanoTime();
+            BookingWriter.Outcome out = BookingWriter.write(sink, batch);
+            long took = System.nanoTime() - t0;
+            try {
+                if (!out.written.isEmpty()) {
+                    listener.written(out.written);
+                    batches.incrementAndGet();
+                    resynced.addAndGet(out.written.size());
+                    written += out.written.size();
+                }
+                for (int i = 0; i < out.poisoned.size(); i++) {
+                    Booking b = out.poisoned.get(i);
+                    if (parked.add(b.getId())) {
+                        System.err.println("Parking booking " + b.getCode() + ", the database rejects it: " + out.poisonCauses.get(i).getMessage());
+                        listener.poisoned(b, out.poisonCauses.get(i));
+                    }
+                }
+                if (!out.failed.isEmpty()) {
+                    failedRounds.incrementAndGet();
+                    lastError = out.failure.getMessage();
+                    listener.failed(out.failed, out.failure);
+                }
+            } finally {
+                for (Booking b : batch) {
+                    sink.release(b);
+                }
+            }
+            done += Math.min(from + batchSize, due.size()) - from - out.failed.size();
+            roundDone = done;
+            if (!out.failed.isEmpty()) {
+                return written;
+            }
+            lastError = null;
+            if (from + batchSize < due.size()) {
+                pause(took * (100 - maxDutyPercent) / maxDutyPercent);
+            }
+        }
+        oldestMillis = local.size() == written ? 0 : oldestRemaining();
+        return written;
+    }
+
+    private long oldestRemaining() {
+        long oldest = 0;
+        for (Booking b : store.snapshot()) {
+            if (parked.contains(b.getId())) continue;
+            long madeAt = BookingIdGenerator.timestampMillis(b.getId());
+            if (oldest == 0 || madeAt < oldest) oldest = madeAt;
+        }
+        return oldest;
+    }
+
+    private void pause(long nanos) throws InterruptedException {
+        if (nanos <= 0) return;
+        throttledNanos.addAndGet(nanos);
+        TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+
+    /** Bookings still only in local storage. */
+    public int pending() { return store.size(); }
+
+    public long resyncedCount() { return resynced.get(); }
+    public long batchCount() { return batches.get(); }
+    public long failedRounds() { return failedRounds.get(); }
+    public int parkedCount() { return parked.size(); }
+    public long throttledMillis() { return TimeUnit.NANOSECONDS.toMillis(throttledNanos.get()); }
+    public String lastError() { return lastError; }
+
+    /** Percent of the current (or last) round written so far; 100 when there was nothing to do. */
+    public int progressPercent() {
+        int total = roundTotal;
+        return total == 0 ? 100 : (int) (100L * roundDone / total);
+    }
+
+    /** How long the oldest local booking has been waiting for the database, as of the last round. */
+    public long lagMillis() {
+        long oldest = oldestMillis;
+        return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+    }
+
+    public String stats() {
+        return String.format("pending=%d resynced=%d batches=%d parked=%d progress=%d%% lag=%dms failedRounds=%d throttled=%dms%s",
+                pending(), resyncedCount(), batchCount(), parkedCount(), progressPercent(), lagMillis(), failedRounds(), throttledMillis(),
+                lastError == null ? "" : " lastError=" + lastError);
+    }
+}
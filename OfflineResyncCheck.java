@@ -0,0 +1,143 @@
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Behaviour check for OfflineResync against a simulated parking_spots table
+ * that upserts by booking_id, as the MySQL statement does.
+ *
+ * 1. Bookings taken while the database is down all stay local.
+ * 2. The database comes back but fails halfway through a round: the round
+ *    stops, the rest stay local and the lag is reported.
+ * 3. The next round drains everything; the writer and the resync racing on
+ *    the same bookings still leave one row per booking.
+ * 4. The drain keeps the database busy no more than the configured duty.
+ * 5. A booking the database rejects is parked; the rest of its batch, the
+ *    writer's queue and later rounds carry on without it.
+ *
+ * Run:  java OfflineResyncCheck [bookings]
+ */
+public class OfflineResyncCheck {
+
+    public static void main(String[] args) throws Exception {
+        int bookings = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        SimulatedTable db = new SimulatedTable();
+        BookingStore store = new BookingStore();
+        BookingWriter.Listener listener = new BookingWriter.Listener() {
+            @Override
+            public void written(List<Booking> batch) {
+                for (Booking b : batch) store.remove(b.getId());
+            }
+
+            @Override
+            public void failed(List<Booking> batch, Exception e) { }
+        };
+
+        // 1. Outage: every batch the writer tries fails, so everything stays local
+        db.up = false;
+        BookingWriter writer = new BookingWriter(db, listener);
+        BookingIdGenerator ids = new BookingIdGenerator(0);
+        for (int i = 0; i < bookings; i++) {
+            Booking b = new Booking(ids.nextId(), store.plateId("TN01AB" + i), "A" + (1 + i % 500), "Owner", "9000000000",
+                    1_760_000_000L + i, 60, 3000, BookingStatus.BOOKED);
+            store.add(b);
+            writer.submit(b);
+        }
+        writer.close();
+        check(store.size() == bookings && db.rows.isEmpty(), "outage: store " + store.size() + ", db " + db.rows.size());
+        System.out.println("Outage: " + store.size() + " bookings kept locally: OK  " + writer.stats());
+
+        // 2. Database back, but it drops out again after a few batches
+        OfflineResync resync = new OfflineResync(store, db, listener, () -> 0, 500, 25, 0);
+        db.up = true;
+        db.failAfterBatches = 10;
+        int first = resync.runOnce();
+        check(first == 5_000 && store.size() == bookings - 5_000 && resync.failedRounds() == 1 && resync.lagMillis() > 0,
+                "partial round wrote " + first + ": " + resync.stats());
+        System.out.println("Partial round: OK  " + resync.stats());
+
+        // 3. Full drain, with the writer racing the resync over the same bookings
+        db.failAfterBatches = Integer.MAX_VALUE;
+        BookingWriter racer = new BookingWriter(db, listener);
+        for (Booking b : store.snapshot()) racer.submit(b);
+        resync.runOnce();
+        racer.close();
+        check(store.size() == 0 && db.rows.size() == bookings && resync.progressPercent() == 100 && resync.lagMillis() == 0,
+                "after drain: store " + store.size() + ", rows " + db.rows.size() + ", " + resync.stats());
+        check(db.writes.get() > bookings, "expected the race to write some bookings twice");
+        System.out.println(String.format("Drain: %d rows for %d bookings after %d row writes (upserts absorbed the race): OK",
+                db.rows.size(), bookings, db.writes.get()));
+
+        // 4. Duty cycle of a drain on its own
+        for (int i = 0; i < bookings; i++) {
+            store.add(new Booking(ids.nextId(), store.plateId("TN02AB" + i), "A1", "Owner", "9000000000",
+                    1_760_000_000L + i, 60, 3000, BookingStatus.BOOKED));
+        }
+        db.busyNanos.set(0);
+        long t0 = System.nanoTime();
+        resync.runOnce();
+        long elapsed = System.nanoTime() - t0;
+        check(store.size() == 0 && db.rows.size() == 2 * bookings, "second drain left " + store.size());
+        double duty = 100.0 * db.busyNanos.get() / elapsed;
+        System.out.println(String.format("Drain held the database %.0f%% of the time (limit 25%%), throttled %d ms  %s",
+                duty, resync.throttledMillis(), resync.stats()));
+        check(duty <= 30, "duty " + duty);
+
+        // 5. Poison row
+        Booking bad = null;
+        for (int i = 0; i < 1_000; i++) {
+            Booking b = new Booking(ids.nextId(), store.plateId("TN03AB" + i), "A1", "Owner", "9000000000",
+                    1_760_000_000L + i, 60, 3000, BookingStatus.BOOKED);
+            store.add(b);
+            if (i == 321) bad = b;
+        }
+        db.poison = bad.getId();
+        BookingWriter poisoned = new BookingWriter(db, listener);
+        poisoned.submit(bad);
+        poisoned.close();
+        check(poisoned.queued() == 0 && poisoned.poisonedCount() == 1, "writer: " + poisoned.stats());
+        int drained = resync.runOnce();
+        check(drained == 999 && store.size() == 1 && resync.parkedCount() == 1 && resync.lagMillis() == 0,
+                "poison round wrote " + drained + ": " + resync.stats());
+        check(resync.runOnce() == 0 && resync.parkedCount() == 1, "parked booking retried: " + resync.stats());
+        System.out.println("Poison row: 999 written around it, 1 parked: OK  " + resync.stats());
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    // parking_spots keyed by booking_id; a batch costs 1 ms + 2 us per row
+    private static final class SimulatedTable implements BookingWriter.BatchSink {
+        final Map<Long, Booking> rows = new ConcurrentHashMap<>();
+        final AtomicLong writes = new AtomicLong();
+        final AtomicLong busyNanos = new AtomicLong();
+        volatile boolean up;
+        volatile int failAfterBatches = Integer.MAX_VALUE;
+        volatile long poison = -1;
+        int batches;
+
+        @Override
+        public synchronized void write(List<Booking> batch) throws java.sql.SQLException {
+            if (!up || batches >= failAfterBatches) {
+                batches = 0;
+                throw new java.sql.SQLException("Database unavailable");
+            }
+            for (Booking b : batch) {
+                if (b.getId() == poison) throw new java.sql.SQLIntegrityConstraintViolationException("Duplicate entry for spot", "23000");
+            }
+            batches++;
+            long t0 = System.nanoTime();
+            long end = t0 + TimeUnit.MICROSECONDS.toNanos(1_000 + 2L * batch.size());
+            while (System.nanoTime() < end) LockSupport.parkNanos(end - System.nanoTime());
+            for (Booking b : batch) rows.put(b.getId(), b);
+            writes.addAndGet(batch.size());
+            busyNanos.addAndGet(System.nanoTime() - t0);
+        }
+    }
+}
@@ -0,0 +1,495 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model for the Database Management screen that only holds the pages
+ * the user is looking at.
+ *
+ * ALGORITHM: Lazy keyset pagination + LRU page cache
+ * Rows are read in pages of pageSize in key (booking_id) order. A page is
+ * fetched with "WHERE key > lastKeyOfPreviousPage ORDER BY key LIMIT n", so
+ * it costs an index seek plus n rows however deep into the table it is,
+ * where OFFSET would read and throw away every row before it. The key that
+ * starts each page is remembered once known. The first jump to a page whose
+ * start is not known walks the key index once from the last known start,
+ * streaming only the keys, and keeps every pageSize-th one. After it, any
+ * page is one keyset read of pageSize rows.
+ *
+ * JTable only asks for the cells it paints. A cell on a page that is not
+ * cached shows a placeholder and queues the page; one background thread
+ * loads queued pages newest first (a fast scroll past a page drops its
+ * request) and repaints them on the EDT. At most cachedPages pages are
+ * resident, least recently used evicted first, so memory stays at the
+ * visible window plus a small cache however big parking_spots grows.
+ *
+ * refresh() re-counts the rows on the loader thread and drops the cache;
+ * refreshes asked for while one is pending are merged into it. The page
+ * starts survive a refresh: keys only grow (new bookings are appended), so
+ * the refresh counts the rows after the last known start, and if the rows
+ * before it are still the same number it keeps every start up to it and
+ * the next jump walks only the keys added since. If the count shrank or the
+ * rows before the last start changed (a delete, or an older booking written
+ * late by the offline resync) the starts are dropped and walked again. A
+ * delete and an insert before the last start between two refreshes cancel
+ * out and go unnoticed until the next full walk.
+ * When the database cannot be reached the model pages the local store
+ * instead.
+ *
+ * Time Complexity: O(pageSize) per page load, O(new rows) keys for the
+ *                  first jump after a refresh (O(rows) after a delete or the
+ *                  first time), O(1) per cell
+ * Space Complexity: O(cachedPages * pageSize) rows + one key per page
+ */
+public class PagedBookingTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    public static final int DEFAULT_CACHED_PAGES = 6;
+    public static final String LOADING = "Loading...";
+
+    private static final String[] COLUMNS = {"S.No", "Booking ID", "Vehicle No", "Spot No", "Name", "Phone", "In Time", "Duration", "Amount", "Status"};
+    private static final Object[][] NO_ROWS = new Object[0][];
+
+    /** Where the rows come from; keys are compared in the source's own order. */
+    public interface PageSource {
+        int count() throws SQLException;
+
+        /** Rows with keys greater than after. */
+        int countAfter(Object after) throws SQLException;
+
+        /**
+         * Walks the keys greater than after (null: all of them) once in order
+         * and returns the last key of every full page counted from after,
+         * i.e. the key before the first row of the 1st, 2nd, ... page after it.
+         */
+        List<Object> pageStarts(Object after, int pageSize) throws SQLException;
+
+        /** Up to limit rows with keys greater than after (null: from the first row), in key order. */
+        Page page(Object after, int limit) throws SQLException;
+    }
+
+    /** One page of display rows (without the serial number) and the key of its last row. */
+    public static final class Page {
+        final Object[][] rows;
+        final Object lastKey;
+
+        public Page(Object[][] rows, Object lastKey) {
+            this.rows = rows;
+            this.lastKey = lastKey;
+        }
+    }
+
+    private final PageSource primary;
+    private final PageSource fallback;
+    private final int pageSize;
+    private final int cachedPages;
+    private final ExecutorService loader;
+
+    // Loader thread only
+    private PageSource source;
+    private int loaderGeneration;
+    private final Map<Integer, Object> pageStarts = new HashMap<>();   // pages 0..lastStart -> key before its first row
+    private int lastStart;
+    private boolean startsScanned;   // since the last refresh
+    private PageSource startsFrom;
+
+    // EDT only
+    private int rowCount;
+    private int generation;
+    private final LinkedHashMap<Integer, Object[][]> cache;
+    private final Set<Integer> requested = new HashSet<>();   // queued or loading, not yet delivered
+
+    private final Deque<Integer> wanted = new ArrayDeque<>();   // guarded by itself, newest first
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private final AtomicLong pagesLoaded = new AtomicLong();
+    private final AtomicLong keyScans = new AtomicLong();
+    private volatile boolean usingFallback;
+
+    public PagedBookingTableModel(PageSource primary, PageSource fallback) {
+        this(primary, fallback, DEFAULT_PAGE_SIZE, DEFAULT_CACHED_PAGES);
+    }
+
+    public PagedBookingTableModel(PageSource primary, PageSource fallback, int pageSize, int cachedPages) {
+        if (pageSize <= 0 || cachedPages < 2) {
+            throw new IllegalArgumentException("Page size must be positive and at least 2 pages cached");
+        }
+        this.primary = primary;
+        this.fallback = fallback;
+        this.pageSize = pageSize;
+        this.cachedPages = cachedPages;
+        this.source = primary;
+        this.cache = new LinkedHashMap<Integer, Object[][]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> eldest) {
+                return size() > PagedBookingTableModel.this.cachedPages;
+            }
+        };
+        this.loader = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "table-page-loader");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Re-counts the rows and drops every cached page; the visible ones load again as they are painted. */
+    public void refresh() {
+        if (refreshQueued.compareAndSet(false, true)) {
+            loader.execute(this::reload);
+        }
+    }
+
+    @Override
+    public int getRowCount() { return rowCount; }
+
+    @Override
+    public int getColumnCount() { return COLUMNS.length; }
+
+    @Override
+    public String getColumnName(int column) { return COLUMNS[column]; }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (column == 0) return row + 1;
+        int page = row / pageSize;
+        Object[][] rows = cache.get(page);
+        if (rows == null) {
+            request(page);
+            return LOADING;
+        }
+        int i = row % pageSize;
+        return i < rows.length ? rows[i][column - 1] : "";
+    }
+
+    private void request(int page) {
+        synchronized (wanted) {
+            if (requested.contains(page)) {
+                if (wanted.remove(page)) wanted.addFirst(page);   // still queued: load it next
+                return;
+            }
+            requested.add(page);
+            wanted.addFirst(page);
+            while (wanted.size() > cachedPages) {
+                requested.remove(wanted.removeLast());   // scrolled past before it was loaded
+            }
+        }
+        loader.execute(this::loadNext);
+    }
+
+    private void reload() {
+        refreshQueued.set(false);
+        synchronized (wanted) {
+            wanted.clear();
+        }
+        int gen = ++loaderGeneration;
+        startsScanned = false;
+        int count;
+        try {
+            source = primary;
+            count = primary.count();
+            usingFallback = false;
+        } catch (SQLException ex) {
+            System.err.println("DB failure loading the database table: " + ex.getMessage() + "; showing local bookings");
+            source = fallback;
+            usingFallback = true;
+            try {
+                count = fallback.count();
+            } catch (SQLException ignored) {
+                count = 0;
+            }
+        }
+        if (!startsStillHold(count)) {
+            pageStarts.clear();
+            pageStarts.put(0, null);
+            lastStart = 0;
+            startsFrom = source;
+        }
+        int rows = count;
+        SwingUtilities.invokeLater(() -> {
+            generation = gen;
+            rowCount = rows;
+            cache.clear();
+            requested.clear();
+            fireTableDataChanged();
+        });
+    }
+
+    private void loadNext() {
+        Integer page;
+        synchronized (wanted) {
+            page = wanted.pollFirst();
+        }
+        if (page == null) return;
+        int gen = loaderGeneration;
+        Object[][] rows;
+        try {
+            rows = load(page);
+        } catch (SQLException ex) {
+            System.err.println("DB failure loading table page " + page + ": " + ex.getMessage());
+            rows = NO_ROWS;   // shown blank until the next refresh rather than retried on every repaint
+        }
+        Object[][] loaded = rows;
+        SwingUtilities.invokeLater(() -> {
+            if (gen != generation) return;   // a refresh got in between
+            requested.remove(page);
+            cache.put(page, loaded);
+            int first = page * pageSize;
+            int last = Math.min(rowCount, first + pageSize) - 1;
+            if (last >= first) fireTableRowsUpdated(first, last);
+        });
+    }
+
+    // True if the rows before the last known page start are as many as when it was found
+    private boolean startsStillHold(int count) {
+        if (startsFrom != source || lastStart == 0) return false;
+        int before = lastStart * pageSize;
+        if (count < before) return false;
+        try {
+            return source.countAfter(pageStarts.get(lastStart)) == count - before;
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private Object[][] load(int page) throws SQLException {
+        if (page > lastStart && !startsScanned) {
+            keyScans.incrementAndGet();
+            List<Object> starts = source.pageStarts(pageStarts.get(lastStart), pageSize);
+            for (Object start : starts) {
+                pageStarts.put(++lastStart, start);
+            }
+            startsScanned = true;
+        }
+        if (page > lastStart) {
+            return NO_ROWS;   // the table shrank
+        }
+        Page p = source.page(pageStarts.get(page), pageSize);
+        pagesLoaded.incrementAndGet();
+        if (p.rows.length == pageSize && page == lastStart) {
+            pageStarts.put(++lastStart, p.lastKey);
+        }
+        return p.rows;
+    }
+
+    /** Rows held in the page cache right now (call on the EDT). */
+    public int residentRows() {
+        int n = 0;
+        for (Object[][] rows : cache.values()) n += rows.length;
+        return n;
+    }
+
+    public long pagesLoaded() { return pagesLoaded.get(); }
+    /** Passes over the key index made to find page starts; at most one per refresh, from the last known start. */
+    public long keyScans() { return keyScans.get(); }
+    public boolean usingFallback() { return usingFallback; }
+
+    public void close() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * Pages parking_spots by booking_id. Rows are streamed fetchSize at a time
+     * (the connection URL enables cursor fetch) instead of the driver buffering
+     * the whole result. Falls back to the old schema, keyed by spot_id, when
+     * the booking columns do not exist.
+     */
+    public static class JdbcSource implements PageSource {
+        private static final String COLUMNS = "booking_id, vehicle_number, spot_number, name, phone, in_time, duration, amount, status";
+        private static final String OLD_COLUMNS = "spot_id, vehicle_number, status, entry_time, exit_time, amount";
+
+        private final int fetchSize;
+        private volatile boolean oldSchema;
+
+        public JdbcSource(int fetchSize) {
+            if (fetchSize <= 0) throw new IllegalArgumentException("Fetch size must be positive");
+            this.fetchSize = fetchSize;
+        }
+
+        private static Connection connect() throws SQLException {
+            Connection conn = DBConnection.getConnection();
+            if (conn == null) throw new SQLException("DB connection returned null");
+            return conn;
+        }
+
+        private String key() { return oldSchema ? "spot_id" : "booking_id"; }
+
+        private String keyed(String columns, Object after, String tail) {
+            return "SELECT " + columns + " FROM parking_spots" + (after == null ? "" : " WHERE " + key() + " > ?")
+                    + " ORDER BY " + key() + tail;
+        }
+
+        @Override
+        public int count() throws SQLException {
+            try (Connection conn = connect()) {
+                try (PreparedStatement ps = conn.prepareStatement("SELECT COUNT(booking_id) FROM parking_spots"); ResultSet rs = ps.executeQuery()) {
+                    oldSchema = false;
+                    return rs.next() ? rs.getInt(1) : 0;
+                } catch (SQLSyntaxErrorException noBookingColumns) {
+                    oldSchema = true;
+                    try (PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM parking_spots"); ResultSet rs = ps.executeQuery()) {
+                        return rs.next() ? rs.getInt(1) : 0;
+                    }
+                }
+            }
+        }
+
+        // Range count on the key index; only the rows after the key are visited
+        @Override
+        public int countAfter(Object after) throws SQLException {
+            try (Connection conn = connect();
+                 PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM parking_spots" + (after == null ? "" : " WHERE " + key() + " > ?"))) {
+                if (after != null) ps.setObject(1, after);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            }
+        }
+
+        // Index-only scan of the key column from after, streamed fetchSize keys at a time
+        @Override
+        public List<Object> pageStarts(Object after, int pageSize) throws SQLException {
+            try (Connection conn = connect();
+                 PreparedStatement ps = conn.prepareStatement(keyed(key(), after, ""),
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(fetchSize);
+                if (after != null) ps.setObject(1, after);
+                List<Object> starts = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    for (int n = 1; rs.next(); n++) {
+                        if (n % pageSize == 0) starts.add(rs.getObject(1));
+                    }
+                }
+                return starts;
+            }
+        }
+
+        @Override
+        public Page page(Object after, int limit) throws SQLException {
+            boolean old = oldSchema;
+            try (Connection conn = connect();
+                 PreparedStatement ps = conn.prepareStatement(keyed(old ? OLD_COLUMNS : COLUMNS, after, " LIMIT ?"),
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(Math.min(fetchSize, limit));
+                int i = 1;
+                if (after != null) ps.setObject(i++, after);
+                ps.setInt(i, limit);
+                List<Object[]> rows = new ArrayList<>(limit);
+                Object last = null;
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        last = rs.getObject(1);
+                        if (old) {
+                            rows.add(new Object[]{"N/A", rs.getString("vehicle_number"), String.valueOf(rs.getInt("spot_id")), "", "",
+                                    rs.getString("entry_time"), "N/A", rs.getString("amount"), rs.getString("status")});
+                        } else {
+                            rows.add(new Object[]{rs.getString("booking_id"), rs.getString("vehicle_number"), rs.getString("spot_number"),
+                                    rs.getString("name"), rs.getString("phone"), rs.getString("in_time"), rs.getString("duration"),
+                                    rs.getString("amount"), rs.getString("status")});
+                        }
+                    }
+                }
+                return new Page(rows.toArray(new Object[0][]), last);
+            }
+        }
+    }
+
+    /**
+     * Pages the bookings still held locally, keyed by booking id. count(),
+     * called once per refresh, takes a sorted snapshot of the store; pages
+     * are cut from it until the next refresh, so the store is sorted once
+     * per refresh rather than once per page.
+     */
+    public static class LocalSource implements PageSource {
+        private final BookingStore store;
+        private volatile List<Booking> sorted;
+
+        public LocalSource(BookingStore store) {
+            this.store = store;
+        }
+
+        private List<Booking> sorted() {
+            List<Booking> all = sorted;
+            if (all == null) {
+                all = store.snapshot();
+                all.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+                sorted = all;
+            }
+            return all;
+        }
+
+        // Index of the first booking with an id greater than after
+        private static int firstAfter(List<Booking> all, Object after) {
+            if (after == null) return 0;
+            long key = (Long) after;
+            int lo = 0, hi = all.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (all.get(mid).getId() <= key) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        @Override
+        public int count() {
+            sorted = null;
+            return sorted().size();
+        }
+
+        @Override
+        public int countAfter(Object after) {
+            List<Booking> all = sorted();
+            return all.size() - firstAfter(all, after);
+        }
+
+        @Override
+        public List<Object> pageStarts(Object after, int pageSize) {
+            List<Booking> all = sorted();
+            int from = firstAfter(all, after);
+            List<Object> starts = new ArrayList<>((all.size() - from) / pageSize);
+            for (int i = from + pageSize - 1; i < all.size(); i += pageSize) {
+                starts.add(all.get(i).getId());
+            }
+            return starts;
+        }
+
+        @Override
+        public Page page(Object after, int limit) {
+            List<Booking> all = sorted();
+            int from = firstAfter(all, after);
+            int to = Math.min(all.size(), from + limit);
+            Object[][] rows = new Object[to - from][];
+            for (int i = from; i < to; i++) {
+                Map<String, String> b = store.toMap(all.get(i));
+                rows[i - from] = new Object[]{
+                    b.getOrDefault(Booking.ID, ""),
+                    b.getOrDefault(Booking.VEHICLE, ""),
+                    b.getOrDefault(Booking.SLOT, ""),
+                    b.getOrDefault(Booking.NAME, ""),
+                    b.getOrDefault(Booking.PHONE, ""),
+                    b.getOrDefault(Booking.IN_TIME, ""),
+                    b.getOrDefault(Booking.DURATION, ""),
+                    b.getOrDefault(Booking.AMOUNT, ""),
+                    b.getOrDefault(Booking.STATUS, "")
+                };
+            }
+            return new Page(rows, to > from ? all.get(to - 1).getId() : null);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.SwingUtilities;
+
+/**
+ * Behaviour check for PagedBookingTableModel against a simulated
+ * parking_spots table with an index on booking_id.
+ *
+ * 1. A refresh only counts the rows; nothing is read until cells are asked for.
+ * 2. Scrolling down a window at a time reads each page once, keyset after
+ *    keyset, and never holds more than the page cache.
+ * 3. Dragging the scrollbar to the end costs one pass over the keys past
+ *    the pages already seen (no row is read for it) and then one page; a second jump, to anywhere,
+ *    costs only its page.
+ * 4. A refresh after bookings were appended keeps the page starts: the
+ *    next jump to the end walks only the new keys. An older booking written
+ *    late lands in the middle; then the starts are walked again in full.
+ * 5. With the database down the model pages the local store instead.
+ *
+ * Run:  java PagedTableCheck [rows]
+ */
+public class PagedTableCheck {
+    private static final int PAGE = 200;
+    private static final int CACHED = 6;
+    private static final int WINDOW = 40;   // rows visible at once
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        SimulatedTable db = new SimulatedTable(rows);
+        BookingStore local = new BookingStore();
+        PagedBookingTableModel model = new PagedBookingTableModel(db, new PagedBookingTableModel.LocalSource(local), PAGE, CACHED);
+
+        // 1. Refresh
+        model.refresh();
+        waitFor(() -> model.getRowCount() == rows, "row count");
+        check(db.rowsRead.get() == 0, "refresh read " + db.rowsRead.get() + " rows");
+        System.out.println("Refresh: " + rows + " rows counted, 0 read: OK");
+
+        // 2. Scroll through the first 50 pages a window at a time
+        long t0 = System.nanoTime();
+        int maxResident = 0;
+        for (int top = 0; top < 50 * PAGE; top += WINDOW) {
+            int first = top;
+            int last = top + WINDOW - 1;
+            waitFor(() -> loaded(model, first) && loaded(model, last), "window at " + top);
+            check(onEdt(() -> model.getValueAt(last, 1)).equals(db.code(last)), "row " + last + " is " + onEdt(() -> model.getValueAt(last, 1)));
+            maxResident = Math.max(maxResident, onEdt(model::residentRows));
+        }
+        double millis = (System.nanoTime() - t0) / 1e6;
+        check(model.pagesLoaded() == 50 && model.keyScans() == 0, "scroll loaded " + model.pagesLoaded() + " pages with " + model.keyScans() + " key scans");
+        check(maxResident <= CACHED * PAGE, "resident " + maxResident);
+        System.out.println(String.format("Scroll over %d rows: %d pages, %d rows read, at most %d rows resident, %.0f ms: OK",
+                50 * PAGE, model.pagesLoaded(), db.rowsRead.get(), maxResident, millis));
+
+        // 3. Jump to the end
+        long read = db.rowsRead.get();
+        int end = rows - 1;
+        waitFor(() -> loaded(model, end), "last row");
+        check(onEdt(() -> model.getValueAt(end, 1)).equals(db.code(end)), "last row is " + onEdt(() -> model.getValueAt(end, 1)));
+        check(model.keyScans() == 1 && db.rowsRead.get() - read <= PAGE, "jump: " + model.keyScans() + " key scans, " + (db.rowsRead.get() - read) + " rows read");
+        System.out.println(String.format("Jump to row %d: 1 pass over %d keys, %d rows read (loading everything reads %d): OK",
+                end + 1, db.keysRead.get(), db.rowsRead.get() - read, rows));
+
+        read = db.rowsRead.get();
+        long keys = db.keysRead.get();
+        int middle = rows / 2 + 7;
+        waitFor(() -> loaded(model, middle), "middle row");
+        check(onEdt(() -> model.getValueAt(middle, 1)).equals(db.code(middle)), "middle row is " + onEdt(() -> model.getValueAt(middle, 1)));
+        check(model.keyScans() == 1 && db.keysRead.get() == keys && db.rowsRead.get() - read <= PAGE,
+                "second jump: " + model.keyScans() + " key scans, " + (db.rowsRead.get() - read) + " rows read");
+        System.out.println(String.format("Jump to row %d: 0 keys, %d rows read: OK", middle + 1, db.rowsRead.get() - read));
+
+        // 4. Refresh after appends, then after a row lands in the middle
+        int appended = 1_000;
+        db.append(appended);
+        int grown = rows + appended;
+        model.refresh();
+        waitFor(() -> model.getRowCount() == grown, "row count after appends");
+        keys = db.keysRead.get();
+        int newEnd = grown - 1;
+        waitFor(() -> loaded(model, newEnd), "last row after appends");
+        check(onEdt(() -> model.getValueAt(newEnd, 1)).equals(db.code(newEnd)), "last row after appends is " + onEdt(() -> model.getValueAt(newEnd, 1)));
+        check(model.keyScans() == 2 && db.keysRead.get() - keys <= appended + PAGE,
+                "jump after appends: " + model.keyScans() + " key scans, " + (db.keysRead.get() - keys) + " keys");
+        System.out.println(String.format("Refresh after %d appends, jump to the end: %d keys walked: OK", appended, db.keysRead.get() - keys));
+
+        db.insertBefore(rows / 3);
+        model.refresh();
+        waitFor(() -> model.getRowCount() == grown + 1, "row count after a late write");
+        keys = db.keysRead.get();
+        int lastRow = grown;
+        waitFor(() -> loaded(model, lastRow), "last row after a late write");
+        check(onEdt(() -> model.getValueAt(lastRow, 1)).equals(db.code(lastRow)), "last row after a late write is " + onEdt(() -> model.getValueAt(lastRow, 1)));
+        check(model.keyScans() == 3 && db.keysRead.get() - keys == grown + 1, "late write: " + (db.keysRead.get() - keys) + " keys");
+        waitFor(() -> loaded(model, middle), "middle row after a late write");
+        check(onEdt(() -> model.getValueAt(middle, 1)).equals(db.code(middle)), "middle row after a late write is " + onEdt(() -> model.getValueAt(middle, 1)));
+        System.out.println(String.format("Refresh after a late write in the middle: starts walked again (%d keys): OK", db.keysRead.get() - keys));
+
+        // 5. Database down: local bookings instead
+        db.up = false;
+        BookingIdGenerator ids = new BookingIdGenerator(0);
+        for (int i = 0; i < 450; i++) {
+            local.add(new Booking(ids.nextId(), local.plateId("TN01AB" + i), "A" + (1 + i % 50), "Owner", "9000000000",
+                    1_760_000_000L + i, 60, 3000, BookingStatus.BOOKED));
+        }
+        model.refresh();
+        waitFor(() -> model.getRowCount() == 450 && loaded(model, 449), "local rows");
+        Booking lastLocal = local.snapshot().get(449);
+        check(model.usingFallback() && onEdt(() -> model.getValueAt(449, 1)).equals(lastLocal.getCode()), "local row 450 is " + onEdt(() -> model.getValueAt(449, 1)));
+        System.out.println("Database down: " + model.getRowCount() + " local bookings paged: OK");
+        model.close();
+    }
+
+    private static boolean loaded(PagedBookingTableModel model, int row) {
+        return model.getValueAt(row, 1) != PagedBookingTableModel.LOADING;   // called on the EDT
+    }
+
+    private static <T> T onEdt(java.util.function.Supplier<T> call) {
+        Object[] out = new Object[1];
+        try {
+            SwingUtilities.invokeAndWait(() -> out[0] = call.get());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        @SuppressWarnings("unchecked")
+        T t = (T) out[0];
+        return t;
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier done, String what) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!onEdt(done::getAsBoolean)) {
+            if (System.currentTimeMillis() > deadline) throw new IllegalStateException("Timed out waiting for " + what);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    // booking_id index over rows whose codes are generated on demand; counts the rows and keys a query returns
+    private static final class SimulatedTable implements PagedBookingTableModel.PageSource {
+        volatile long[] ids;
+        final AtomicLong rowsRead = new AtomicLong();
+        final AtomicLong keysRead = new AtomicLong();
+        volatile boolean up = true;
+
+        SimulatedTable(int rows) {
+            ids = new long[rows];
+            for (int i = 0; i < rows; i++) ids[i] = BookingIdGenerator.firstIdAt(BookingIdGenerator.EPOCH_MILLIS + 1_000L * i);
+        }
+
+        String code(int row) { return BookingIdGenerator.encode(ids[row]); }
+
+        // New bookings, later than every row
+        void append(int n) {
+            long[] grown = Arrays.copyOf(ids, ids.length + n);
+            for (int i = ids.length; i < grown.length; i++) grown[i] = BookingIdGenerator.firstIdAt(BookingIdGenerator.EPOCH_MILLIS + 1_000L * i);
+            ids = grown;
+        }
+
+        // An older booking written late, between row - 1 and row
+        void insertBefore(int row) {
+            long[] grown = new long[ids.length + 1];
+            System.arraycopy(ids, 0, grown, 0, row);
+            grown[row] = BookingIdGenerator.firstIdAt(BookingIdGenerator.EPOCH_MILLIS + 1_000L * row - 500);
+            System.arraycopy(ids, row, grown, row + 1, ids.length - row);
+            ids = grown;
+        }
+
+        private int firstAfter(Object after) throws SQLException {
+            if (!up) throw new SQLException("DB connection returned null");
+            if (after == null) return 0;
+            int i = Arrays.binarySearch(ids, BookingIdGenerator.decode((String) after));
+            return i >= 0 ? i + 1 : -i - 1;
+        }
+
+        @Override
+        public int count() throws SQLException {
+            firstAfter(null);
+            return ids.length;
+        }
+
+        // A range count on the index: no key is returned
+        @Override
+        public int countAfter(Object after) throws SQLException {
+            return ids.length - firstAfter(after);
+        }
+
+        @Override
+        public List<Object> pageStarts(Object after, int pageSize) throws SQLException {
+            int from = firstAfter(after);
+            List<Object> starts = new ArrayList<>();
+            for (int i = from + pageSize - 1; i < ids.length; i += pageSize) starts.add(code(i));
+            keysRead.addAndGet(ids.length - from);
+            return starts;
+        }
+
+        @Override
+        public PagedBookingTableModel.Page page(Object after, int limit) throws SQLException {
+            int from = firstAfter(after);
+            int to = Math.min(ids.length, from + limit);
+            Object[][] out = new Object[to - from][];
+            for (int i = from; i < to; i++) {
+                out[i - from] = new Object[]{code(i), "TN01AB" + i, "A1", "Owner", "9000000000", "2025-01-01 00:00", "1h", "30.00", "BOOKED"};
+            }
+            rowsRead.addAndGet(out.length);
+            return new PagedBookingTableModel.Page(out, to > from ? code(to - 1) : null);
+        }
+    }
+}
@@ -1,48 +1,85 @@
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ParkingLot {
     private List<ParkingSpot> spots;
+    private FreeSpotIndex freeSpots;
+    // Normalized plate -> spot, kept in step with freeSpots under the lot lock
+    private Map<String, ParkingSpot> spotsByPlate;
 
     public ParkingLot(int totalSpots) {
         spots = new ArrayList<>();
         for (int i = 1; i <= totalSpots; i++) {
             spots.add(new ParkingSpot(i));
         }
+        freeSpots = new FreeSpotIndex(totalSpots);
+        spotsByPlate = new HashMap<>();
     }
 
-    public ParkingTicket parkCar(Car car) {
-        for (ParkingSpot spot : spots) {
-            if (!spot.isOccupied()) {
-                spot.parkCar(car);
-                ParkingTicket ticket = new ParkingTicket(car, spot.getNumber(), LocalDateTime.now());
+    /**
+     * Normalizes a plate for lookups: "mh-02 ab 10" and "MH02AB10" are the same car.
+     */
+    static String normalizePlate(String carNumber) {
+        StringBuilder sb = new StringBuilder(carNumber.length());
+        for (int i = 0; i < carNumber.length(); i++) {
+            char c = carNumber.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toUpperCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    public synchronized boolean isParked(String carNumber) {
+        return spotsByPlate.containsKey(normalizePlate(carNumber));
+    }
 
-                // ✅ Generate QR Code
-               String qrData = ticket.toString();
-               String qrFileName = "Car_" + car.getNumber() + ".png";
-               int width = 300;   // QR code width
-               int height = 300;  // QR code height
-               QRGenerator.generateQRCode(qrData, qrFileName, width, height);
+    public ParkingTicket parkCar(Car car) {
+        String plate = normalizePlate(car.getNumber());
+        ParkingSpot spot;
+        synchronized (this) {
+            ParkingSpot existing = spotsByPlate.get(plate);
+            if (existing != null) {
+                throw new IllegalStateException("Car " + car.getNumber() + " is already parked at spot " + existing.getNumber());
+            }
 
-                return ticket;
+            int index = freeSpots.firstFree();
+            if (index < 0) {
+                return null; // Parking full
             }
+
+            spot = spots.get(index);
+            spot.parkCar(car);
+            freeSpots.markOccupied(index);
+            spotsByPlate.put(plate, spot);
         }
-        return null; // Parking full
+        ParkingTicket ticket = new ParkingTicket(car, spot.getNumber(), LocalDateTime.now());
+
+        // ✅ Generate QR Code
+        String qrData = ticket.toString();
+        String qrFileName = "Car_" + car.getNumber() + ".png";
+        int width = 300;   // QR code width
+        int height = 300;  // QR code height
+        QRGenerator.generateQRCode(qrData, qrFileName, width, height);
+
+        return ticket;
     }
 
-    public Car removeCar(String carNumber) {
-        for (ParkingSpot spot : spots) {
-            if (spot.isOccupied() && spot.getCar().getNumber().equalsIgnoreCase(carNumber)) {
-                Car c = spot.getCar();
-                spot.removeCar();
-                return c;
-            }
+    public synchronized Car removeCar(String carNumber) {
+        ParkingSpot spot = spotsByPlate.remove(normalizePlate(carNumber));
+        if (spot == null) {
+            return null;
         }
-        return null;
+        Car c = spot.getCar();
+        spot.removeCar();
+        freeSpots.markFree(spot.getNumber() - 1);
+        return c;
     }
 
-    public String listCars() {
+    public synchronized String listCars() {
         StringBuilder sb = new StringBuilder("== Parked Cars ==\n");
         for (ParkingSpot spot : spots) {
             if (spot.isOccupied()) {
@@ -56,11 +93,7 @@ public class ParkingLot {
         return sb.toString();
     }
 
-    public int getTotalParkedCars() {
-        int count = 0;
-        for (ParkingSpot spot : spots) {
-            if (spot.isOccupied()) count++;
-        }
-        return count;
+    public synchronized int getTotalParkedCars() {
+        return freeSpots.occupiedCount();
     }
 }
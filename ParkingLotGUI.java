@@ -5,15 +5,23 @@ import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.BufferedImage;
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.io.File;
+import java.io.IOException;
 
 public class ParkingLotGUI extends JFrame {
     private CardLayout cardLayout;
     private JPanel mainPanel;
-    private DefaultTableModel databaseTableModel;
+    // Algorithm: Keyset-paged lazy table model; only the visible pages and a small LRU cache are in memory
+    private PagedBookingTableModel databaseTableModel;
     private JTable databaseTable;
     private Map<String, ParkingSpot> parkingSpots;
     private String currentUser = "";
@@ -26,14 +34,75 @@ public class ParkingLotGUI extends JFrame {
     // Store current booking details for display after scan
     private Map<String, String> currentBookingDetails = new HashMap<>();
     
-    // Local fallback storage when DB not available
-    private final java.util.List<Map<String, String>> localBookings = new ArrayList<>();
+    // Local fallback storage when DB not available: typed Booking records, insertion-ordered, hash-indexed by id, vehicle and slot
+    private final BookingStore localBookings = new BookingStore();
+
+    // Algorithm: Checksummed write-ahead log with group commit, replayed into localBookings on startup
+    private BookingWal bookingWal;
     
-    // Payment helper
-    private final Payment paymentCalc = new Payment();
+    // Tariffs from tariffs.txt, compiled to fee tables and swapped in atomically when the file changes
+    private final TariffRegistry tariffs = new TariffRegistry(new File(TariffSchedule.DEFAULT_FILE).toPath());
     
-    // Algorithm: Priority Queue for slot allocation
-    private PriorityQueue<String> availableSlotQueue;
+    // Algorithm: Lot -> floor -> zone model, each zone with its own lock-free free list
+    private LotModel lotModel;
+    private static final String ANY_ZONE = "Any";   // no preferred zone: the lot's first zone is nearest
+
+    // Algorithm: Per-spot interval index of [start, end) bookings, so advance bookings never overlap
+    private ReservationBook reservations;
+
+    // Crash-safe occupancy: one memory-mapped record per slot, restored on startup without the DB
+    private OccupancyFile occupancyFile;
+
+    // Algorithm: Lock-free sliding window of arrivals / departures per zone, feeding the surge multiplier
+    private DemandTracker demand;
+    private DynamicPricing dynamicPricing;
+
+    // Algorithm: Time-ordered 64-bit booking ids (timestamp | node | sequence), unique across gates and nodes
+    private final BookingIdGenerator bookingIds = new BookingIdGenerator(BookingIdGenerator.nodeIdFromSystem());
+
+    // Bookings that reached the DB (from the live writer or the offline resync) leave local storage
+    private final BookingWriter.Listener bookingsSaved = new BookingWriter.Listener() {
+        @Override
+        public void written(java.util.List<Booking> batch) {
+            for (Booking b : batch) {
+                localBookings.remove(b.getCode());   // in the DB now; local storage keeps only what is not
+            }
+            if (bookingWal != null) {
+                try {
+                    bookingWal.appendSynced(batch);
+                } catch (IOException ex) {
+                    System.err.println("Could not log synced bookings: " + ex.getMessage());
+                }
+            }
+            SwingUtilities.invokeLater(ParkingLotGUI.this::updateDatabaseTable);
+        }
+
+        @Override
+        public void failed(java.util.List<Booking> batch, Exception e) {
+            System.err.println("Could not save " + batch.size() + " bookings to DB, keeping them locally: " + e.getMessage());
+            SwingUtilities.invokeLater(ParkingLotGUI.this::updateDatabaseTable);
+        }
+
+        @Override
+        public void poisoned(Booking booking, Exception e) {
+            System.err.println("DB rejected booking " + booking.getCode() + ", keeping it locally: " + e.getMessage());
+            SwingUtilities.invokeLater(ParkingLotGUI.this::updateDatabaseTable);
+        }
+    };
+
+    // Algorithm: Single logging thread; keeps the write-ahead log fsync off the EDT, in booking order
+    private final ExecutorService bookingLog = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "booking-log");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Algorithm: Write-behind queue; the gate only enqueues, one thread inserts bookings in ordered JDBC batches
+    private final BookingWriter.JdbcSink bookingSink = new BookingWriter.JdbcSink(localBookings);
+    private final BookingWriter bookingWriter = new BookingWriter(bookingSink, bookingsSaved);
+
+    // Algorithm: Throttled background drain of offline bookings, idempotent upserts by booking id
+    private final OfflineResync offlineResync = new OfflineResync(localBookings, new BookingWriter.JdbcSink(localBookings), bookingsSaved, bookingWriter::queued);
 
     public ParkingLotGUI() {
         setTitle("QR Smart Vehicle Parking System");
@@ -41,9 +110,22 @@ public class ParkingLotGUI extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
 
-        parkingSpots = new HashMap<>();
-        availableSlotQueue = new PriorityQueue<>();
+        parkingSpots = new ConcurrentHashMap<>();
         initializeParkingSpots();
+        tariffs.watch(5_000);
+        reservations.purgeEvery(60_000);   // stays that have ended no longer need their interval
+        try {
+            bookingWal = BookingWal.open(new File(BookingWal.DEFAULT_DIR).toPath(), localBookings);
+            if (localBookings.size() > 0) {
+                System.out.println("Restored " + localBookings.size() + " offline bookings from " + BookingWal.DEFAULT_DIR + " in " + bookingWal.replayMillis() + " ms");
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not open " + BookingWal.DEFAULT_DIR + ", offline bookings will not survive a restart: " + e.getMessage());
+            bookingWal = null;
+        }
+        offlineResync.start(15_000);
+        // Window close exits the JVM: flush what is still queued before it goes
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutDownPersistence, "booking-shutdown"));
 
         cardLayout = new CardLayout();
         mainPanel = new JPanel(cardLayout);
@@ -59,65 +141,102 @@ public class ParkingLotGUI extends JFrame {
         cardLayout.show(mainPanel, "login");
     }
 
+    private void shutDownPersistence() {
+        bookingLog.shutdown();
+        try {
+            if (!bookingLog.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("Bookings still being logged at exit");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        offlineResync.stop();
+        if (!bookingWriter.close(5_000)) {
+            System.err.println(bookingWriter.queued() + " bookings not written at exit; they stay in " + BookingWal.DEFAULT_DIR);
+        }
+        if (bookingWal != null) {
+            try {
+                bookingWal.close();
+            } catch (IOException ex) {
+                System.err.println("Could not close " + BookingWal.DEFAULT_DIR + ": " + ex.getMessage());
+            }
+        }
+    }
+
     // ======================= ALGORITHM IMPLEMENTATION =======================
     /**
-     * ALGORITHM 1: Priority Queue for Optimal Slot Allocation
-     * Time Complexity: O(log n) for insertion and removal
+     * ALGORITHM 1: Zone-striped Lock-free Slot Allocation (see LotModel, SlotAllocator)
+     * Time Complexity: O(1) claim / release, near-constant nearest-slot lookup
      * Space Complexity: O(n) where n is number of parking slots
      * 
      * This algorithm ensures that:
-     * 1. Slots are allocated in sorted order (A1, A2, A3...)
-     * 2. Nearest available slot is always suggested first
-     * 3. Efficient slot management using heap data structure
+     * 1. Nearest available slot in the preferred zone is suggested first
+     * 2. Vehicles get the best-fitting spot class (bike -> car -> large)
+     * 3. A full zone spills to its neighbours (same floor, then nearest floor)
+     * 4. Several gates can allocate and release at the same time
+     * 5. A slot is never handed out twice (claims are a single CAS)
      */
-    private String getOptimalSlot() {
-        if (!availableSlotQueue.isEmpty()) {
-            return availableSlotQueue.peek();
-        }
-        return null;
+    private String getOptimalSlot(VehicleClass vehicleClass, String preferredZone) {
+        return lotModel.peekFirstFree(vehicleClass, preferredZone);
     }
     
-    private void allocateSlot(String slotId) {
-        availableSlotQueue.remove(slotId);
-        if (parkingSpots.containsKey(slotId)) {
-            parkingSpots.get(slotId).setAvailable(false);
+    private boolean allocateSlot(String slotId, VehicleClass vehicleClass, String vehicleNumber) {
+        if (!lotModel.claim(slotId, vehicleClass)) {
+            return false;
+        }
+        ParkingSpot spot = parkingSpots.get(slotId);
+        spot.setVehicleNumber(vehicleNumber);
+        spot.setAvailable(false);
+        if (occupancyFile != null) {
+            occupancyFile.markOccupied(slotId, vehicleNumber);
         }
+        if (demand != null) {
+            demand.recordArrival(lotModel.zoneOf(slotId).getId(), System.currentTimeMillis());
+        }
+        return true;
     }
     
+    /**
+     * Books [startMinute, endMinute) on the slot for an advance booking
+     * without claiming it. If the window was taken meanwhile, books the
+     * nearest fitting slot to its zone that is free for the window instead.
+     * Returns the slot booked, or null if none is free.
+     */
+    private String holdInAdvance(String slotId, VehicleClass vehicleClass, long startMinute, long endMinute) {
+        LotModel.Zone zone = lotModel.zoneOf(slotId);
+        if (zone == null) {
+            return null;   // "No slots available"
+        }
+        if (reservations.reserve(slotId, startMinute, endMinute)) {
+            return slotId;
+        }
+        return reservations.reserveFirstFree(vehicleClass, zone.getName(), startMinute, endMinute);
+    }
+
     private void releaseSlot(String slotId) {
-        availableSlotQueue.offer(slotId);
-        if (parkingSpots.containsKey(slotId)) {
-            parkingSpots.get(slotId).setAvailable(true);
-            parkingSpots.get(slotId).setVehicleNumber("");
+        if (!lotModel.release(slotId)) {
+            return;
         }
+        if (occupancyFile != null) {
+            occupancyFile.markFree(slotId);
+        }
+        if (demand != null) {
+            demand.recordDeparture(lotModel.zoneOf(slotId).getId(), System.currentTimeMillis());
+        }
+        reservations.finish(slotId, System.currentTimeMillis() / 60_000L);   // left early: the rest of the window is free again
+        ParkingSpot spot = parkingSpots.get(slotId);
+        spot.setVehicleNumber("");
+        spot.setAvailable(true);
     }
 
     /**
-     * ALGORITHM 2: Binary Search for Quick Booking Lookup
-     * Time Complexity: O(log n)
-     * Used for searching bookings in sorted database
+     * ALGORITHM 2: Hash Index for Quick Booking Lookup
+     * Time Complexity: O(1)
+     * Used for searching locally stored bookings by booking id
      */
-    private Map<String, String> binarySearchBooking(String bookingId) {
-        // Sort bookings by ID first
-        Collections.sort(localBookings, (a, b) -> 
-            a.getOrDefault("booking_id", "").compareTo(b.getOrDefault("booking_id", "")));
-        
-        int left = 0, right = localBookings.size() - 1;
-        
-        while (left <= right) {
-            int mid = left + (right - left) / 2;
-            String midId = localBookings.get(mid).getOrDefault("booking_id", "");
-            
-            int comparison = midId.compareTo(bookingId);
-            if (comparison == 0) {
-                return localBookings.get(mid);
-            } else if (comparison < 0) {
-                left = mid + 1;
-            } else {
-                right = mid - 1;
-            }
-        }
-        return null;
+    private Map<String, String> findBooking(String bookingId) {
+        Booking booking = localBookings.get(bookingId);
+        return booking == null ? null : localBookings.toMap(booking);
     }
 
     // ======================= LOGIN SCREEN =======================
@@ -255,7 +374,7 @@ public class ParkingLotGUI extends JFrame {
         welcomeLabel.setForeground(new Color(46, 125, 50));
         welcomePanel.add(welcomeLabel, BorderLayout.NORTH);
 
-        JLabel infoLabel = new JLabel("<html><div style='margin-top:10px;'>Book your parking slot quickly and securely with QR code technology.<br>Using <b>Priority Queue Algorithm</b> for optimal slot allocation!</div></html>");
+        JLabel infoLabel = new JLabel("<html><div style='margin-top:10px;'>Book your parking slot quickly and securely with QR code technology.<br>Using <b>Bitmap Slot Allocator</b> for optimal slot allocation!</div></html>");
         infoLabel.setFont(new Font("Arial", Font.PLAIN, 14));
         welcomePanel.add(infoLabel, BorderLayout.CENTER);
 
@@ -276,18 +395,37 @@ public class ParkingLotGUI extends JFrame {
         gbc.insets = new Insets(10, 15, 10, 15);
         gbc.fill = GridBagConstraints.HORIZONTAL;
 
-        String[] labels = {"Vehicle Number:", "Vehicle Type:", "Owner Name:", "Phone Number:", "Duration (hours):", "Parking Slot:"};
+        String[] labels = {"Vehicle Number:", "Vehicle Type:", "Preferred Zone:", "Owner Name:", "Phone Number:", "Duration (hours):", "Starts in (hours):", "Parking Slot:"};
         JTextField vehicleNumField = new JTextField(20);
         JComboBox<String> vehicleTypeBox = new JComboBox<>(new String[]{"Car", "Bike", "SUV", "Van"});
+        // Defaults to the zone this gate opens onto (-Dparking.gate.zone=B), else any zone
+        JComboBox<String> zoneBox = new JComboBox<>();
+        zoneBox.addItem(ANY_ZONE);
+        for (LotModel.Zone zone : lotModel.getZones()) {
+            zoneBox.addItem(zone.getName());
+        }
+        String gateZone = System.getProperty("parking.gate.zone");
+        if (gateZone != null && lotModel.getZone(gateZone) != null) {
+            zoneBox.setSelectedItem(gateZone);
+        }
         JTextField ownerField = new JTextField(20);
         JTextField phoneField = new JTextField(20);
         JSpinner durationSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 72, 1));
+        JSpinner startSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 72, 1));
+        startSpinner.setToolTipText("0 parks now; later books the slot in advance for that window");
         JComboBox<String> slotBox = new JComboBox<>();
         
-        // Use algorithm to populate slots
-        updateSlotDropdown(slotBox);
-
-        Component[] components = {vehicleNumField, vehicleTypeBox, ownerField, phoneField, durationSpinner, slotBox};
+        // Use algorithm to populate slots that fit the selected vehicle type and are
+        // not reserved for an advance booking during the chosen stay
+        Runnable refreshSlots = () -> updateSlotDropdown(slotBox, VehicleClass.fromType((String) vehicleTypeBox.getSelectedItem()),
+            preferredZone(zoneBox), (Integer) durationSpinner.getValue(), (Integer) startSpinner.getValue());
+        refreshSlots.run();
+        vehicleTypeBox.addActionListener(e -> refreshSlots.run());
+        zoneBox.addActionListener(e -> refreshSlots.run());
+        durationSpinner.addChangeListener(e -> refreshSlots.run());
+        startSpinner.addChangeListener(e -> refreshSlots.run());
+
+        Component[] components = {vehicleNumField, vehicleTypeBox, zoneBox, ownerField, phoneField, durationSpinner, startSpinner, slotBox};
 
         for (int i = 0; i < labels.length; i++) {
             gbc.gridx = 0;
@@ -321,23 +459,67 @@ public class ParkingLotGUI extends JFrame {
             String owner = ownerField.getText().trim();
             String phone = phoneField.getText().trim();
             String vehicleType = (String) vehicleTypeBox.getSelectedItem();
+            VehicleClass vehicleClass = VehicleClass.fromType(vehicleType);
             int duration = (Integer) durationSpinner.getValue();
-            String slot = (String) slotBox.getSelectedItem();
+            int startsIn = (Integer) startSpinner.getValue();
+            String picked = (String) slotBox.getSelectedItem();
 
-            if (vehicleNum.isEmpty() || owner.isEmpty() || phone.isEmpty() || slot == null) {
+            if (vehicleNum.isEmpty() || owner.isEmpty() || phone.isEmpty() || picked == null) {
                 JOptionPane.showMessageDialog(this, "Please fill all fields!", "Validation Error", JOptionPane.WARNING_MESSAGE);
                 return;
             }
 
-            // Create booking id and inTime
-            currentBookingId = "BK" + System.currentTimeMillis();
-            String inTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-            String status = "Booked";
+            long now = System.currentTimeMillis();
+            long startMillis = now + startsIn * 3_600_000L;
+            long startMinute = startMillis / 60_000L;
+            long endMinute = startMinute + duration * 60L;
+            String slot;
+            long fee;
+            if (startsIn > 0) {
+                // Algorithm: An advance booking only holds the window in the reservation book;
+                // the slot stays free for walk-ins until it starts. If the picked slot was held
+                // since the dropdown was filled, the nearest one free for the window is taken
+                slot = holdInAdvance(picked, vehicleClass, startMinute, endMinute);
+                if (slot == null) {
+                    JOptionPane.showMessageDialog(this, "No slot for a " + vehicleType + " is free for " + duration + " hours starting in " + startsIn + " hours. Please pick another time.", "No Slot Free", JOptionPane.WARNING_MESSAGE);
+                    refreshSlots.run();
+                    return;
+                }
+                // Priced by the tariff in force at its start; the surge follows who is parked now, so it is left out
+                fee = tariffs.current().fee(vehicleClass, TariffSchedule.localMinute(startMillis), duration * DurationEngine.MINUTES_PER_HOUR);
+            } else {
+                slot = picked;
+                // Amount calculation: one snapshot of the tariff prices the whole stay,
+                // then the zone's surge multiplier applies when dynamic pricing is on.
+                // Priced before the claim, so the surge reflects the lot this driver
+                // found, not one that already counts their own arrival
+                fee = tariffs.current().fee(vehicleClass, TariffSchedule.localMinute(now), duration * DurationEngine.MINUTES_PER_HOUR);
+                LotModel.Zone bookedZone = lotModel.zoneOf(slot);
+                if (bookedZone != null) {
+                    fee = dynamicPricing.apply(fee, bookedZone.getId(), now);
+                }
 
-            // Amount calculation
-            float amountFloat = paymentCalc.TotalAmount(duration, 0);
+                // Algorithm: Reserve the stay window, then claim the slot, so neither an
+                // advance booking nor another gate can end up with the same slot
+                if (lotModel.zoneOf(slot) != null && !reservations.reserve(slot, startMinute, endMinute)) {
+                    JOptionPane.showMessageDialog(this, "Slot " + slot + " is reserved for an advance booking within the next " + duration + " hours. Please pick another slot or a shorter duration.", "Slot Reserved", JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+                if (!allocateSlot(slot, vehicleClass, vehicleNum)) {
+                    reservations.cancel(slot, startMinute);
+                    JOptionPane.showMessageDialog(this, "Slot " + slot + " is no longer available for a " + vehicleType + ". Please pick another slot.", "Slot Taken", JOptionPane.WARNING_MESSAGE);
+                    refreshSlots.run();
+                    return;
+                }
+            }
+            float amountFloat = fee / 100f;
             String amount = String.format("%.2f", amountFloat);
 
+            // Create booking id and inTime (the start of the window for an advance booking)
+            currentBookingId = bookingIds.nextCode();
+            String inTime = LocalDateTime.now().plusHours(startsIn).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            String status = "Booked";
+
             // Store booking details
             currentBookingDetails.clear();
             currentBookingDetails.put("booking_id", currentBookingId);
@@ -351,72 +533,84 @@ public class ParkingLotGUI extends JFrame {
             currentBookingDetails.put("in_time", inTime);
             currentBookingDetails.put("status", status);
 
-            // Algorithm: Allocate slot using priority queue
-            allocateSlot(slot);
-
-            // Save to DB
-            addBookingToDB(currentBookingId, vehicleNum, slot, owner, phone, inTime, duration + " hrs", amount, status);
-
-            // Generate QR Code with enhanced data
-            String qrFileName = "QR_" + currentBookingId + ".png";
-            String qrData = String.format(
-                "╔══════════════════════════════════╗\n" +
-                "║   QR SMART PARKING SYSTEM       ║\n" +
-                "╚══════════════════════════════════╝\n\n" +
-                "Booking ID: %s\n" +
-                "Vehicle Number: %s\n" +
-                "Owner Name: %s\n" +
-                "Phone: %s\n" +
-                "Parking Slot: %s\n" +
-                "Vehicle Type: %s\n" +
-                "Duration: %d hours\n" +
-                "Total Cost: ₹%s\n" +
-                "Booking Time: %s\n" +
-                "Status: %s\n\n" +
-                "═══════════════════════════════════\n" +
-                "Please scan this QR code at entry.\n" +
-                "Keep this code until check-out.\n" +
-                "═══════════════════════════════════",
-                currentBookingId, vehicleNum, owner, phone, slot, vehicleType, duration, amount, inTime, status
-            );
+            // Save to DB; no ticket for a booking that could not be saved anywhere. The write-ahead
+            // log fsync runs on the booking-log thread and the ticket follows on the EDT once it is done
+            String bookingId = currentBookingId;
+            bookBtn.setEnabled(false);
+            addBookingToDB(bookingId, vehicleNum, slot, owner, phone, inTime, duration + " hrs", amount, status).thenAcceptAsync(saved -> {
+                bookBtn.setEnabled(true);
+                if (!saved) {
+                    if (startsIn == 0) {
+                        releaseSlot(slot);
+                    }
+                    reservations.cancel(slot, startMinute);
+                    JOptionPane.showMessageDialog(this, "Booking " + bookingId + " could not be saved, no ticket was issued. Please try again.", "Booking Failed", JOptionPane.ERROR_MESSAGE);
+                    refreshSlots.run();
+                    return;
+                }
 
-            try {
-                // Generate QR and get the image
-                currentQRImage = QRGenerator.generateQRCode(qrData, qrFileName, 400, 400);
+                // Generate QR Code with enhanced data
+                String qrFileName = "QR_" + bookingId + ".png";
+                String qrData = String.format(
+                    "╔══════════════════════════════════╗\n" +
+                    "║   QR SMART PARKING SYSTEM       ║\n" +
+                    "╚══════════════════════════════════╝\n\n" +
+                    "Booking ID: %s\n" +
+                    "Vehicle Number: %s\n" +
+                    "Owner Name: %s\n" +
+                    "Phone: %s\n" +
+                    "Parking Slot: %s\n" +
+                    "Vehicle Type: %s\n" +
+                    "Duration: %d hours\n" +
+                    "Total Cost: ₹%s\n" +
+                    "Booking Time: %s\n" +
+                    "Status: %s\n\n" +
+                    "═══════════════════════════════════\n" +
+                    "Please scan this QR code at entry.\n" +
+                    "Keep this code until check-out.\n" +
+                    "═══════════════════════════════════",
+                    bookingId, vehicleNum, owner, phone, slot, vehicleType, duration, amount, inTime, status
+                );
+
+                try {
+                    // Generate QR and get the image
+                    currentQRImage = QRGenerator.generateQRCode(qrData, qrFileName, 400, 400);
                 
-                if (currentQRImage != null) {
-                    // Show QR Code in enhanced popup
-                    showEnhancedQRPopup(currentQRImage, currentBookingId, qrFileName);
+                    if (currentQRImage != null) {
+                        // Show QR Code in enhanced popup
+                        showEnhancedQRPopup(currentQRImage, bookingId, qrFileName);
                     
+                        JOptionPane.showMessageDialog(this, 
+                            "✅ Booking Successful!\n\n" +
+                            "Booking ID: " + bookingId + "\n" +
+                            "Slot: " + slot + (startsIn > 0 ? ", held from " + inTime : "") + "\n" +
+                            "QR Code generated and saved.\n\n" +
+                            "You can scan it with Google Lens or any QR scanner!", 
+                            "Success", 
+                            JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        throw new Exception("QR generation returned null");
+                    }
+                
+                } catch (Exception ex) {
+                    ex.printStackTrace();
                     JOptionPane.showMessageDialog(this, 
-                        "✅ Booking Successful!\n\n" +
-                        "Booking ID: " + currentBookingId + "\n" +
-                        "Slot: " + slot + "\n" +
-                        "QR Code generated and saved.\n\n" +
-                        "You can scan it with Google Lens or any QR scanner!", 
-                        "Success", 
-                        JOptionPane.INFORMATION_MESSAGE);
-                } else {
-                    throw new Exception("QR generation returned null");
+                        "⚠️ Booking saved but QR generation failed!\n" +
+                        "Error: " + ex.getMessage(), 
+                        "Warning", 
+                        JOptionPane.WARNING_MESSAGE);
                 }
-                
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(this, 
-                    "⚠️ Booking saved but QR generation failed!\n" +
-                    "Error: " + ex.getMessage(), 
-                    "Warning", 
-                    JOptionPane.WARNING_MESSAGE);
-            }
 
-            // Clear fields
-            vehicleNumField.setText("");
-            ownerField.setText("");
-            phoneField.setText("");
-            durationSpinner.setValue(1);
+                // Clear fields
+                vehicleNumField.setText("");
+                ownerField.setText("");
+                phoneField.setText("");
+                durationSpinner.setValue(1);
+                startSpinner.setValue(0);
             
-            // Refresh slot dropdown using algorithm
-            updateSlotDropdown(slotBox);
+                // Refresh slot dropdown using algorithm
+                refreshSlots.run();
+            }, SwingUtilities::invokeLater);
         });
 
         contentPanel.add(bookingPanel, BorderLayout.CENTER);
@@ -607,19 +801,38 @@ public class ParkingLotGUI extends JFrame {
     }
 
     // ======================= UPDATE SLOT DROPDOWN USING ALGORITHM =======================
-    private void updateSlotDropdown(JComboBox<String> slotBox) {
+    private void updateSlotDropdown(JComboBox<String> slotBox, VehicleClass vehicleClass, String preferredZone, int hours, int startsIn) {
         slotBox.removeAllItems();
-        // Priority queue automatically maintains sorted order
-        PriorityQueue<String> tempQueue = new PriorityQueue<>(availableSlotQueue);
-        while (!tempQueue.isEmpty()) {
-            slotBox.addItem(tempQueue.poll());
+        // Each fitting pool walks its free bits in natural slot order (A2 before A10), no queue copy needed;
+        // one O(log b) interval lookup per slot drops those held by an advance booking in the stay window.
+        // A window that starts later may use a slot that is taken now, so every fitting slot is a candidate,
+        // nearest to the preferred zone first
+        long startMinute = System.currentTimeMillis() / 60_000L + startsIn * 60L;
+        long endMinute = startMinute + hours * 60L;
+        java.util.List<String> candidates = startsIn > 0 ? lotModel.fittingSlots(vehicleClass, preferredZone) : lotModel.availableSlots(vehicleClass);
+        for (String slotId : candidates) {
+            if (reservations.isFree(slotId, startMinute, endMinute)) {
+                slotBox.addItem(slotId);
+            }
         }
         
         if (slotBox.getItemCount() == 0) {
             slotBox.addItem("No slots available");
+        } else if (startsIn == 0) {
+            // Walk-ins: suggest the nearest free slot to the preferred zone (ALGORITHM 1),
+            // unless an advance booking holds it during the stay
+            String optimal = getOptimalSlot(vehicleClass, preferredZone);
+            if (optimal != null && reservations.isFree(optimal, startMinute, endMinute)) {
+                slotBox.setSelectedItem(optimal);
+            }
         }
     }
 
+    private static String preferredZone(JComboBox<String> zoneBox) {
+        String zone = (String) zoneBox.getSelectedItem();
+        return zone == null || ANY_ZONE.equals(zone) ? null : zone;
+    }
+
     // ======================= QR MODULE (Updated) =======================
     private JPanel createQRModule() {
         JPanel panel = new JPanel(new BorderLayout());
@@ -714,23 +927,25 @@ public class ParkingLotGUI extends JFrame {
         JPanel summaryPanel = new JPanel(new GridLayout(1, 3, 15, 0));
         summaryPanel.setBackground(Color.WHITE);
 
-        long available = parkingSpots.values().stream().filter(ParkingSpot::isAvailable).count();
-        long occupied = parkingSpots.size() - available;
+        // Algorithm: O(1) read of the striped occupancy counters, no pass over the spots
+        OccupancyCounters counters = lotModel.getCounters();
+        long available = counters.available();
+        long occupied = counters.occupied();
 
-        summaryPanel.add(createStatCard("Total Slots", String.valueOf(parkingSpots.size()), new Color(33, 150, 243), "🅿️"));
+        summaryPanel.add(createStatCard("Total Slots", String.valueOf(counters.capacity()), new Color(33, 150, 243), "🅿️"));
         summaryPanel.add(createStatCard("Available", String.valueOf(available), new Color(76, 175, 80), "✓"));
         summaryPanel.add(createStatCard("Occupied", String.valueOf(occupied), new Color(244, 67, 54), "✗"));
 
         contentPanel.add(summaryPanel, BorderLayout.NORTH);
 
-        JPanel gridPanel = new JPanel(new GridLayout(4, 5, 10, 10));
+        JPanel gridPanel = new JPanel(new GridLayout(0, 5, 10, 10));
         gridPanel.setBackground(Color.WHITE);
         gridPanel.setBorder(new EmptyBorder(20, 0, 20, 0));
 
-        parkingSpots.forEach((slotId, spot) -> {
-            JPanel slotPanel = createSlotPanel(slotId, spot);
+        for (String slotId : lotModel.allSlots()) {
+            JPanel slotPanel = createSlotPanel(slotId, parkingSpots.get(slotId));
             gridPanel.add(slotPanel);
-        });
+        }
 
         JScrollPane scrollPane = new JScrollPane(gridPanel);
         scrollPane.setBorder(null);
@@ -785,8 +1000,14 @@ public class ParkingLotGUI extends JFrame {
 
         viewBookingsBtn.addActionListener(e -> JOptionPane.showMessageDialog(this, "Viewing all bookings..."));
         manageSlotsBtn.addActionListener(e -> cardLayout.show(mainPanel, "allocation"));
-        reportsBtn.addActionListener(e -> JOptionPane.showMessageDialog(this, "Generating reports..."));
-        settingsBtn.addActionListener(e -> JOptionPane.showMessageDialog(this, "Opening settings..."));
+        reportsBtn.addActionListener(e -> showSettlementReport(LocalDate.now()));
+        settingsBtn.addActionListener(e -> {
+            JCheckBox surgeBox = new JCheckBox("Dynamic pricing (surge up to 2x as zones fill up)", dynamicPricing.isEnabled());
+            int choice = JOptionPane.showConfirmDialog(this, surgeBox, "Settings", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+            if (choice == JOptionPane.OK_OPTION) {
+                dynamicPricing.setEnabled(surgeBox.isSelected());
+            }
+        });
         databaseBtn.addActionListener(e -> {
             updateDatabaseTable();
             cardLayout.show(mainPanel, "database");
@@ -827,6 +1048,37 @@ public class ParkingLotGUI extends JFrame {
         return panel;
     }
 
+    // Algorithm: End-of-day settlement, streamed in bounded chunks and priced with fork/join off the EDT
+    private void showSettlementReport(LocalDate day) {
+        SettlementEngine engine = new SettlementEngine(lotModel, tariffs.current());
+        java.util.List<Booking> localCopy = localBookings.snapshot();
+        new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() throws Exception {
+                try (Connection conn = DBConnection.getConnection()) {
+                    if (conn != null) {
+                        return engine.settleDay(conn, day, SettlementEngine.DEFAULT_FETCH_SIZE).report();
+                    }
+                } catch (SQLException ex) {
+                    System.err.println("Settlement from DB failed, using local bookings: " + ex.getMessage());
+                }
+                return engine.settleDay(localCopy, day).report();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    JTextArea text = new JTextArea(get());
+                    text.setFont(new Font("Monospaced", Font.PLAIN, 13));
+                    text.setEditable(false);
+                    JOptionPane.showMessageDialog(ParkingLotGUI.this, new JScrollPane(text), "Settlement for " + day, JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(ParkingLotGUI.this, "Settlement failed: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
     // ======================= DATABASE MODULE =======================
     private JPanel createDatabaseModule() {
         JPanel panel = new JPanel(new BorderLayout());
@@ -873,8 +1125,12 @@ public class ParkingLotGUI extends JFrame {
 
         contentPanel.add(controlPanel, BorderLayout.NORTH);
 
-        String[] columns = {"S.No", "Booking ID", "Vehicle No", "Spot No", "Name", "Phone", "In Time", "Duration", "Amount", "Status"};
-        databaseTableModel = new DefaultTableModel(columns, 0);
+        // Page and fetch sizes overridable with -Dparking.table.pageSize=... and -Dparking.db.fetchSize=...
+        databaseTableModel = new PagedBookingTableModel(
+                new PagedBookingTableModel.JdbcSource(Integer.getInteger("parking.db.fetchSize", 100)),
+                new PagedBookingTableModel.LocalSource(localBookings),
+                Integer.getInteger("parking.table.pageSize", PagedBookingTableModel.DEFAULT_PAGE_SIZE),
+                PagedBookingTableModel.DEFAULT_CACHED_PAGES);
         databaseTable = new JTable(databaseTableModel);
         styleTable(databaseTable);
 
@@ -896,6 +1152,13 @@ public class ParkingLotGUI extends JFrame {
         JLabel statusLabel = new JLabel("Total Records: 0 | Last Updated: " + getCurrentTime());
         statusLabel.setFont(new Font("Arial", Font.PLAIN, 12));
         bottom.add(statusLabel, BorderLayout.WEST);
+        databaseTableModel.addTableModelListener(e -> {
+            if (e.getLastRow() == Integer.MAX_VALUE) {   // a refresh, not a page arriving
+                statusLabel.setText("Total Records: " + databaseTableModel.getRowCount()
+                        + (databaseTableModel.usingFallback() ? " (local, DB unavailable)" : "")
+                        + " | Last Updated: " + getCurrentTime());
+            }
+        });
 
         contentPanel.add(bottom, BorderLayout.SOUTH);
         panel.add(contentPanel, BorderLayout.CENTER);
@@ -906,17 +1169,45 @@ public class ParkingLotGUI extends JFrame {
 
     // ======================= UTILITY METHODS =======================
     private void initializeParkingSpots() {
-        for (int i = 1; i <= 20; i++) {
-            boolean isAvailable = i > 5;
-            ParkingSpot spot = new ParkingSpot("A" + i, isAvailable);
-            if (!isAvailable) {
-                spot.setVehicleNumber("TN01XX" + (1000 + i));
-            } else {
-                // Add to priority queue for algorithm
-                availableSlotQueue.offer("A" + i);
+        LotLayout layout;
+        try {
+            layout = LotLayout.load(new File(LotLayout.DEFAULT_FILE).toPath());
+        } catch (Exception e) {
+            System.err.println("Could not read " + LotLayout.DEFAULT_FILE + ", using default layout: " + e.getMessage());
+            layout = LotLayout.parse(LotLayout.DEFAULT_LAYOUT);
+        }
+        lotModel = new LotModel(layout);
+        reservations = new ReservationBook(lotModel);
+
+        try {
+            occupancyFile = OccupancyFile.open(new File(OccupancyFile.DEFAULT_FILE).toPath(), lotModel.allSlots());
+        } catch (Exception e) {
+            System.err.println("Could not open " + OccupancyFile.DEFAULT_FILE + ", occupancy will not survive a restart: " + e.getMessage());
+            occupancyFile = null;
+        }
+        boolean restore = occupancyFile != null && !occupancyFile.isFresh();
+
+        int i = 1;
+        for (String slotId : lotModel.allSlots()) {
+            ParkingSpot spot = new ParkingSpot(slotId, true);
+            parkingSpots.put(slotId, spot);
+            if (restore) {
+                // Live state from the last run, no DB round trip needed
+                if (occupancyFile.isOccupied(slotId)) {
+                    lotModel.claim(slotId);
+                    spot.setVehicleNumber(occupancyFile.plateAt(slotId));
+                    spot.setAvailable(false);
+                }
+            } else if (i <= 5) {
+                // First start: seed the demo occupancy
+                allocateSlot(slotId, lotModel.spotClassOf(slotId), "TN01XX" + (1000 + i));
             }
-            parkingSpots.put("A" + i, spot);
+            i++;
         }
+
+        // Created after restore / seeding so cars already parked do not count as fresh arrivals
+        demand = new DemandTracker(lotModel.getZones().size());
+        dynamicPricing = new DynamicPricing(lotModel.getCounters(), demand);
     }
 
     private JPanel createHeaderPanel(String title, String currentScreen) {
@@ -1028,7 +1319,7 @@ public class ParkingLotGUI extends JFrame {
             }
             public void mouseClicked(MouseEvent e) {
                 String status = spot.isAvailable() ? "Available" : "Occupied by: " + spot.getVehicleNumber();
-                JOptionPane.showMessageDialog(null, "Slot: " + slotId + "\nStatus: " + status);
+                JOptionPane.showMessageDialog(null, "Slot: " + slotId + "\nType: " + lotModel.spotClassOf(slotId).getLabel() + "\nStatus: " + status);
             }
         });
 
@@ -1095,128 +1386,15 @@ public class ParkingLotGUI extends JFrame {
         table.setShowGrid(true);
     }
 
+    // Re-counts the rows in the background; the pages on screen reload as they are painted
     private void updateDatabaseTable() {
-        databaseTableModel.setRowCount(0);
-        Connection conn = null;
-        try {
-            conn = DBConnection.getConnection();
-            if (conn == null) throw new SQLException("DB connection returned null");
-
-            String query = "SELECT booking_id, vehicle_number, spot_number, name, phone, in_time, duration, amount, status FROM parking_spots";
-            PreparedStatement ps = conn.prepareStatement(query);
-            ResultSet rs = ps.executeQuery();
-            int serial = 1;
-            boolean hasRows = false;
-
-            while (rs.next()) {
-                hasRows = true;
-                databaseTableModel.addRow(new Object[]{
-                    serial++,
-                    rs.getString("booking_id"),
-                    rs.getString("vehicle_number"),
-                    rs.getString("spot_number"),
-                    rs.getString("name"),
-                    rs.getString("phone"),
-                    rs.getString("in_time"),
-                    rs.getString("duration"),
-                    rs.getString("amount"),
-                    rs.getString("status")
-                });
-            }
-
-            rs.close();
-            ps.close();
-
-            if (!hasRows) {
-                String q2 = "SELECT spot_id, vehicle_number, status, entry_time, exit_time, amount FROM parking_spots";
-                try (PreparedStatement p2 = conn.prepareStatement(q2); ResultSet r2 = p2.executeQuery()) {
-                    int s = 1;
-                    while (r2.next()) {
-                        String bid = "N/A";
-                        String veh = r2.getString("vehicle_number");
-                        String spotNo = String.valueOf(r2.getInt("spot_id"));
-                        String name = "";
-                        String phone = "";
-                        String intime = r2.getString("entry_time");
-                        String duration = "N/A";
-                        String amount = r2.getString("amount");
-                        String status = r2.getString("status");
-                        databaseTableModel.addRow(new Object[]{s++, bid, veh, spotNo, name, phone, intime, duration, amount, status});
-                    }
-                } catch (SQLException ignore) {}
-            }
-            return;
-
-        } catch (SQLException ex) {
-            System.err.println("DB failure in updateDatabaseTable(): " + ex.getMessage());
-        } finally {
-            if (conn != null) try { conn.close(); } catch (SQLException ignored) {}
-        }
-
-        // Fallback: show localBookings
-        int serial = 1;
-        for (Map<String, String> b : localBookings) {
-            databaseTableModel.addRow(new Object[]{
-                serial++,
-                b.getOrDefault("booking_id", ""),
-                b.getOrDefault("vehicle_number", ""),
-                b.getOrDefault("spot_number", ""),
-                b.getOrDefault("name", ""),
-                b.getOrDefault("phone", ""),
-                b.getOrDefault("in_time", ""),
-                b.getOrDefault("duration", ""),
-                b.getOrDefault("amount", ""),
-                b.getOrDefault("status", "")
-            });
-        }
+        databaseTableModel.refresh();
     }
 
-    public void addBookingToDB(String bookingId, String vehicleNumber, String spotNumber, String name, String phone, String inTime, String duration, String amount, String status) {
-        Connection conn = null;
-        try {
-            conn = DBConnection.getConnection();
-            if (conn != null) {
-                String insertQuery = "INSERT INTO parking_spots (booking_id, vehicle_number, spot_number, name, phone, in_time, duration, amount, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-                try (PreparedStatement ps = conn.prepareStatement(insertQuery)) {
-                    ps.setString(1, bookingId);
-                    ps.setString(2, vehicleNumber);
-                    ps.setString(3, spotNumber);
-                    ps.setString(4, name);
-                    ps.setString(5, phone);
-                    ps.setString(6, inTime);
-                    ps.setString(7, duration);
-                    ps.setString(8, amount);
-                    ps.setString(9, status);
-                    ps.executeUpdate();
-                    updateDatabaseTable();
-                    return;
-                } catch (SQLException e) {
-                    System.err.println("Insert with booking columns failed: " + e.getMessage());
-                    try {
-                        String insertAlt = "INSERT INTO parking_spots (vehicle_number, status, entry_time, amount) VALUES (?, ?, ?, ?)";
-                        try (PreparedStatement ps2 = conn.prepareStatement(insertAlt)) {
-                            ps2.setString(1, vehicleNumber);
-                            ps2.setString(2, status);
-                            ps2.setString(3, inTime);
-                            ps2.setString(4, amount);
-                            ps2.executeUpdate();
-                            updateDatabaseTable();
-                            return;
-                        }
-                    } catch (SQLException e2) {
-                        System.err.println("Alternative insert failed: " + e2.getMessage());
-                    }
-                }
-            } else {
-                System.err.println("DBConnection.getConnection() returned null; falling back to local storage.");
-            }
-        } catch (Exception ex) {
-            System.err.println("Error saving booking to DB: " + ex.getMessage());
-        } finally {
-            if (conn != null) try { conn.close(); } catch (SQLException ignored) {}
-        }
-
-        // Fallback to local storage
+    // Algorithm: Write-behind; the booking is kept locally at once and inserted by the background writer,
+    // so the gate never waits for a database round trip. The booking is logged on the booking-log thread and only
+    // then queued for the DB; the future completes once it is durable, with false only if it was saved nowhere.
+    public CompletableFuture<Boolean> addBookingToDB(String bookingId, String vehicleNumber, String spotNumber, String name, String phone, String inTime, String duration, String amount, String status) {
         Map<String, String> rec = new HashMap<>();
         rec.put("booking_id", bookingId);
         rec.put("vehicle_number", vehicleNumber);
@@ -1227,8 +1405,42 @@ public class ParkingLotGUI extends JFrame {
         rec.put("duration", duration);
         rec.put("amount", amount);
         rec.put("status", status);
-        localBookings.add(rec);
-        updateDatabaseTable();
+        return CompletableFuture.supplyAsync(() -> saveBooking(rec), bookingLog).exceptionally(ex -> {
+            System.err.println("Booking " + bookingId + " saved nowhere: " + ex.getMessage());
+            return false;
+        });
+    }
+
+    // Runs on the booking-log thread
+    private boolean saveBooking(Map<String, String> rec) {
+        String bookingId = rec.get("booking_id");
+        Booking booking;
+        try {
+            booking = localBookings.add(rec);
+        } catch (IllegalArgumentException ex) {
+            // Not storable locally (an unreadable field): write it straight through instead of dropping it
+            try {
+                bookingSink.writeFields(rec);
+                System.err.println("Could not keep booking " + bookingId + " locally (" + ex.getMessage() + "), saved it to DB directly");
+                SwingUtilities.invokeLater(this::updateDatabaseTable);
+                return true;
+            } catch (SQLException dbEx) {
+                System.err.println("Booking " + bookingId + " saved nowhere: " + ex.getMessage() + "; DB: " + dbEx.getMessage());
+                return false;
+            }
+        }
+        if (bookingWal != null) {
+            try {
+                bookingWal.appendBooking(booking);
+            } catch (IOException ex) {
+                System.err.println("Could not log booking " + bookingId + ": " + ex.getMessage());
+            }
+        }
+        if (!bookingWriter.submit(booking)) {
+            System.err.println("Booking queue full; " + bookingId + " stays in local storage.");
+            SwingUtilities.invokeLater(this::updateDatabaseTable);
+        }
+        return true;
     }
 
     private String getCurrentTime() {
@@ -1240,8 +1452,8 @@ public class ParkingLotGUI extends JFrame {
     // ======================= PARKING SPOT CLASS =======================
     class ParkingSpot {
         private String id;
-        private boolean available;
-        private String vehicleNumber;
+        private volatile boolean available;
+        private volatile String vehicleNumber;
 
         public ParkingSpot(String id, boolean available) {
             this.id = id;
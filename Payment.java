@@ -1,23 +1,27 @@
  //Payment Class for payment
  public class Payment{
 
-    float HourAmount = 30;
-    float TotalAmountForHour = 0;
-    float TotalAmountForMinute = 0;
+    // Compiled once and never mutated, so one instance can serve every gate thread
+    static final TariffTable STANDARD_TARIFF = TariffRules.standard().compile(TariffTable.DEFAULT_MAX_MINUTES);
 
+    private final TariffTable tariff;
+
+    public Payment(){
+        this(STANDARD_TARIFF);
+    }
+
+    public Payment(TariffTable tariff){
+        this.tariff = tariff;
+    }
+
+    // Rs 30 per hour, plus Rs 20 / 15 / 10 for 30-59 / 15-29 / 1-14 extra minutes
     public float TotalAmount(int Hour, int Minute){
-        TotalAmountForHour = Hour * HourAmount;
-        if (Minute < 60 && Minute >= 30) {
-            TotalAmountForMinute = 20;
-        }
-        else if(Minute < 30 && Minute >= 15){
-            TotalAmountForMinute = 15;
-        }
-        else if(Minute < 15 && Minute >= 1){
-            TotalAmountForMinute = 10;
-        }
+        return TotalAmountMinor(Hour * 60 + Minute) / 100f;
+    }
 
-        return (TotalAmountForHour+TotalAmountForMinute);
+    // Same fee in paise; a single table read, no shared state
+    public long TotalAmountMinor(int durationMinutes){
+        return tariff.fee(durationMinutes);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,308 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Dictionary encoding for number plates: each distinct plate is stored once
+ * and referred to by a small int id everywhere else.
+ *
+ * ALGORITHM: Byte arena + one open-addressing hash table of group ids
+ * The text of every spelling lives in one byte[] arena as a record: a 2-byte
+ * header (length, and a flag for plates that need UTF-16), then the Latin-1
+ * or UTF-16 bytes. There is no String per plate, so a plate costs its
+ * characters plus a few ints, with no object headers; decode() builds the
+ * String when it is asked for.
+ *
+ * Every distinct spelling gets its own id and is decoded exactly as it was
+ * written, so "MH 02 AB 10" stays "MH 02 AB 10" in the database and the UI.
+ * Spellings that normalize to the same plate (ParkingLot.normalizePlate)
+ * share a group: the id of the first spelling seen. Lookups go by the
+ * normalized plate and return the group, so indexes keyed by group find a
+ * car however it was typed. The normalized form is never stored; it is
+ * worked out from the record's characters while probing.
+ *   normalized plate -> group id  (hash table, at most 3/4 full)
+ *   group id         -> its spellings, chained through next[]
+ * An exact spelling is found by walking its group's chain, which is one
+ * entry long for almost every plate.
+ * Ids start at 1 (0 means "no plate").
+ *
+ * Owners that drop plates (BookingStore, CompactSpotStore) count references
+ * per group with retain / release and call sweep() now and then. A sweep
+ * frees the groups that have no references and were not encoded or released
+ * since the previous sweep, hands their ids out again and compacts the
+ * arena. The one-sweep grace period covers an id fetched with encode() just
+ * before it is retained. Without sweeps ids are never reused.
+ *
+ * Time Complexity: O(1) expected encode / lookup, O(length) decode
+ * Space Complexity: per spelling its characters + 2 bytes of arena and
+ * 17 bytes of columns (offset, group, next, refs, touched), plus one hash
+ * slot per plate at most 3/4 full
+ *
+ * Not thread-safe; callers serialize writes.
+ */
+public class PlateDictionary {
+    private static final int UTF16 = 0x8000;     // header flag: two bytes per char
+    private static final int MAX_BYTES = 0x7FFF;
+
+    private byte[] arena = new byte[256];       // records back to back
+    private int arenaSize;
+    private int[] offset = new int[16];         // id -> record start in the arena, -1 = freed; slot 0 unused
+    private int[] group = new int[16];          // id -> group id
+    private int[] next = new int[16];           // id -> next spelling of its group, 0 = last
+    private int[] refs = new int[16];           // group id -> references held by the owner
+    private byte[] touched = new byte[16];      // id -> 1 if encoded or released since the previous sweep
+    private int[] byKey = new int[32];          // slots holding group ids, 0 = empty
+    private int[] free = new int[0];            // freed ids, reused before new ones
+    private int freeCount;
+    private int top;                            // highest id handed out
+    private int size;
+    private int groups;
+
+    /** Distinct spellings held. */
+    public int size() { return size; }
+
+    /** Bytes of plate text held, headers included. */
+    public int arenaBytes() { return arenaSize; }
+
+    /** Returns the id for the plate exactly as written, adding it if it is new. */
+    public int encode(String plate) {
+        byte[] record = record(plate);
+        int keySlot = findKey(ParkingLot.normalizePlate(plate));
+        int leader = byKey[keySlot];
+        for (int id = leader; id != 0; id = next[id]) {
+            if (sameText(id, record)) {
+                touched[id] = 1;
+                return id;
+            }
+        }
+
+        int id = freeCount > 0 ? free[--freeCount] : ++top;
+        if (id >= offset.length) {
+            int n = offset.length * 2;
+            offset = Arrays.copyOf(offset, n);
+            group = Arrays.copyOf(group, n);
+            next = Arrays.copyOf(next, n);
+            refs = Arrays.copyOf(refs, n);
+            touched = Arrays.copyOf(touched, n);
+        }
+        size++;
+        touched[id] = 1;
+        offset[id] = append(record);
+        if (leader == 0) {
+            byKey[keySlot] = id;   // first spelling of this plate
+            group[id] = id;
+            next[id] = 0;
+            if (++groups * 4 > byKey.length * 3) {
+                rehash(byKey.length * 2);
+            }
+        } else {
+            group[id] = leader;
+            next[id] = next[leader];
+            next[leader] = id;
+        }
+        return id;
+    }
+
+    /** Counts a reference to the plate's group; a referenced group is never swept. */
+    public void retain(int id) {
+        check(id);
+        refs[group[id]]++;
+    }
+
+    public void release(int id) {
+        check(id);
+        if (refs[group[id]] <= 0) {
+            throw new IllegalStateException("Plate " + decode(id) + " released more often than retained");
+        }
+        refs[group[id]]--;
+        touched[id] = 1;
+    }
+
+    /**
+     * Frees every group with no references whose spellings were all left
+     * alone since the previous sweep. Returns the number of spellings freed.
+     */
+    public int sweep() {
+        boolean[] keep = new boolean[top + 1];
+        for (int id = 1; id <= top; id++) {
+            if (offset[id] >= 0 && (refs[group[id]] > 0 || touched[id] != 0)) keep[group[id]] = true;
+        }
+        int freed = 0;
+        for (int id = 1; id <= top; id++) {
+            if (offset[id] < 0 || keep[group[id]]) continue;
+            offset[id] = -1;
+            if (freeCount == free.length) free = Arrays.copyOf(free, Math.max(16, freeCount * 2));
+            free[freeCount++] = id;
+            freed++;
+        }
+        for (int id = 1; id <= top; id++) {
+            if (offset[id] < 0) {
+                if (group[id] == id) groups--;
+                group[id] = 0;
+                next[id] = 0;
+            }
+            touched[id] = 0;
+        }
+        size -= freed;
+        if (freed > 0) {
+            compactArena();
+            rehash(byKey.length);
+        }
+        return freed;
+    }
+
+    /** Returns the group id of the plate however it is spelled, or 0 if it has never been encoded. */
+    public int lookup(String plate) {
+        return byKey[findKey(ParkingLot.normalizePlate(plate))];
+    }
+
+    /** Group id of an encoded plate: the same for every spelling of one plate. */
+    public int group(int id) {
+        check(id);
+        return group[id];
+    }
+
+    /** The plate as it was written. */
+    public String decode(int id) {
+        check(id);
+        int o = offset[id];
+        int header = header(o);
+        int bytes = header & MAX_BYTES;
+        if ((header & UTF16) == 0) {
+            return new String(arena, o + 2, bytes, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = new char[bytes / 2];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = charAt(o, header, i);
+        }
+        return new String(chars);
+    }
+
+    private void check(int id) {
+        if (id <= 0 || id > top || offset[id] < 0) {
+            throw new IllegalArgumentException("Unknown plate id: " + id);
+        }
+    }
+
+    // Header + Latin-1 bytes when every char fits, UTF-16 otherwise, so any String round-trips exactly
+    private static byte[] record(String plate) {
+        boolean latin1 = true;
+        for (int i = 0; i < plate.length() && latin1; i++) {
+            latin1 = plate.charAt(i) <= 0xFF;
+        }
+        int bytes = latin1 ? plate.length() : plate.length() * 2;
+        if (bytes > MAX_BYTES) {
+            throw new IllegalArgumentException("Plate too long: " + plate.length() + " characters");
+        }
+        int header = latin1 ? bytes : bytes | UTF16;
+        byte[] out = new byte[2 + bytes];
+        out[0] = (byte) (header >>> 8);
+        out[1] = (byte) header;
+        for (int i = 0; i < plate.length(); i++) {
+            char c = plate.charAt(i);
+            if (latin1) {
+                out[2 + i] = (byte) c;
+            } else {
+                out[2 + 2 * i] = (byte) (c >>> 8);
+                out[3 + 2 * i] = (byte) c;
+            }
+        }
+        return out;
+    }
+
+    private int append(byte[] record) {
+        if (arenaSize + record.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + record.length));
+        }
+        int at = arenaSize;
+        System.arraycopy(record, 0, arena, at, record.length);
+        arenaSize += record.length;
+        return at;
+    }
+
+    private void compactArena() {
+        byte[] packed = new byte[Math.max(256, arenaSize)];
+        int end = 0;
+        for (int id = 1; id <= top; id++) {
+            if (offset[id] < 0) continue;
+            int length = 2 + (header(offset[id]) & MAX_BYTES);
+            System.arraycopy(arena, offset[id], packed, end, length);
+            offset[id] = end;
+            end += length;
+        }
+        arena = packed;
+        arenaSize = end;
+    }
+
+    private int header(int o) {
+        return ((arena[o] & 0xFF) << 8) | (arena[o + 1] & 0xFF);
+    }
+
+    private char charAt(int o, int header, int i) {
+        if ((header & UTF16) == 0) {
+            return (char) (arena[o + 2 + i] & 0xFF);
+        }
+        return (char) (((arena[o + 2 + 2 * i] & 0xFF) << 8) | (arena[o + 3 + 2 * i] & 0xFF));
+    }
+
+    private int length(int o, int header) {
+        int bytes = header & MAX_BYTES;
+        return (header & UTF16) == 0 ? bytes : bytes / 2;
+    }
+
+    private boolean sameText(int id, byte[] record) {
+        int o = offset[id];
+        return Arrays.equals(arena, o, o + 2 + (header(o) & MAX_BYTES), record, 0, record.length);
+    }
+
+    private int findKey(String key) {
+        int mask = byKey.length - 1;
+        int slot = mix(key.hashCode()) & mask;
+        while (byKey[slot] != 0 && !keyEquals(byKey[slot], key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Compares the normalized form of the stored spelling with key, char by char, as normalizePlate would build it
+    private boolean keyEquals(int id, String key) {
+        int o = offset[id];
+        int header = header(o);
+        int n = length(o, header);
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            char c = charAt(o, header, i);
+            if (!Character.isLetterOrDigit(c)) continue;
+            if (j == key.length() || key.charAt(j++) != Character.toUpperCase(c)) return false;
+        }
+        return j == key.length();
+    }
+
+    // String.hashCode() of the normalized plate, without building it
+    private int keyHash(int id) {
+        int o = offset[id];
+        int header = header(o);
+        int n = length(o, header);
+        int h = 0;
+        for (int i = 0; i < n; i++) {
+            char c = charAt(o, header, i);
+            if (Character.isLetterOrDigit(c)) h = 31 * h + Character.toUpperCase(c);
+        }
+        return h;
+    }
+
+    private void rehash(int capacity) {
+        byKey = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 1; id <= top; id++) {
+            if (offset[id] < 0 || group[id] != id) continue;
+            int slot = mix(keyHash(id)) & mask;
+            while (byKey[slot] != 0) slot = (slot + 1) & mask;
+            byKey[slot] = id;
+        }
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
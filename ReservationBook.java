@@ -0,0 +1,165 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time-windowed reservations: a spot is booked for [start, end) in epoch minutes.
+ *
+ * ALGORITHM: Interval index per spot
+ * Each spot keeps its bookings in a TreeMap keyed by start minute. Bookings
+ * on one spot never overlap, so the booking with the greatest start before
+ * the requested end also has the greatest end among them; one lowerEntry()
+ * lookup decides whether [start, end) is free.
+ *
+ * Past bookings are dropped by purgeBefore(), which purgeEvery() runs on a
+ * daemon thread, and finish() cuts a stay short when the car leaves early,
+ * so the maps hold only what is still ahead.
+ *
+ * Time Complexity: O(log b) per spot check / reserve / cancel (b = bookings on that spot)
+ * Space Complexity: O(total bookings)
+ */
+public class ReservationBook {
+    private final LotModel lot;
+    private final Map<String, SpotSchedule> schedules = new HashMap<>();
+    private ScheduledExecutorService purger;
+
+    public ReservationBook(LotModel lot) {
+        this.lot = lot;
+        for (String slotId : lot.allSlots()) {
+            schedules.put(slotId, new SpotSchedule());
+        }
+    }
+
+    /** Books [startMinute, endMinute) on the slot. Returns false if the slot is unknown or the window overlaps a booking. */
+    public boolean reserve(String slotId, long startMinute, long endMinute) {
+        checkWindow(startMinute, endMinute);
+        SpotSchedule schedule = schedules.get(slotId);
+        return schedule != null && schedule.reserve(startMinute, endMinute);
+    }
+
+    public boolean isFree(String slotId, long startMinute, long endMinute) {
+        checkWindow(startMinute, endMinute);
+        SpotSchedule schedule = schedules.get(slotId);
+        return schedule != null && schedule.isFree(startMinute, endMinute);
+    }
+
+    /** Cancels the booking that starts at startMinute. Returns false if there is none. */
+    public boolean cancel(String slotId, long startMinute) {
+        SpotSchedule schedule = schedules.get(slotId);
+        return schedule != null && schedule.cancel(startMinute);
+    }
+
+    /**
+     * Books the nearest fitting slot that is free for the whole window, or
+     * returns null if none is. Slots are tried best-fitting class first, then
+     * by distance from the preferred zone.
+     */
+    public String reserveFirstFree(VehicleClass vehicle, String preferredZone, long startMinute, long endMinute) {
+        checkWindow(startMinute, endMinute);
+        List<String> candidates = lot.fittingSlots(vehicle, preferredZone);
+        for (String slotId : candidates) {
+            if (schedules.get(slotId).reserve(startMinute, endMinute)) {
+                return slotId;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Ends the booking in progress at minute there, freeing the rest of its
+     * window, or drops it if it had not started. Returns false if none covers minute.
+     */
+    public boolean finish(String slotId, long minute) {
+        SpotSchedule schedule = schedules.get(slotId);
+        return schedule != null && schedule.finish(minute);
+    }
+
+    /** Drops bookings that ended at or before the given minute. */
+    public void purgeBefore(long minute) {
+        for (SpotSchedule schedule : schedules.values()) {
+            schedule.purgeBefore(minute);
+        }
+    }
+
+    /** Purges bookings that have ended every periodMillis on a daemon thread. */
+    public synchronized void purgeEvery(long periodMillis) {
+        if (purger != null) return;
+        purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "reservation-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        purger.scheduleWithFixedDelay(() -> purgeBefore(System.currentTimeMillis() / 60_000L), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (purger != null) {
+            purger.shutdownNow();
+            purger = null;
+        }
+    }
+
+    /** Bookings held across all slots. */
+    public int size() {
+        int total = 0;
+        for (SpotSchedule schedule : schedules.values()) {
+            total += schedule.size();
+        }
+        return total;
+    }
+
+    private static void checkWindow(long startMinute, long endMinute) {
+        if (endMinute <= startMinute) {
+            throw new IllegalArgumentException("Reservation must end after it starts: [" + startMinute + ", " + endMinute + ")");
+        }
+    }
+
+    // Non-overlapping bookings of one spot, start minute -> end minute
+    static class SpotSchedule {
+        private final TreeMap<Long, Long> bookings = new TreeMap<>();
+
+        synchronized boolean isFree(long start, long end) {
+            Map.Entry<Long, Long> before = bookings.lowerEntry(end);
+            return before == null || before.getValue() <= start;
+        }
+
+        synchronized boolean reserve(long start, long end) {
+            if (!isFree(start, end)) {
+                return false;
+            }
+            bookings.put(start, end);
+            return true;
+        }
+
+        synchronized boolean cancel(long start) {
+            return bookings.remove(start) != null;
+        }
+
+        synchronized boolean finish(long minute) {
+            Map.Entry<Long, Long> current = bookings.floorEntry(minute);
+            if (current == null || current.getValue() <= minute) {
+                return false;
+            }
+            if (current.getKey() == minute) {
+                bookings.remove(minute);
+            } else {
+                bookings.put(current.getKey(), minute);
+            }
+            return true;
+        }
+
+        synchronized int size() {
+            return bookings.size();
+        }
+
+        synchronized void purgeBefore(long minute) {
+            while (!bookings.isEmpty() && bookings.firstEntry().getValue() <= minute) {
+                bookings.pollFirstEntry();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Behaviour check for ReservationBook.
+ *
+ * 1. Windows that touch end to start fit; any overlap is refused, also
+ *    one that starts before and ends after an existing booking.
+ * 2. finish() frees the rest of a stay that ends early; cancel() drops one.
+ * 3. reserveFirstFree() skips slots held during the window and fills the
+ *    nearest free one; the dropdown filter (isFree) agrees with it.
+ * 4. 64 threads race for one window on one slot; exactly one wins.
+ * 5. A day of hourly bookings on every slot, then purgeBefore() at each
+ *    hour: the book only ever holds what has not ended yet.
+ *
+ * Run:  java ReservationBookCheck [slots]
+ */
+public class ReservationBookCheck {
+
+    public static void main(String[] args) throws Exception {
+        int slots = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        LotModel lot = new LotModel(LotLayout.parse("1 A " + slots + "\n"));
+        String first = lot.allSlots().get(0);
+        String second = lot.allSlots().get(1);
+
+        // 1. Overlap
+        ReservationBook book = new ReservationBook(lot);
+        check(book.reserve(first, 100, 160), "empty slot refused");
+        check(book.reserve(first, 160, 220) && book.reserve(first, 40, 100), "touching windows refused");
+        check(!book.reserve(first, 159, 161), "overlap at the seam accepted");
+        check(!book.reserve(first, 30, 230), "window around existing bookings accepted");
+        check(!book.reserve(first, 120, 130), "window inside a booking accepted");
+        check(!book.reserve("nope", 0, 10), "unknown slot accepted");
+        check(book.size() == 3, "holds " + book.size());
+        System.out.println("Overlap: OK");
+
+        // 2. Finish early and cancel
+        check(book.finish(first, 130) && book.isFree(first, 130, 160) && !book.isFree(first, 129, 130), "finish did not cut the stay");
+        check(!book.finish(first, 10), "finished a stay that was not in progress");
+        check(book.cancel(first, 160) && book.isFree(first, 130, 220), "cancel left the booking");
+        check(book.finish(first, 40) && book.isFree(first, 40, 100), "stay not started yet was kept");
+        check(book.size() == 1, "holds " + book.size());
+        System.out.println("Finish + cancel: OK");
+
+        // 3. First free for a window
+        book = new ReservationBook(lot);
+        check(book.reserve(first, 600, 720), "could not hold the first slot");
+        check(!book.isFree(first, 660, 780) && book.isFree(second, 660, 780), "dropdown filter disagrees");
+        String got = book.reserveFirstFree(VehicleClass.CAR, "A", 660, 780);
+        check(second.equals(got), "advance booking got " + got);
+        check(first.equals(book.reserveFirstFree(VehicleClass.CAR, "A", 720, 780)), "first slot not reused after its window");
+        System.out.println("First free: OK");
+
+        // 4. Race for one window
+        ReservationBook race = new ReservationBook(lot);
+        AtomicInteger wins = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[64];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (race.reserve(first, 1_000 + offset % 30, 1_060 + offset % 30)) wins.incrementAndGet();
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread t : threads) t.join();
+        check(wins.get() == 1 && race.size() == 1, wins + " threads won");
+        System.out.println("Race: OK");
+
+        // 5. Purge keeps the book bounded
+        ReservationBook day = new ReservationBook(lot);
+        long midnight = 29_000_000L;
+        for (String slotId : lot.allSlots()) {
+            for (int h = 0; h < 24; h++) {
+                check(day.reserve(slotId, midnight + h * 60L, midnight + h * 60L + 60), "hour " + h + " refused on " + slotId);
+            }
+        }
+        long t0 = System.nanoTime();
+        for (int h = 1; h <= 24; h++) {
+            day.purgeBefore(midnight + h * 60L);
+            check(day.size() == (24 - h) * slots, "after hour " + h + " holds " + day.size());
+        }
+        double micros = (System.nanoTime() - t0) / 1e3 / 24;
+        System.out.println(String.format("Purge: %d bookings over a day, 0 left after it, %.0f us per purge: OK", 24 * slots, micros));
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
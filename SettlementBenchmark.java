@@ -0,0 +1,138 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Throughput and correctness check for SettlementEngine.
+ *
+ * 1. Streams N synthetic sessions (generated chunk by chunk, never held in
+ *    full) through the engine and checks the totals against a plain
+ *    single-threaded loop over the same sessions.
+ * 2. Reports sessions per second and peak heap, which should track the
+ *    chunk pool and not N.
+ * 3. Settles a handful of local booking records the way the GUI stores them.
+ *
+ * Run:  java SettlementBenchmark [sessions] [chunkSize]
+ */
+public class SettlementBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long sessions = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int chunkSize = args.length > 1 ? Integer.parseInt(args[1]) : SettlementEngine.DEFAULT_CHUNK_SIZE;
+
+        LotModel lot = new LotModel(LotLayout.parse("1 A 400 CAR\n1 A 100 LARGE\n1 B 200 BIKE\n2 C 300\n"));
+        TariffSchedule tariff = TariffSchedule.parse(
+                "*     ALL      00:00-24:00  30  1=10 15=15 30=20\n"
+              + "BIKE  ALL      00:00-24:00  10  1=5 30=10\n"
+              + "CAR   WEEKEND  10:00-22:00  40  1=15 15=20 30=30\n");
+        List<String> slots = lot.allSlots();
+
+        long expected = expectedRevenue(lot, tariff, slots, sessions);
+
+        SettlementEngine engine = new SettlementEngine(lot, tariff, ForkJoinPool.commonPool(),
+                chunkSize, ForkJoinPool.getCommonPoolParallelism() + 1);
+        resetPeakHeap();
+        SettlementEngine.Settlement result = engine.settle(new SyntheticSource(lot, slots, sessions));
+        long peakHeapMb = peakHeapBytes() / (1024 * 1024);
+
+        if (result.sessions() != sessions || result.totalRevenue() != expected) {
+            throw new IllegalStateException("Settled " + result.sessions() + " sessions / " + result.totalRevenue()
+                    + " paise, expected " + sessions + " / " + expected);
+        }
+        System.out.print(result.report());
+        System.out.println(String.format("Matches sequential total: OK. %.1f M sessions/s, chunk pool %d MB, peak heap %d MB",
+                sessions / 1e6 / Math.max(result.elapsedMillis(), 1) * 1_000, engine.chunkMemoryBytes() / (1024 * 1024), peakHeapMb));
+
+        // Local store rows, as ParkingLotGUI.addBookingToDB keeps them when the DB is down
+        LocalDate day = LocalDate.of(2026, 10, 16);
+        BookingStore local = new BookingStore();
+        BookingIdGenerator ids = new BookingIdGenerator(0);
+        local.add(booking(ids, "A1", "2026-10-16 09:00:00", "2 hrs", "60.00"));
+        local.add(booking(ids, "A450", "2026-10-16 11:30:00", "1 hrs", "30.00"));
+        local.add(booking(ids, "B7", "2026-10-15 22:00:00", "3 hrs", "30.00"));    // closed after midnight: counts
+        local.add(booking(ids, "A2", "2026-10-16 23:00:00", "2 hrs", "60.00"));    // closes tomorrow: excluded
+        try {
+            local.add(booking(ids, "A3", "garbage", "2 hrs", "60.00"));            // unreadable: never stored
+            throw new IllegalStateException("Unreadable in_time was accepted");
+        } catch (IllegalArgumentException rejected) {
+            // typed records reject it at the UI edge
+        }
+        SettlementEngine.Settlement daily = new SettlementEngine(lot, tariff).settleDay(local.snapshot(), day);
+        if (daily.sessions() != 3 || daily.skippedRows() != 0 || daily.totalRevenue() != 6000 + 3000 + 3000) {
+            throw new IllegalStateException("Local settlement wrong:\n" + daily.report());
+        }
+        System.out.println("Local store settlement: OK");
+    }
+
+    private static Map<String, String> booking(BookingIdGenerator ids, String spot, String inTime, String duration, String amount) {
+        Map<String, String> b = new HashMap<>();
+        b.put(Booking.ID, ids.nextCode());
+        b.put(Booking.VEHICLE, "TN01AB" + spot);
+        b.put(Booking.SLOT, spot);
+        b.put(Booking.IN_TIME, inTime);
+        b.put(Booking.DURATION, duration);
+        b.put(Booking.AMOUNT, amount);
+        b.put(Booking.STATUS, BookingStatus.BOOKED.getLabel());
+        return b;
+    }
+
+    private static long expectedRevenue(LotModel lot, TariffSchedule tariff, List<String> slots, long sessions) {
+        SplittableRandom rnd = new SplittableRandom(42);
+        long total = 0;
+        for (long n = 0; n < sessions; n++) {
+            String slot = slots.get(rnd.nextInt(slots.size()));
+            long entry = 29_500_000L + rnd.nextInt(DurationEngine.MINUTES_PER_DAY);
+            int duration = 1 + rnd.nextInt(12 * DurationEngine.MINUTES_PER_HOUR);
+            total += tariff.fee(lot.spotClassOf(slot), entry, duration);
+        }
+        return total;
+    }
+
+    // Same sequence as expectedRevenue, produced one chunk at a time
+    private static class SyntheticSource implements SettlementEngine.SessionSource {
+        private final LotModel lot;
+        private final List<String> slots;
+        private final SplittableRandom rnd = new SplittableRandom(42);
+        private long remaining;
+
+        SyntheticSource(LotModel lot, List<String> slots, long sessions) {
+            this.lot = lot;
+            this.slots = slots;
+            this.remaining = sessions;
+        }
+
+        @Override
+        public boolean fill(SettlementEngine.SessionChunk chunk) {
+            while (!chunk.isFull()) {
+                if (remaining == 0) return false;
+                String slot = slots.get(rnd.nextInt(slots.size()));
+                long entry = 29_500_000L + rnd.nextInt(DurationEngine.MINUTES_PER_DAY);
+                int duration = 1 + rnd.nextInt(12 * DurationEngine.MINUTES_PER_HOUR);
+                chunk.add(entry, duration, lot.zoneOf(slot).getId(), lot.spotClassOf(slot), 0);
+                remaining--;
+            }
+            return remaining > 0;
+        }
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+    }
+
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,437 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * End-of-day settlement: re-prices every session that closed on a given day
+ * and totals revenue per zone and per spot class.
+ *
+ * ALGORITHM: Bounded chunk pipeline + fork/join
+ * 1. The calling thread streams rows (JDBC with a fetch size, or the local
+ *    store) into fixed-size chunks of primitive columns: entry minute,
+ *    duration, zone, class, booked amount (23 bytes per session).
+ * 2. Each full chunk is handed to a ForkJoinPool task that splits it in
+ *    halves down to a few thousand rows, prices each row from one tariff
+ *    snapshot, and merges per-cell totals back up the tree.
+ * 3. Chunks come from a fixed pool; the reader blocks when all of them are
+ *    in flight, so memory is chunkSize * maxInFlight no matter how many
+ *    sessions the day has.
+ *
+ * A session closes at in_time + duration; rows are read from up to
+ * MAX_STAY_DAYS before the day so stays that started earlier are included.
+ * The table has no vehicle type column, so sessions are priced and grouped
+ * by the class of the spot they used.
+ *
+ * Time Complexity: O(n / p) for n sessions on p workers
+ * Space Complexity: O(chunkSize * maxInFlight + zones * classes)
+ */
+public class SettlementEngine {
+    public static final int DEFAULT_CHUNK_SIZE = 65_536;
+    public static final int DEFAULT_FETCH_SIZE = 10_000;
+    public static final int MAX_STAY_DAYS = 3;
+    private static final int SPLIT_THRESHOLD = 4_096;
+    private static final VehicleClass[] CLASSES = VehicleClass.values();
+
+    // Per cell (zone x class): sessions, settled revenue, booked amount
+    private static final int SESSIONS = 0;
+    private static final int REVENUE = 1;
+    private static final int BOOKED = 2;
+    private static final int FIELDS = 3;
+
+    private final LotModel lot;
+    private final TariffSchedule tariff;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int maxInFlight;
+
+    public SettlementEngine(LotModel lot, TariffSchedule tariff) {
+        this(lot, tariff, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, ForkJoinPool.getCommonPoolParallelism() + 1);
+    }
+
+    public SettlementEngine(LotModel lot, TariffSchedule tariff, ForkJoinPool pool, int chunkSize, int maxInFlight) {
+        if (chunkSize <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("Chunk size and chunks in flight must be positive");
+        }
+        this.lot = lot;
+        this.tariff = tariff;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /** Bytes held by the chunk pool, the bound on settlement memory. */
+    public long chunkMemoryBytes() {
+        return (long) maxInFlight * chunkSize * SessionChunk.BYTES_PER_SESSION;
+    }
+
+    /** Settles the sessions that closed on the given day, streaming them from parking_spots. */
+    public Settlement settleDay(Connection conn, LocalDate day, int fetchSize) throws SQLException, InterruptedException {
+        String query = "SELECT spot_number, in_time, duration, amount FROM parking_spots WHERE in_time >= ? AND in_time < ?";
+        try (PreparedStatement ps = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(fetchSize);
+            ps.setString(1, day.minusDays(MAX_STAY_DAYS) + " 00:00:00");
+            ps.setString(2, day.plusDays(1) + " 00:00:00");
+            try (ResultSet rs = ps.executeQuery()) {
+                return settle(new RowSource(day) {
+                    @Override
+                    boolean nextRow() throws SQLException {
+                        if (!rs.next()) return false;
+                        row(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4));
+                        return true;
+                    }
+                });
+            }
+        }
+    }
+
+    /** Settles the sessions that closed on the given day from locally stored bookings. */
+    public Settlement settleDay(Iterable<Booking> bookings, LocalDate day) throws InterruptedException {
+        Iterator<Booking> it = bookings.iterator();
+        try {
+            return settle(new RowSource(day) {
+                @Override
+                boolean nextRow() {
+                    if (!it.hasNext()) return false;
+                    Booking b = it.next();
+                    session(b.getSlot(), b.getEntryMinute(), b.getDurationMinutes(), b.getAmountPaise());
+                    return true;
+                }
+            });
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);   // the local source never touches JDBC
+        }
+    }
+
+    /** Streams every session from the source through the chunk pipeline. */
+    public Settlement settle(SessionSource source) throws SQLException, InterruptedException {
+        long t0 = System.nanoTime();
+        int zones = lot.getZones().size() + 1;   // last zone collects spots the layout does not know
+        long[] totals = new long[zones * CLASSES.length * FIELDS];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        BlockingQueue<SessionChunk> free = new ArrayBlockingQueue<>(maxInFlight);
+        for (int i = 0; i < maxInFlight; i++) {
+            free.add(new SessionChunk(chunkSize));
+        }
+
+        long sessions = 0;
+        long skipped = 0;
+        try {
+            boolean exhausted = false;
+            while (!exhausted && failure.get() == null) {
+                SessionChunk chunk = free.take();   // blocks while every chunk is in flight
+                chunk.clear();
+                try {
+                    exhausted = !source.fill(chunk);
+                } catch (SQLException | RuntimeException e) {
+                    free.add(chunk);
+                    throw e;
+                }
+                sessions += chunk.size;
+                skipped += chunk.skipped;
+                if (chunk.size == 0) {
+                    free.add(chunk);
+                    continue;
+                }
+                pool.execute(new ChunkTask(chunk, totals, free, failure));
+            }
+        } finally {
+            // Wait for every chunk to come back before reading the totals
+            for (int i = 0; i < maxInFlight; i++) {
+                free.take();
+            }
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Settlement failed", failure.get());
+        }
+
+        List<String> zoneNames = new ArrayList<>();
+        for (LotModel.Zone zone : lot.getZones()) {
+            zoneNames.add(zone.getName());
+        }
+        zoneNames.add("?");
+        return new Settlement(zoneNames, totals, sessions, skipped, System.nanoTime() - t0);
+    }
+
+    // Root task for one chunk: prices it, merges into the shared totals, recycles the chunk
+    private class ChunkTask extends RecursiveTask<Void> {
+        private static final long serialVersionUID = 1L;
+        private final SessionChunk chunk;
+        private final long[] totals;
+        private final BlockingQueue<SessionChunk> free;
+        private final AtomicReference<Throwable> failure;
+
+        ChunkTask(SessionChunk chunk, long[] totals, BlockingQueue<SessionChunk> free, AtomicReference<Throwable> failure) {
+            this.chunk = chunk;
+            this.totals = totals;
+            this.free = free;
+            this.failure = failure;
+        }
+
+        @Override
+        protected Void compute() {
+            try {
+                long[] partial = new PriceTask(chunk, 0, chunk.size, totals.length).compute();
+                synchronized (totals) {
+                    for (int i = 0; i < partial.length; i++) {
+                        totals[i] += partial[i];
+                    }
+                }
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            } finally {
+                free.add(chunk);
+            }
+            return null;
+        }
+    }
+
+    // Splits a chunk range in halves, prices the rows, merges per-cell totals
+    private class PriceTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+        private final SessionChunk chunk;
+        private final int from;
+        private final int to;
+        private final int cells;
+
+        PriceTask(SessionChunk chunk, int from, int to, int cells) {
+            this.chunk = chunk;
+            this.from = from;
+            this.to = to;
+            this.cells = cells;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                PriceTask left = new PriceTask(chunk, from, mid, cells);
+                left.fork();
+                long[] right = new PriceTask(chunk, mid, to, cells).compute();
+                long[] sums = left.join();
+                for (int i = 0; i < sums.length; i++) {
+                    sums[i] += right[i];
+                }
+                return sums;
+            }
+            long[] sums = new long[cells];
+            for (int i = from; i < to; i++) {
+                int cls = chunk.vehicleClass[i];
+                int cell = (chunk.zone[i] * CLASSES.length + cls) * FIELDS;
+                sums[cell + SESSIONS]++;
+                sums[cell + REVENUE] += tariff.fee(CLASSES[cls], chunk.entryMinute[i], chunk.durationMinutes[i]);
+                sums[cell + BOOKED] += chunk.bookedAmount[i];
+            }
+            return sums;
+        }
+    }
+
+    /** Fills chunks with sessions; fill() returns false once the source is exhausted. */
+    public interface SessionSource {
+        boolean fill(SessionChunk chunk) throws SQLException;
+    }
+
+    /** One batch of sessions as primitive columns. */
+    public static final class SessionChunk {
+        static final int BYTES_PER_SESSION = 8 + 4 + 2 + 1 + 8;
+
+        final long[] entryMinute;
+        final int[] durationMinutes;
+        final short[] zone;
+        final byte[] vehicleClass;
+        final long[] bookedAmount;   // paise
+        int size;
+        int skipped;
+
+        SessionChunk(int capacity) {
+            entryMinute = new long[capacity];
+            durationMinutes = new int[capacity];
+            zone = new short[capacity];
+            vehicleClass = new byte[capacity];
+            bookedAmount = new long[capacity];
+        }
+
+        public boolean isFull() { return size == entryMinute.length; }
+
+        public void add(long entry, int duration, int zoneId, VehicleClass cls, long booked) {
+            entryMinute[size] = entry;
+            durationMinutes[size] = duration;
+            zone[size] = (short) zoneId;
+            vehicleClass[size] = (byte) cls.ordinal();
+            bookedAmount[size] = booked;
+            size++;
+        }
+
+        void clear() {
+            size = 0;
+            skipped = 0;
+        }
+    }
+
+    // Turns parking_spots rows (strings) or local bookings into sessions, keeping only those that closed on the day
+    private abstract class RowSource implements SessionSource {
+        private final long dayStart;
+        private final long dayEnd;
+        private SessionChunk target;
+
+        RowSource(LocalDate day) {
+            this.dayStart = DurationEngine.epochDay(day.getYear(), day.getMonthValue(), day.getDayOfMonth()) * DurationEngine.MINUTES_PER_DAY;
+            this.dayEnd = dayStart + DurationEngine.MINUTES_PER_DAY;
+        }
+
+        abstract boolean nextRow() throws SQLException;
+
+        @Override
+        public boolean fill(SessionChunk chunk) throws SQLException {
+            target = chunk;
+            while (!chunk.isFull()) {
+                if (!nextRow()) return false;
+            }
+            return true;
+        }
+
+        void row(String spot, String inTime, String duration, String amount) {
+            long entry;
+            int minutes;
+            try {
+                entry = parseInTime(inTime);
+                minutes = parseHours(duration) * DurationEngine.MINUTES_PER_HOUR;
+            } catch (RuntimeException e) {
+                target.skipped++;
+                return;
+            }
+            session(spot, entry, minutes, parsePaise(amount));
+        }
+
+        void session(String spot, long entry, int minutes, long booked) {
+            long end = entry + minutes;
+            if (end < dayStart || end >= dayEnd) return;
+
+            LotModel.Zone z = lot.zoneOf(spot);
+            VehicleClass cls = lot.spotClassOf(spot);
+            target.add(entry, minutes, z == null ? lot.getZones().size() : z.getId(), cls == null ? VehicleClass.CAR : cls, booked);
+        }
+    }
+
+    // "yyyy-MM-dd HH:mm:ss" (local time) -> epoch minute
+    static long parseInTime(String s) {
+        return DurationEngine.epochMinute(digits(s, 0, 4), digits(s, 5, 2), digits(s, 8, 2), digits(s, 11, 2), digits(s, 14, 2));
+    }
+
+    // "3 hrs" -> 3
+    static int parseHours(String s) {
+        int i = 0;
+        while (i < s.length() && s.charAt(i) == ' ') i++;
+        int start = i;
+        while (i < s.length() && Character.isDigit(s.charAt(i))) i++;
+        if (i == start) {
+            throw new NumberFormatException("No hours in \"" + s + "\"");
+        }
+        return Integer.parseInt(s.substring(start, i));
+    }
+
+    // "60.00" -> 6000; anything unreadable counts as nothing booked
+    static long parsePaise(String s) {
+        if (s == null) return 0;
+        long rupees = 0;
+        long paise = 0;
+        int decimals = -1;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (decimals < 0) {
+                    rupees = rupees * 10 + (c - '0');
+                } else if (decimals < 2) {
+                    paise = paise * 10 + (c - '0');
+                    decimals++;
+                }
+            } else if (c != ',' && c != ' ') {
+                return 0;
+            }
+        }
+        if (decimals == 1) paise *= 10;
+        return rupees * 100 + paise;
+    }
+
+    private static int digits(String s, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                throw new NumberFormatException("Expected a digit at index " + i + " in \"" + s + "\"");
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /** Revenue totals of one settlement run; amounts in paise. */
+    public static class Settlement {
+        private final List<String> zoneNames;
+        private final long[] cells;
+        private final long sessions;
+        private final long skipped;
+        private final long elapsedNanos;
+
+        Settlement(List<String> zoneNames, long[] cells, long sessions, long skipped, long elapsedNanos) {
+            this.zoneNames = zoneNames;
+            this.cells = cells;
+            this.sessions = sessions;
+            this.skipped = skipped;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long sessions() { return sessions; }
+        public long skippedRows() { return skipped; }
+        public long elapsedMillis() { return elapsedNanos / 1_000_000; }
+        public List<String> zoneNames() { return zoneNames; }
+
+        public long totalRevenue() { return sum(-1, null, REVENUE); }
+        public long totalBooked() { return sum(-1, null, BOOKED); }
+        public long zoneRevenue(int zoneId) { return sum(zoneId, null, REVENUE); }
+        public long zoneSessions(int zoneId) { return sum(zoneId, null, SESSIONS); }
+        public long classRevenue(VehicleClass cls) { return sum(-1, cls, REVENUE); }
+        public long classSessions(VehicleClass cls) { return sum(-1, cls, SESSIONS); }
+
+        private long sum(int zoneId, VehicleClass cls, int field) {
+            long total = 0;
+            for (int z = 0; z < zoneNames.size(); z++) {
+                if (zoneId >= 0 && z != zoneId) continue;
+                for (int c = 0; c < CLASSES.length; c++) {
+                    if (cls != null && c != cls.ordinal()) continue;
+                    total += cells[(z * CLASSES.length + c) * FIELDS + field];
+                }
+            }
+            return total;
+        }
+
+        public String report() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Sessions settled: %d (%d unreadable rows skipped) in %d ms%n", sessions, skipped, elapsedMillis()));
+            sb.append(String.format("%-8s %10s %14s%n", "Zone", "Sessions", "Revenue (Rs)"));
+            for (int z = 0; z < zoneNames.size(); z++) {
+                if (zoneSessions(z) == 0) continue;
+                sb.append(String.format("%-8s %10d %14.2f%n", zoneNames.get(z), zoneSessions(z), zoneRevenue(z) / 100.0));
+            }
+            sb.append(String.format("%-8s %10s %14s%n", "Class", "Sessions", "Revenue (Rs)"));
+            for (VehicleClass cls : CLASSES) {
+                if (classSessions(cls) == 0) continue;
+                sb.append(String.format("%-8s %10d %14.2f%n", cls.getLabel(), classSessions(cls), classRevenue(cls) / 100.0));
+            }
+            sb.append(String.format("Total settled: Rs %.2f (booked at entry: Rs %.2f)%n", totalRevenue() / 100.0, totalBooked() / 100.0));
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe slot allocation engine shared by every entry gate.
+ *
+ * ALGORITHM: Lock-free bitmap with CAS claims
+ * One bit per slot (1 = free) packed into an AtomicLongArray, plus a summary
+ * bitmap with one bit per word. A gate claims a slot by CAS-clearing its bit,
+ * so exactly one gate can win any given slot and no global lock is taken.
+ *
+ * The summary is a hint: a set bit means "this word may have a free slot",
+ * a clear bit is only written after re-checking the word, so a free slot is
+ * never hidden from allocate().
+ *
+ * Slot indexes follow SlotIdComparator order (A2 before A10), so walking the
+ * free bits in index order yields the available slots already sorted.
+ *
+ * Time Complexity: O(1) claim / release, O(n / 4096) to find the nearest free slot
+ * Space Complexity: ~1 bit per slot plus the id table
+ */
+public class SlotAllocator {
+    private final String[] slotIds;
+    private final Map<String, Integer> indexById;
+    private final AtomicLongArray words;
+    private final AtomicLongArray summary;
+    private final AtomicInteger freeCount;
+
+    // Slots are ranked in natural id order; every slot starts out free
+    public SlotAllocator(List<String> slotIds) {
+        int n = slotIds.size();
+        this.slotIds = slotIds.toArray(new String[0]);
+        Arrays.sort(this.slotIds, SlotIdComparator.INSTANCE);
+        this.indexById = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            if (indexById.put(this.slotIds[i], i) != null) {
+                throw new IllegalArgumentException("Duplicate slot id: " + this.slotIds[i]);
+            }
+        }
+
+        this.words = new AtomicLongArray((n + 63) >>> 6);
+        this.summary = new AtomicLongArray((words.length() + 63) >>> 6);
+        for (int w = 0; w < words.length(); w++) {
+            int bitsInWord = Math.min(64, n - (w << 6));
+            words.set(w, bitsInWord == 64 ? -1L : (1L << bitsInWord) - 1);
+            summary.set(w >>> 6, summary.get(w >>> 6) | (1L << w));
+        }
+        this.freeCount = new AtomicInteger(n);
+    }
+
+    public int size() { return slotIds.length; }
+    public int freeCount() { return freeCount.get(); }
+    public int occupiedCount() { return slotIds.length - freeCount.get(); }
+
+    public String slotId(int index) { return slotIds[index]; }
+
+    public int indexOf(String slotId) {
+        Integer index = slotId == null ? null : indexById.get(slotId);
+        return index == null ? -1 : index;
+    }
+
+    public boolean isFree(String slotId) {
+        int index = indexOf(slotId);
+        return index >= 0 && (words.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /** Nearest free slot without claiming it, or null if the lot is full. */
+    public String peekFirstFree() {
+        for (int s = 0; s < summary.length(); s++) {
+            long hint = summary.get(s);
+            while (hint != 0) {
+                int w = (s << 6) + Long.numberOfTrailingZeros(hint);
+                long word = words.get(w);
+                if (word != 0) {
+                    return slotIds[(w << 6) + Long.numberOfTrailingZeros(word)];
+                }
+                hint &= hint - 1;
+            }
+        }
+        return null;
+    }
+
+    /** Lowest free index at or after fromIndex, or -1 if there is none. */
+    public int nextFree(int fromIndex) {
+        if (fromIndex < 0) fromIndex = 0;
+        if (fromIndex >= slotIds.length) return -1;
+
+        int w = fromIndex >>> 6;
+        long word = words.get(w) & (-1L << fromIndex);
+        if (word != 0) {
+            return (w << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        // Jump through the summary to the next word that may hold a free slot
+        int next = w + 1;
+        for (int s = next >>> 6; s < summary.length(); s++) {
+            long hint = summary.get(s);
+            if (s == next >>> 6) hint &= -1L << next;
+            while (hint != 0) {
+                int candidate = (s << 6) + Long.numberOfTrailingZeros(hint);
+                word = words.get(candidate);
+                if (word != 0) {
+                    return (candidate << 6) + Long.numberOfTrailingZeros(word);
+                }
+                hint &= hint - 1;
+            }
+        }
+        return -1;
+    }
+
+    /** Available slot ids in natural order; only the free slots are visited. */
+    public List<String> availableSlots() {
+        List<String> result = new ArrayList<>(freeCount());
+        for (int i = nextFree(0); i >= 0; i = nextFree(i + 1)) {
+            result.add(slotIds[i]);
+        }
+        return result;
+    }
+
+    /** Claims the nearest free slot, or returns null if the lot is full. */
+    public String allocate() {
+        for (int s = 0; s < summary.length(); s++) {
+            long hint = summary.get(s);
+            while (hint != 0) {
+                int w = (s << 6) + Long.numberOfTrailingZeros(hint);
+                long word;
+                while ((word = words.get(w)) != 0) {
+                    long bit = Long.lowestOneBit(word);
+                    if (words.compareAndSet(w, word, word & ~bit)) {
+                        freeCount.decrementAndGet();
+                        if ((word & ~bit) == 0) clearHint(w);
+                        return slotIds[(w << 6) + Long.numberOfTrailingZeros(bit)];
+                    }
+                }
+                clearHint(w);
+                hint &= hint - 1;
+            }
+        }
+        return null;
+    }
+
+    /** Claims a specific slot. Returns false if it is unknown or another gate already holds it. */
+    public boolean claim(String slotId) {
+        int index = indexOf(slotId);
+        if (index < 0) return false;
+
+        int w = index >>> 6;
+        long bit = 1L << index;
+        long word;
+        do {
+            word = words.get(w);
+            if ((word & bit) == 0) return false;
+        } while (!words.compareAndSet(w, word, word & ~bit));
+
+        freeCount.decrementAndGet();
+        if ((word & ~bit) == 0) clearHint(w);
+        return true;
+    }
+
+    /** Returns a slot to the free pool. Returns false if it is unknown or already free. */
+    public boolean release(String slotId) {
+        int index = indexOf(slotId);
+        if (index < 0) return false;
+
+        int w = index >>> 6;
+        long bit = 1L << index;
+        long word;
+        do {
+            word = words.get(w);
+            if ((word & bit) != 0) return false;
+        } while (!words.compareAndSet(w, word, word | bit));
+
+        freeCount.incrementAndGet();
+        setHint(w);
+        return true;
+    }
+
+    private void setHint(int w) {
+        long mask = 1L << w;
+        summary.getAndAccumulate(w >>> 6, mask, (a, b) -> a | b);
+    }
+
+    // Clear the hint, then re-check so a concurrent release is never lost
+    private void clearHint(int w) {
+        long mask = 1L << w;
+        summary.getAndAccumulate(w >>> 6, ~mask, (a, b) -> a & b);
+        if (words.get(w) != 0) {
+            setHint(w);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi-gate stress check and throughput benchmark for SlotAllocator.
+ *
+ * Stress: every gate thread allocates, holds and releases slots in a tight loop.
+ * Each successful claim must flip an owner cell from 0 to the gate id, so a
+ * slot handed out twice is caught immediately.
+ *
+ * Throughput: allocate + release pairs per second for 1..N gates, compared
+ * with the old PriorityQueue + HashMap pair behind one global lock.
+ *
+ * Run:  java SlotAllocatorBenchmark [slots] [seconds]
+ */
+public class SlotAllocatorBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int slots = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 1.0;
+        int maxGates = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        stress(slots, maxGates, (long) (seconds * 2_000));
+
+        System.out.println();
+        System.out.println(String.format("%-6s %22s %22s", "gates", "lock-free ops/s", "global lock ops/s"));
+        for (int gates = 1; gates <= maxGates; gates *= 2) {
+            long lockFree = throughput(new LockFreeGate(slots), gates, seconds);
+            long locked = throughput(new GlobalLockGate(slots), gates, seconds);
+            System.out.println(String.format("%-6d %22d %22d", gates, lockFree, locked));
+        }
+    }
+
+    private static List<String> slotIds(int slots) {
+        List<String> ids = new ArrayList<>(slots);
+        for (int i = 1; i <= slots; i++) ids.add("A" + i);
+        return ids;
+    }
+
+    private static void stress(int slots, int gates, long millis) throws InterruptedException {
+        SlotAllocator allocator = new SlotAllocator(slotIds(slots));
+        AtomicIntegerArray owner = new AtomicIntegerArray(slots);
+        AtomicLong claims = new AtomicLong();
+        long deadline = System.currentTimeMillis() + millis;
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+
+        for (int g = 1; g <= gates; g++) {
+            final int gateId = g;
+            Thread t = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                List<String> held = new ArrayList<>();
+                while (System.currentTimeMillis() < deadline) {
+                    // Mix nearest-slot allocation with picking a specific slot from the dropdown
+                    String slot = rnd.nextBoolean() ? allocator.allocate() : pick(allocator, rnd, slots);
+                    if (slot != null) {
+                        int index = allocator.indexOf(slot);
+                        if (!owner.compareAndSet(index, 0, gateId)) {
+                            throw new IllegalStateException("Slot " + slot + " handed out twice (held by gate " + owner.get(index) + ")");
+                        }
+                        held.add(slot);
+                        claims.incrementAndGet();
+                    }
+                    if (!held.isEmpty() && (slot == null || rnd.nextInt(3) == 0)) {
+                        String release = held.remove(rnd.nextInt(held.size()));
+                        owner.set(allocator.indexOf(release), 0);
+                        if (!allocator.release(release)) {
+                            throw new IllegalStateException("Release of held slot " + release + " failed");
+                        }
+                    }
+                }
+                for (String release : held) {
+                    owner.set(allocator.indexOf(release), 0);
+                    allocator.release(release);
+                }
+            }, "gate-" + g);
+            t.setUncaughtExceptionHandler((th, ex) -> {
+                synchronized (failures) { failures.add(ex); }
+            });
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) t.join();
+
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Stress check failed", failures.get(0));
+        }
+        if (allocator.freeCount() != slots) {
+            throw new IllegalStateException("Expected " + slots + " free slots after stress, found " + allocator.freeCount());
+        }
+        System.out.println("Stress check passed: " + gates + " gates, " + claims.get() + " claims, no slot handed out twice");
+    }
+
+    private static String pick(SlotAllocator allocator, ThreadLocalRandom rnd, int slots) {
+        String slot = "A" + (1 + rnd.nextInt(slots));
+        return allocator.claim(slot) ? slot : null;
+    }
+
+    private static long throughput(Gate gate, int gates, double seconds) throws InterruptedException {
+        AtomicLong ops = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long runNanos = (long) (seconds * 1e9);
+        List<Thread> threads = new ArrayList<>();
+        for (int g = 0; g < gates; g++) {
+            Thread t = new Thread(() -> {
+                try { start.await(); } catch (InterruptedException e) { return; }
+                long local = 0;
+                long end = System.nanoTime() + runNanos;
+                while (System.nanoTime() < end) {
+                    for (int i = 0; i < 64; i++) {
+                        String slot = gate.allocate();
+                        if (slot != null) {
+                            gate.release(slot);
+                            local++;
+                        }
+                    }
+                }
+                ops.addAndGet(local);
+            });
+            threads.add(t);
+            t.start();
+        }
+        start.countDown();
+        for (Thread t : threads) t.join();
+        return (long) (ops.get() / seconds);
+    }
+
+    interface Gate {
+        String allocate();
+        void release(String slot);
+    }
+
+    static class LockFreeGate implements Gate {
+        private final SlotAllocator allocator;
+        LockFreeGate(int slots) { allocator = new SlotAllocator(slotIds(slots)); }
+        public String allocate() { return allocator.allocate(); }
+        public void release(String slot) { allocator.release(slot); }
+    }
+
+    // The structures ParkingLotGUI used before SlotAllocator, made safe with one lock
+    static class GlobalLockGate implements Gate {
+        private final PriorityQueue<String> queue = new PriorityQueue<>();
+        private final Map<String, Boolean> available = new HashMap<>();
+        GlobalLockGate(int slots) {
+            for (String id : slotIds(slots)) {
+                queue.offer(id);
+                available.put(id, true);
+            }
+        }
+        public synchronized String allocate() {
+            String slot = queue.poll();
+            if (slot != null) available.put(slot, false);
+            return slot;
+        }
+        public synchronized void release(String slot) {
+            queue.offer(slot);
+            available.put(slot, true);
+        }
+    }
+}
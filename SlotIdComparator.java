@@ -0,0 +1,46 @@
+import java.util.Comparator;
+
+/**
+ * Natural ordering for slot ids: "A2" < "A10" < "B1".
+ *
+ * The id is split into a letter prefix and a trailing number. Prefixes are
+ * compared as text, numbers by value. Ids without a trailing number fall
+ * back to plain string order.
+ */
+public class SlotIdComparator implements Comparator<String> {
+    public static final SlotIdComparator INSTANCE = new SlotIdComparator();
+
+    @Override
+    public int compare(String a, String b) {
+        int digitsA = trailingDigitsStart(a);
+        int digitsB = trailingDigitsStart(b);
+
+        int prefix = a.substring(0, digitsA).compareTo(b.substring(0, digitsB));
+        if (prefix != 0) return prefix;
+
+        int lenA = a.length() - digitsA;
+        int lenB = b.length() - digitsB;
+        if (lenA == 0 || lenB == 0) {
+            return a.compareTo(b);
+        }
+
+        // Compare numbers by value without parsing: skip leading zeros, then length, then digits
+        int i = skipZeros(a, digitsA);
+        int j = skipZeros(b, digitsB);
+        int byLength = Integer.compare(a.length() - i, b.length() - j);
+        if (byLength != 0) return byLength;
+        int byDigits = a.substring(i).compareTo(b.substring(j));
+        return byDigits != 0 ? byDigits : a.compareTo(b);
+    }
+
+    private static int trailingDigitsStart(String s) {
+        int i = s.length();
+        while (i > 0 && Character.isDigit(s.charAt(i - 1))) i--;
+        return i;
+    }
+
+    private static int skipZeros(String s, int from) {
+        while (from < s.length() - 1 && s.charAt(from) == '0') from++;
+        return from;
+    }
+}
@@ -0,0 +1,62 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures heap bytes per spot for ParkingSpot objects versus CompactSpotStore.
+ *
+ * Both models hold the same lot with the same occupancy and plates, and
+ * both get their own copy of every plate string, as they would when it is
+ * read from the form or DB, so neither is charged less for the plates.
+ * Numbers are retained heap after a full GC, so run with enough heap, e.g.
+ *
+ * Run:  java -Xmx2g SpotStoreFootprint [spots] [occupied %]
+ */
+public class SpotStoreFootprint {
+
+    public static void main(String[] args) {
+        int spots = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int occupiedPercent = args.length > 1 ? Integer.parseInt(args[1]) : 80;
+        int occupied = (int) ((long) spots * occupiedPercent / 100);
+
+        String[] carPlates = new String[occupied];
+        for (int i = 0; i < occupied; i++) {
+            carPlates[i] = String.format("MH%02d AB %04d", i % 50, i % 10_000) + "-" + (i / 10_000);
+        }
+
+        long base = usedHeap();
+        List<ParkingSpot> objects = new ArrayList<>(spots);
+        for (int i = 0; i < spots; i++) {
+            ParkingSpot spot = new ParkingSpot(i + 1);
+            if (i < occupied) {
+                // Each booking brings its own plate string, as it does when read from the form or DB
+                spot.parkCar(new Car(new String(carPlates[i].toCharArray()), "Red", "Sedan"));
+            }
+            objects.add(spot);
+        }
+        long objectBytes = usedHeap() - base;
+
+        base = usedHeap();
+        CompactSpotStore store = new CompactSpotStore(spots);
+        for (int i = 0; i < occupied; i++) {
+            store.park(i, new String(carPlates[i].toCharArray()));
+        }
+        long compactBytes = usedHeap() - base;
+
+        System.out.println(String.format("spots=%d occupied=%d%%", spots, occupiedPercent));
+        System.out.println(String.format("ParkingSpot objects : %,d bytes (%.1f bytes/spot)", objectBytes, (double) objectBytes / spots));
+        System.out.println(String.format("CompactSpotStore    : %,d bytes (%.1f bytes/spot)", compactBytes, (double) compactBytes / spots));
+        System.out.println(String.format("ratio               : %.1fx smaller", (double) objectBytes / compactBytes));
+
+        // Keep both models reachable until after measurement
+        if (objects.size() + store.capacity() == 0) System.out.println();
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try { Thread.sleep(50); } catch (InterruptedException ignored) { }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,95 @@
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hot-reload check and timing for TariffRegistry.
+ *
+ * Checkout threads price random stays in a tight loop while the main thread
+ * keeps rewriting the tariff file between two versions and reloading it.
+ * Every fee must match exactly one of the two versions (never a mix), and
+ * the slowest checkout is reported to show that reloads do not stall them.
+ *
+ * Run:  java TariffReloadBenchmark [reloads]
+ */
+public class TariffReloadBenchmark {
+    private static final String TARIFF_A =
+            "*     ALL      00:00-24:00  30  1=10 15=15 30=20\n"
+          + "BIKE  ALL      00:00-24:00  10  1=5 30=10\n"
+          + "CAR   WEEKEND  10:00-22:00  40  1=15 15=20 30=30\n"
+          + "LARGE WEEKDAY  22:00-06:00  25  1=10 30=15\n";
+    private static final String TARIFF_B =
+            "*     ALL      00:00-24:00  35  1=12 15=18 30=25\n"
+          + "BIKE  ALL      00:00-24:00  12  1=6 30=12\n"
+          + "CAR   WEEKEND  09:00-23:00  45  1=15 15=25 30=35\n"
+          + "LARGE WEEKDAY  21:00-07:00  28  1=10 30=18\n";
+
+    public static void main(String[] args) throws Exception {
+        int reloads = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int gates = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+
+        TariffSchedule a = TariffSchedule.parse(TARIFF_A);
+        TariffSchedule b = TariffSchedule.parse(TARIFF_B);
+        Path file = Files.createTempFile("tariffs", ".txt");
+        try {
+            Files.write(file, TARIFF_A.getBytes(StandardCharsets.UTF_8));
+            TariffRegistry registry = new TariffRegistry(file);
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong checkouts = new AtomicLong();
+            AtomicLong worstNanos = new AtomicLong();
+            AtomicLong mixed = new AtomicLong();
+            Thread[] threads = new Thread[gates];
+            for (int g = 0; g < gates; g++) {
+                threads[g] = new Thread(() -> {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    VehicleClass[] classes = VehicleClass.values();
+                    long n = 0;
+                    long worst = 0;
+                    while (running.get()) {
+                        VehicleClass vc = classes[rnd.nextInt(classes.length)];
+                        long entry = 29_000_000L + rnd.nextInt(7 * DurationEngine.MINUTES_PER_DAY);
+                        int duration = rnd.nextInt(3 * DurationEngine.MINUTES_PER_DAY);
+                        long t0 = System.nanoTime();
+                        long fee = registry.current().fee(vc, entry, duration);
+                        long took = System.nanoTime() - t0;
+                        if (took > worst) worst = took;
+                        if (fee != a.fee(vc, entry, duration) && fee != b.fee(vc, entry, duration)) {
+                            mixed.incrementAndGet();
+                        }
+                        n++;
+                    }
+                    checkouts.addAndGet(n);
+                    worstNanos.accumulateAndGet(worst, Math::max);
+                }, "gate-" + g);
+                threads[g].start();
+            }
+
+            long totalMicros = 0;
+            long maxMicros = 0;
+            for (int i = 0; i < reloads; i++) {
+                Files.write(file, (i % 2 == 0 ? TARIFF_B : TARIFF_A).getBytes(StandardCharsets.UTF_8));
+                if (!registry.reload()) {
+                    throw new IllegalStateException("Reload " + i + " failed");
+                }
+                totalMicros += registry.lastReloadMicros();
+                maxMicros = Math.max(maxMicros, registry.lastReloadMicros());
+            }
+            running.set(false);
+            for (Thread t : threads) t.join();
+
+            if (mixed.get() != 0) {
+                throw new IllegalStateException(mixed.get() + " checkouts saw a fee from neither tariff version");
+            }
+            System.out.println("Rules: " + registry.current().ruleCount() + ", compiled tables: " + registry.tableBytes() / 1024 + " KB");
+            System.out.println("Reloads: " + reloads + ", avg " + totalMicros / reloads + " us, max " + maxMicros + " us");
+            System.out.println("Checkouts during reloads: " + checkouts.get() + " on " + gates + " gates, all priced from one version, slowest "
+                    + worstNanos.get() / 1_000 + " us");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
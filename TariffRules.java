@@ -0,0 +1,70 @@
+import java.util.Arrays;
+
+/**
+ * A parking tariff: an hourly rate plus a flat fee for the leftover minutes
+ * of a part-started hour, chosen by minute bucket. All amounts are in minor
+ * units (paise).
+ *
+ * The standard tariff is the one Payment has always charged:
+ * Rs 30 per hour, plus Rs 20 for 30-59 extra minutes, Rs 15 for 15-29
+ * and Rs 10 for 1-14.
+ *
+ * Rules are immutable; compile() turns them into a TariffTable for lookups.
+ */
+public final class TariffRules {
+    private final long hourlyRate;
+    private final int[] bucketFromMinute;   // ascending, first bucket a minute falls into wins from the top
+    private final long[] bucketFee;
+
+    /**
+     * @param hourlyRate       fee per full hour in minor units
+     * @param bucketFromMinute lowest leftover minute of each bucket, ascending (e.g. 1, 15, 30)
+     * @param bucketFee        flat fee for each bucket in minor units
+     */
+    public TariffRules(long hourlyRate, int[] bucketFromMinute, long[] bucketFee) {
+        if (bucketFromMinute.length != bucketFee.length) {
+            throw new IllegalArgumentException("Each minute bucket needs exactly one fee");
+        }
+        for (int i = 0; i < bucketFromMinute.length; i++) {
+            if (bucketFromMinute[i] < 1 || bucketFromMinute[i] > 59 || (i > 0 && bucketFromMinute[i] <= bucketFromMinute[i - 1])) {
+                throw new IllegalArgumentException("Minute buckets must be ascending within 1-59: " + Arrays.toString(bucketFromMinute));
+            }
+        }
+        if (hourlyRate < 0) {
+            throw new IllegalArgumentException("Hourly rate must not be negative: " + hourlyRate);
+        }
+        this.hourlyRate = hourlyRate;
+        this.bucketFromMinute = bucketFromMinute.clone();
+        this.bucketFee = bucketFee.clone();
+    }
+
+    public static TariffRules standard() {
+        return new TariffRules(3000, new int[]{1, 15, 30}, new long[]{1000, 1500, 2000});
+    }
+
+    public long hourlyRate() { return hourlyRate; }
+
+    /** Fee for a stay of the given length, evaluated from the rules (the slow path). */
+    public long fee(long durationMinutes) {
+        if (durationMinutes < 0) {
+            throw new IllegalArgumentException("Duration must not be negative: " + durationMinutes);
+        }
+        long fee = (durationMinutes / 60) * hourlyRate;
+        int leftover = (int) (durationMinutes % 60);
+        for (int i = bucketFromMinute.length - 1; i >= 0; i--) {
+            if (leftover >= bucketFromMinute[i]) {
+                return fee + bucketFee[i];
+            }
+        }
+        return fee;
+    }
+
+    /** Precomputes the fee for every duration from 0 up to maxMinutes. */
+    public TariffTable compile(int maxMinutes) {
+        long[] fees = new long[Math.max(maxMinutes, 59) + 1];
+        for (int m = 0; m < fees.length; m++) {
+            fees[m] = fee(m);
+        }
+        return new TariffTable(fees, hourlyRate);
+    }
+}
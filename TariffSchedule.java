@@ -0,0 +1,236 @@
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Tariff definition for the lot: which TariffRules apply to which vehicle
+ * class, on which days and at which time of day, compiled into fee tables.
+ *
+ * Text format, one rule per line ('#' starts a comment). Amounts are in
+ * rupees; the trailing from=fee pairs are the flat fees for the leftover
+ * minutes of a part-started hour:
+ *
+ *   # class  days     window       per-hour  leftover minutes
+ *   *        ALL      00:00-24:00  30        1=10 15=15 30=20
+ *   BIKE     ALL      00:00-24:00  10        1=5 30=10
+ *   CAR      WEEKEND  10:00-22:00  40        1=15 15=20 30=30
+ *   LARGE    WEEKDAY  22:00-06:00  25        1=10 30=15
+ *
+ * class is BIKE, CAR, LARGE or * for all, days is ALL, WEEKDAY or WEEKEND
+ * and a window whose end is before its start runs past midnight. Later lines
+ * override earlier ones where they overlap, so general rules go first. The
+ * rule in force at entry time prices the whole stay, and every class, day
+ * and minute of the day must be covered by some rule.
+ *
+ * ALGORITHM: Rule resolution at compile time
+ * All rule matching happens once, when the file is compiled: every
+ * (class, weekday/weekend, minute of day) cell gets a reference to the
+ * compiled TariffTable of the rule that wins there. A checkout is then an
+ * index computation plus one array read in that table.
+ *
+ * Time Complexity: O(rules * 1440) compile, O(1) fee
+ * Space Complexity: 8 bytes per minute of a day per rule + 4 bytes per index cell
+ */
+public final class TariffSchedule {
+    public static final String DEFAULT_FILE = "tariffs.txt";
+    public static final String DEFAULT_TARIFFS = "* ALL 00:00-24:00 30 1=10 15=15 30=20\n";
+
+    private static final int DAY_TYPES = 2;   // 0 = weekday, 1 = weekend
+    private static final int MINUTES_PER_DAY = DurationEngine.MINUTES_PER_DAY;
+
+    private final TariffTable[] tableByCell;
+    private final int ruleCount;
+    private final long sizeBytes;
+
+    private TariffSchedule(TariffTable[] tableByCell, int ruleCount, long sizeBytes) {
+        this.tableByCell = tableByCell;
+        this.ruleCount = ruleCount;
+        this.sizeBytes = sizeBytes;
+    }
+
+    public static TariffSchedule parse(String text) {
+        int cells = VehicleClass.values().length * DAY_TYPES * MINUTES_PER_DAY;
+        TariffTable[] tableByCell = new TariffTable[cells];
+        int rules = 0;
+        String[] lines = text.split("\\R");
+        for (int lineNo = 1; lineNo <= lines.length; lineNo++) {
+            String line = lines[lineNo - 1];
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            line = line.trim();
+            if (line.isEmpty()) continue;
+
+            String[] parts = line.split("\\s+");
+            if (parts.length < 4) {
+                throw new IllegalArgumentException("Tariff line " + lineNo + ": expected 'class days window per-hour [from=fee ...]' but got '" + line + "'");
+            }
+            VehicleClass[] classes = parseClasses(parts[0], lineNo);
+            boolean[] dayTypes = parseDays(parts[1], lineNo);
+            int[] window = parseWindow(parts[2], lineNo);
+            long hourlyRate = parseMoney(parts[3], lineNo);
+            int[] bucketFrom = new int[parts.length - 4];
+            long[] bucketFee = new long[parts.length - 4];
+            for (int b = 0; b < bucketFrom.length; b++) {
+                String[] pair = parts[4 + b].split("=");
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Tariff line " + lineNo + ": expected from=fee but got '" + parts[4 + b] + "'");
+                }
+                try {
+                    bucketFrom[b] = Integer.parseInt(pair[0]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Tariff line " + lineNo + ": minute must be a number in '" + parts[4 + b] + "'");
+                }
+                bucketFee[b] = parseMoney(pair[1], lineNo);
+            }
+
+            TariffTable table;
+            try {
+                table = new TariffRules(hourlyRate, bucketFrom, bucketFee).compile(MINUTES_PER_DAY);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Tariff line " + lineNo + ": " + e.getMessage());
+            }
+            rules++;
+
+            for (VehicleClass vc : classes) {
+                for (int day = 0; day < DAY_TYPES; day++) {
+                    if (!dayTypes[day]) continue;
+                    // Walk the window minute by minute, wrapping past midnight
+                    for (int m = window[0]; m != window[1]; m = (m + 1) % MINUTES_PER_DAY) {
+                        tableByCell[cell(vc, day, m)] = table;
+                        if (window[1] == MINUTES_PER_DAY && m == MINUTES_PER_DAY - 1) break;
+                    }
+                }
+            }
+        }
+        if (rules == 0) {
+            throw new IllegalArgumentException("Tariff defines no rules");
+        }
+
+        IdentityHashMap<TariffTable, Boolean> distinct = new IdentityHashMap<>();
+        for (VehicleClass vc : VehicleClass.values()) {
+            for (int day = 0; day < DAY_TYPES; day++) {
+                for (int m = 0; m < MINUTES_PER_DAY; m++) {
+                    TariffTable table = tableByCell[cell(vc, day, m)];
+                    if (table == null) {
+                        throw new IllegalArgumentException("Tariff has no rule for " + vc + " on " + (day == 1 ? "weekends" : "weekdays")
+                                + " at " + String.format("%02d:%02d", m / 60, m % 60));
+                    }
+                    distinct.put(table, Boolean.TRUE);
+                }
+            }
+        }
+        long sizeBytes = 16 + 4L * cells;
+        for (TariffTable table : distinct.keySet()) {
+            sizeBytes += table.sizeBytes();
+        }
+        return new TariffSchedule(tableByCell, rules, sizeBytes);
+    }
+
+    /** Reads the tariff file, or falls back to the built-in standard tariff if it is missing. */
+    public static TariffSchedule load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return parse(DEFAULT_TARIFFS);
+        }
+        return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Fee in minor units (paise) for a stay that starts at entryMinute.
+     *
+     * @param entryMinute     local wall-clock time as minutes since 1970-01-01 00:00, see localMinute()
+     * @param durationMinutes length of the stay
+     */
+    public long fee(VehicleClass vehicleClass, long entryMinute, int durationMinutes) {
+        return tableFor(vehicleClass, entryMinute).fee(durationMinutes);
+    }
+
+    /** The compiled table that prices a stay of this class starting at entryMinute. */
+    public TariffTable tableFor(VehicleClass vehicleClass, long entryMinute) {
+        long day = Math.floorDiv(entryMinute, MINUTES_PER_DAY);
+        int minuteOfDay = Math.floorMod(entryMinute, MINUTES_PER_DAY);
+        int dayOfWeek = Math.floorMod(day + 3, 7);   // 1970-01-01 was a Thursday; 0 = Monday
+        return tableByCell[cell(vehicleClass, dayOfWeek >= 5 ? 1 : 0, minuteOfDay)];
+    }
+
+    public int ruleCount() { return ruleCount; }
+
+    /** Heap bytes held by the compiled tables and the cell index. */
+    public long sizeBytes() { return sizeBytes; }
+
+    /** Local wall-clock minutes since 1970-01-01 00:00 for an epoch-millisecond instant. */
+    public static long localMinute(long epochMillis) {
+        return Math.floorDiv(epochMillis + TimeZone.getDefault().getOffset(epochMillis), 60_000L);
+    }
+
+    private static int cell(VehicleClass vehicleClass, int dayType, int minuteOfDay) {
+        return (vehicleClass.ordinal() * DAY_TYPES + dayType) * MINUTES_PER_DAY + minuteOfDay;
+    }
+
+    private static VehicleClass[] parseClasses(String token, int lineNo) {
+        if (token.equals("*")) {
+            return VehicleClass.values();
+        }
+        try {
+            return new VehicleClass[]{VehicleClass.valueOf(token.toUpperCase(Locale.ROOT))};
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tariff line " + lineNo + ": unknown vehicle class '" + token + "'");
+        }
+    }
+
+    private static boolean[] parseDays(String token, int lineNo) {
+        switch (token.toUpperCase(Locale.ROOT)) {
+            case "ALL": return new boolean[]{true, true};
+            case "WEEKDAY": return new boolean[]{true, false};
+            case "WEEKEND": return new boolean[]{false, true};
+            default:
+                throw new IllegalArgumentException("Tariff line " + lineNo + ": days must be ALL, WEEKDAY or WEEKEND but got '" + token + "'");
+        }
+    }
+
+    // Returns {fromMinute, toMinute}; toMinute may be 1440 for "24:00"
+    private static int[] parseWindow(String token, int lineNo) {
+        String[] ends = token.split("-");
+        if (ends.length != 2) {
+            throw new IllegalArgumentException("Tariff line " + lineNo + ": window must look like HH:MM-HH:MM but got '" + token + "'");
+        }
+        int from = parseClock(ends[0], lineNo);
+        int to = parseClock(ends[1], lineNo);
+        if (from == MINUTES_PER_DAY || from == to) {
+            throw new IllegalArgumentException("Tariff line " + lineNo + ": empty window '" + token + "'");
+        }
+        return new int[]{from, to};
+    }
+
+    private static int parseClock(String token, int lineNo) {
+        String[] hm = token.split(":");
+        try {
+            int h = Integer.parseInt(hm[0]);
+            int m = hm.length > 1 ? Integer.parseInt(hm[1]) : 0;
+            int minute = h * 60 + m;
+            if (hm.length > 2 || h < 0 || m < 0 || m > 59 || minute > MINUTES_PER_DAY) {
+                throw new NumberFormatException();
+            }
+            return minute;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Tariff line " + lineNo + ": bad time '" + token + "'");
+        }
+    }
+
+    // Rupees with up to two decimals -> paise
+    private static long parseMoney(String token, int lineNo) {
+        try {
+            long paise = new BigDecimal(token).movePointRight(2).longValueExact();
+            if (paise < 0) throw new ArithmeticException();
+            return paise;
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Tariff line " + lineNo + ": bad amount '" + token + "'");
+        }
+    }
+}
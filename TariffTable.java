@@ -0,0 +1,40 @@
+/**
+ * Compiled tariff: the fee for every duration minute, precomputed.
+ *
+ * ALGORITHM: Lookup table
+ * fee(minutes) is a single array read for any stay up to the table length.
+ * Longer stays fall back to whole hours times the hourly rate plus the table
+ * entry for the leftover minutes, which is what the rules would give.
+ *
+ * The table is immutable after construction, so any number of gate threads
+ * can share one instance without locking.
+ *
+ * Time Complexity: O(1) per lookup
+ * Space Complexity: 8 bytes per table minute (7 days = ~80 KB)
+ */
+public final class TariffTable {
+    public static final int DEFAULT_MAX_MINUTES = 7 * 24 * 60;
+
+    private final long[] feeByMinute;
+    private final long hourlyRate;
+
+    TariffTable(long[] feeByMinute, long hourlyRate) {
+        this.feeByMinute = feeByMinute;
+        this.hourlyRate = hourlyRate;
+    }
+
+    /** Fee in minor units (paise) for a stay of the given length. */
+    public long fee(int durationMinutes) {
+        if (durationMinutes < feeByMinute.length) {
+            return feeByMinute[durationMinutes];
+        }
+        return (durationMinutes / 60) * hourlyRate + feeByMinute[durationMinutes % 60];
+    }
+
+    public int maxMinutes() { return feeByMinute.length - 1; }
+
+    public long hourlyRate() { return hourlyRate; }
+
+    /** Heap bytes held by the fee array. */
+    public long sizeBytes() { return 16 + 8L * feeByMinute.length; }
+}
@@ -1,11 +1,22 @@
 import java.sql.Connection;
+import java.sql.SQLException;
 
 public class TestDB {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
         Connection conn = DBConnection.getConnection();  // Get connection
 
         if (conn != null) {
             System.out.println("Database connected successfully!");
+            conn.close();  // Returns it to the pool
+
+            // A second borrow should reuse the pooled connection instead of reconnecting
+            long t0 = System.nanoTime();
+            try (Connection again = DBConnection.getConnection()) {
+                System.out.println("Second borrow took " + (System.nanoTime() - t0) / 1_000 + " us, valid: " + (again != null && again.isValid(1)));
+            } catch (SQLException e) {
+                System.out.println("Second borrow failed: " + e.getMessage());
+            }
+            System.out.println("Pool: " + DBConnection.pool().stats());
         } else {
             System.out.println("Failed to connect to database.");
         }
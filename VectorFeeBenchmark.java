@@ -0,0 +1,86 @@
+import java.util.SplittableRandom;
+
+/**
+ * Equality check and speedup of the SIMD batch fee path.
+ *
+ * 1. Every duration from 0 to MAX_DURATION must cost exactly what
+ *    Payment charges, on the vector path and on the scalar loop.
+ * 2. Per-class tariffs with different bucket counts must match
+ *    TariffRules.fee() on random stays.
+ * 3. Times the scalar loop and the vector path over the same batch.
+ *
+ * Run:  java --add-modules jdk.incubator.vector VectorFeeBenchmark [batch] [rounds]
+ * (without --add-modules the vector path is unavailable and both columns time the scalar loop)
+ */
+public class VectorFeeBenchmark {
+
+    public static void main(String[] args) {
+        int batch = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        BatchFeeCalculator standard = BatchFeeCalculator.standard();
+        System.out.println("Vector path: " + (standard.isVectorized() ? standard.lanes() + " int lanes" : "not available, scalar fallback"));
+
+        // 1. Same fees as Payment for every duration
+        int n = BatchFeeCalculator.MAX_DURATION + 1;
+        int[] durations = new int[n];
+        int[] classIds = new int[n];
+        for (int d = 0; d < n; d++) {
+            durations[d] = d;
+            classIds[d] = d % VehicleClass.values().length;
+        }
+        int[] vectorFees = new int[n];
+        int[] scalarFees = new int[n];
+        standard.compute(durations, classIds, vectorFees, n);
+        standard.computeScalar(durations, classIds, scalarFees, n);
+        Payment payment = new Payment();
+        for (int d = 0; d < n; d++) {
+            long expected = payment.TotalAmountMinor(d);
+            if (vectorFees[d] != expected || scalarFees[d] != expected) {
+                throw new IllegalStateException(d + " min: Payment " + expected + ", vector " + vectorFees[d] + ", scalar " + scalarFees[d]);
+            }
+        }
+        System.out.println("Matches Payment for 0.." + BatchFeeCalculator.MAX_DURATION + " min: OK");
+
+        // 2. Per-class rules
+        TariffRules[] rules = {
+            new TariffRules(1000, new int[]{1, 30}, new long[]{500, 1000}),
+            TariffRules.standard(),
+            new TariffRules(5000, new int[]{1, 10, 20, 40}, new long[]{1500, 2500, 3500, 4500}),
+        };
+        BatchFeeCalculator perClass = new BatchFeeCalculator(rules);
+        SplittableRandom rnd = new SplittableRandom(7);
+        int[] d2 = new int[batch];
+        int[] c2 = new int[batch];
+        for (int i = 0; i < batch; i++) {
+            d2[i] = rnd.nextInt(3 * DurationEngine.MINUTES_PER_DAY);
+            c2[i] = rnd.nextInt(rules.length);
+        }
+        int[] out = new int[batch];
+        perClass.compute(d2, c2, out, batch);
+        for (int i = 0; i < batch; i++) {
+            if (out[i] != rules[c2[i]].fee(d2[i])) {
+                throw new IllegalStateException("Class " + c2[i] + ", " + d2[i] + " min: expected " + rules[c2[i]].fee(d2[i]) + " got " + out[i]);
+            }
+        }
+        System.out.println("Matches TariffRules per class on " + batch + " random stays: OK");
+
+        // 3. Timing
+        for (int warm = 0; warm < 20; warm++) {
+            perClass.computeScalar(d2, c2, out, batch);
+            perClass.compute(d2, c2, out, batch);
+        }
+        long t0 = System.nanoTime();
+        for (int r = 0; r < rounds; r++) perClass.computeScalar(d2, c2, out, batch);
+        long scalarNanos = System.nanoTime() - t0;
+        t0 = System.nanoTime();
+        for (int r = 0; r < rounds; r++) perClass.compute(d2, c2, out, batch);
+        long vectorNanos = System.nanoTime() - t0;
+
+        double total = (double) batch * rounds;
+        System.out.println(String.format("%-8s %12s %14s", "path", "ns / fee", "M fees / s"));
+        System.out.println(String.format("%-8s %12.2f %14.0f", "scalar", scalarNanos / total, total / scalarNanos * 1_000));
+        System.out.println(String.format("%-8s %12.2f %14.0f", "vector", vectorNanos / total, total / vectorNanos * 1_000));
+        System.out.println(String.format("Speedup: %.1fx", (double) scalarNanos / vectorNanos));
+    }
+}
@@ -0,0 +1,71 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD fee kernel for BatchFeeCalculator (jdk.incubator.vector).
+ *
+ * ALGORITHM: Branch-free fee per lane
+ * For a vector of durations d and class ids c:
+ *   hours    = d / 60 as a multiply by a fixed-point reciprocal and a shift
+ *   leftover = d - hours * 60
+ *   fee      = hours * rate[c] + leftoverFee[c * 60 + leftover]
+ * Both lookups are lane gathers from the same tables the scalar loop uses,
+ * so the two paths cannot disagree on the bucket rules.
+ * Integer division has no SIMD instruction; the reciprocal is exact for
+ * every duration up to MAX_DURATION, which the benchmark checks exhaustively.
+ *
+ * Only referenced from BatchFeeCalculator, which catches the LinkageError
+ * when the module is not present.
+ *
+ * Time Complexity: O(n / lanes)
+ * Space Complexity: O(lanes) scratch for gather indexes
+ */
+final class VectorFeeKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int RECIPROCAL_60 = (int) (((1L << 26) + 59) / 60);   // exact d / 60 for d < 2^20
+
+    private final int[] rate;
+    private final int[] leftoverFee;
+    private final int classes;
+
+    VectorFeeKernel(int[] rate, int[] leftoverFee) {
+        this.rate = rate;
+        this.leftoverFee = leftoverFee;
+        this.classes = rate.length;
+    }
+
+    int lanes() { return SPECIES.length(); }
+
+    int loopBound(int n) { return SPECIES.loopBound(n); }
+
+    /** Computes fees for [0, upper), upper a multiple of lanes(); returns the OR of all durations. */
+    int compute(int[] durations, int[] classIds, int[] fees, int upper) {
+        int[] leftoverIndex = new int[SPECIES.length()];
+        IntVector bits = IntVector.zero(SPECIES);
+        for (int i = 0; i < upper; i += SPECIES.length()) {
+            IntVector d = IntVector.fromArray(SPECIES, durations, i);
+            IntVector c = IntVector.fromArray(SPECIES, classIds, i);
+            VectorMask<Integer> badClass = c.compare(VectorOperators.UNSIGNED_GE, classes);
+            if (badClass.anyTrue()) {
+                int lane = badClass.firstTrue();
+                throw new IllegalArgumentException("Unknown vehicle class id " + classIds[i + lane] + " at index " + (i + lane));
+            }
+            bits = bits.or(d);
+            d = d.and(BatchFeeCalculator.MAX_DURATION);   // keep the gathers in range; the caller throws on bits
+
+            // hours = d * M >>> 26 with M = ceil(2^26 / 60), split at bit 10 so no product overflows an int
+            IntVector hours = d.lanewise(VectorOperators.LSHR, 10).mul(RECIPROCAL_60)
+                    .add(d.and(1023).mul(RECIPROCAL_60).lanewise(VectorOperators.LSHR, 10))
+                    .lanewise(VectorOperators.LSHR, 16);
+            IntVector leftover = d.sub(hours.mul(60));
+
+            IntVector laneRate = IntVector.fromArray(SPECIES, rate, 0, classIds, i);
+            c.mul(60).add(leftover).intoArray(leftoverIndex, 0);
+            IntVector extra = IntVector.fromArray(SPECIES, leftoverFee, 0, leftoverIndex, 0);
+            hours.mul(laneRate).add(extra).intoArray(fees, i);
+        }
+        return bits.reduceLanes(VectorOperators.OR);
+    }
+}
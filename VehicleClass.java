@@ -0,0 +1,64 @@
+import java.util.Locale;
+
+/**
+ * Vehicle / spot size classes used by allocation.
+ *
+ * A vehicle may park in its own class of spot or any larger one, best fit
+ * first: a bike can take a car spot, but an SUV needs a large spot.
+ */
+public enum VehicleClass {
+    BIKE("Bike"),
+    CAR("Car"),
+    LARGE("Large");
+
+    private static final VehicleClass[] BIKE_FALLBACK = {BIKE, CAR, LARGE};
+    private static final VehicleClass[] CAR_FALLBACK = {CAR, LARGE};
+    private static final VehicleClass[] LARGE_FALLBACK = {LARGE};
+
+    private final String label;
+
+    VehicleClass(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() { return label; }
+
+    /** Spot classes this vehicle may use, best fit first. */
+    public VehicleClass[] fallbackOrder() {
+        switch (this) {
+            case BIKE: return BIKE_FALLBACK;
+            case LARGE: return LARGE_FALLBACK;
+            default: return CAR_FALLBACK;
+        }
+    }
+
+    public boolean fitsIn(VehicleClass spotClass) {
+        return spotClass.ordinal() >= ordinal();
+    }
+
+    /**
+     * Maps the free-text vehicle type from the booking form or Car.getType()
+     * ("Bike", "SUV", "Sedan", "Pickup-truck", ...) to a class. Unknown types are cars.
+     */
+    public static VehicleClass fromType(String type) {
+        if (type == null) return CAR;
+        switch (type.trim().toLowerCase(Locale.ROOT)) {
+            case "bike":
+            case "motorbike":
+            case "motorcycle":
+            case "scooter":
+            case "bicycle":
+                return BIKE;
+            case "suv":
+            case "van":
+            case "minivan":
+            case "bus":
+            case "truck":
+            case "pickup-truck":
+            case "large":
+                return LARGE;
+            default:
+                return CAR;
+        }
+    }
+}